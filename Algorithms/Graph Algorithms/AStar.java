@@ -95,7 +95,7 @@ public class AStar {
 
             closedSet.add(current);
 
-            for (Edge edge : graph.getEdgesFrom(current)) {
+            for (Edge edge : graph.getNeighbors(current)) {
                 Node neighbor = edge.to;
 
                 if (closedSet.contains(neighbor))
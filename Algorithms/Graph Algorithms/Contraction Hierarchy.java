@@ -0,0 +1,791 @@
+/*
+  Description:
+  --------------------
+  A Contraction Hierarchy (Geisberger et al.) answers shortest path queries
+  on road networks in well under a millisecond, after a preprocessing step
+  that runs once per graph.
+
+  Preprocessing contracts the vertices one at a time, least important first:
+  - Contracting v removes it from the graph. For every pair of neighbors
+    u -> v -> x, a shortcut edge u -> x with weight w(u, v) + w(v, x) is
+    added, unless a witness search (a small Dijkstra from u that avoids v)
+    finds a path u -> x that is no longer.
+  - Importance is twice the edge difference (shortcuts added minus edges
+    removed) plus the number of already contracted neighbors and the
+    vertex's level, which spread the contraction evenly over the graph.
+    Priorities are recomputed lazily when a vertex reaches the top of the
+    queue, and eagerly for the neighbors of every contracted vertex.
+
+  The rank of a vertex is its position in the contraction order. Every
+  shortest path then has an equally short version in the original graph
+  plus the shortcuts that first goes up in rank, then down. A query runs
+  two Dijkstra searches that only go upwards: a forward one from the source
+  over the upward graph and a backward one from the target over the
+  downward graph (the edges that come down into a vertex, reversed). They
+  meet at the highest vertex of the path.
+
+  - Both search graphs are CSR arrays numbered by rank, so vertices that are
+    contracted late (the ones every query visits) sit next to each other.
+  - Stall-on-demand: a vertex whose distance can already be beaten through
+    a higher neighbor is not expanded, since no shortest path runs through
+    it.
+  - Every edge remembers the vertex it skips (-1 for original edges), so
+    the path is unpacked by recursively replacing shortcuts, with an
+    explicit stack.
+  - write/read store the hierarchy in a little-endian binary file, so the
+    preprocessing is paid once per graph, not once per process.
+
+  Supports:
+  - build(graph), query(source, target): distance, unpacked path and
+    settled-vertex count, as a BidirectionalDijkstra.Result
+  - write(path), read(path), shortcutCount(), sizeInBytes()
+
+  Use Cases:
+  --------------------
+  - Route planning on continental road networks
+  - Distance tables (many-to-many queries) for logistics and ride sharing
+  - Any static graph with a strong hierarchy that gets many queries
+
+  Time Complexity:
+  --------------------
+  - Preprocessing: no useful bound in theory; seconds to minutes for
+    millions of road vertices
+  - Query: the two upward searches settle a few hundred vertices on road
+    networks; unpacking is O(path length)
+
+  Space Complexity:
+  --------------------
+  - 12 bytes per edge of the search graphs (target, weight, skipped vertex)
+    plus 12 bytes per vertex; shortcuts add roughly one edge per original
+    edge on road networks
+  - Preprocessing holds a dynamic copy of the graph with all shortcuts
+
+  Approach:
+  --------------------
+  Think of driving to another city: you take local streets up to a main
+  road, main roads up to the motorway, and at the other end the same steps
+  back down. Nobody drives through the side streets of towns in between,
+  so the search never has to look at them.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+public final class ContractionHierarchy {
+
+    private static final int MAGIC = 0x43484945; // "CHIE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    // Witness searches give up after this many settled vertices; a missed
+    // witness only costs an unnecessary shortcut, never a wrong answer
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    // Priority estimates only count shortcuts, so they can afford to miss more witnesses
+    private static final int SIMULATION_SETTLE_LIMIT = 50;
+
+    private final int n;
+    private final int[] order;   // rank -> original vertex id
+    private final int[] rank;    // original vertex id -> rank
+    // Upward graph: edges rank u -> higher rank v
+    private final int[] upOffsets, upTargets, upWeights, upMiddle;
+    // Downward graph: for rank v, the edges higher rank u -> v, stored as u
+    private final int[] downOffsets, downTargets, downWeights, downMiddle;
+    private final int shortcuts;
+
+    // Per-query state, reused across queries
+    private final Side forward, backward;
+
+    private ContractionHierarchy(int[] order, int[] upOffsets, int[] upTargets, int[] upWeights, int[] upMiddle,
+                                int[] downOffsets, int[] downTargets, int[] downWeights, int[] downMiddle) {
+        this.n = order.length;
+        this.order = order;
+        this.rank = new int[n];
+        for (int r = 0; r < n; r++) rank[order[r]] = r;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddle = upMiddle;
+        this.downOffsets = downOffsets;
+        this.downTargets = downTargets;
+        this.downWeights = downWeights;
+        this.downMiddle = downMiddle;
+        int count = 0;
+        for (int m : upMiddle) if (m >= 0) count++;
+        for (int m : downMiddle) if (m >= 0) count++;
+        this.shortcuts = count;
+        forward = new Side(n, upOffsets, upTargets, upWeights, downOffsets, downTargets, downWeights);
+        backward = new Side(n, downOffsets, downTargets, downWeights, upOffsets, upTargets, upWeights);
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    public int edgeCount() {
+        return upTargets.length + downTargets.length;
+    }
+
+    public int shortcutCount() {
+        return shortcuts;
+    }
+
+    public int rankOf(int v) {
+        return rank[v];
+    }
+
+    // Bytes of the search graphs and the rank tables (not the per-query state)
+    public long sizeInBytes() {
+        return 4L * (2L * n + upOffsets.length + downOffsets.length) + 12L * edgeCount();
+    }
+
+    /*
+      PREPROCESSING
+     */
+    public static ContractionHierarchy build(CSRGraph graph) {
+        if (graph.hasFloatWeights()) throw new IllegalArgumentException("Contraction hierarchies here need int weights");
+        return new Contractor(graph).contract();
+    }
+
+    /*
+      A mutable copy of the graph that shrinks as vertices are contracted.
+      Every vertex keeps its out-edges and in-edges as (vertex, weight,
+      middle) triples in one int[] each. Contracting v removes it from the
+      lists of its neighbors but leaves its own lists alone: from then on
+      they hold exactly its edges to higher-ranked vertices.
+     */
+    private static final class Contractor {
+        final int n;
+        final int[][] out, in;
+        final int[] outSize, inSize;
+        final int[] contractedNeighbors;
+        final int[] level;
+        final int[] updated; // updated[w] == round: w's priority was refreshed for this contraction
+        int round;
+        final int[] rank;
+
+        // Witness search state
+        final long[] dist;
+        final int[] touched;
+        int touchedSize;
+        final IndexedIntHeap heap;
+        final int[] mark; // mark[x] == stamp: x is a target of the current witness search
+        int stamp;
+
+        Contractor(CSRGraph graph) {
+            n = graph.vertexCount();
+            out = new int[n][];
+            in = new int[n][];
+            outSize = new int[n];
+            inSize = new int[n];
+            contractedNeighbors = new int[n];
+            level = new int[n];
+            updated = new int[n];
+            rank = new int[n];
+            Arrays.fill(rank, -1);
+            int[] offsets = graph.offsets(), targets = graph.targets(), weights = graph.weights();
+            for (int u = 0; u < n; u++) {
+                out[u] = new int[3 * Math.max(1, offsets[u + 1] - offsets[u])];
+                in[u] = new int[3];
+            }
+            for (int u = 0; u < n; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (v != u) addEdge(u, v, weights == null ? 1 : weights[e], -1); // self-loops never help
+                }
+            }
+            dist = new long[n];
+            Arrays.fill(dist, Long.MAX_VALUE);
+            touched = new int[n];
+            heap = new IndexedIntHeap(n, 4);
+            mark = new int[n];
+        }
+
+        // Adds u -> v, or lowers the weight of an existing u -> v (parallel edges collapse to the shortest)
+        void addEdge(int u, int v, int weight, int middle) {
+            int[] list = out[u];
+            for (int i = 0, end = 3 * outSize[u]; i < end; i += 3) {
+                if (list[i] != v) continue;
+                if (weight < list[i + 1]) {
+                    list[i + 1] = weight;
+                    list[i + 2] = middle;
+                    int[] back = in[v];
+                    for (int j = 0; ; j += 3) {
+                        if (back[j] == u) {
+                            back[j + 1] = weight;
+                            back[j + 2] = middle;
+                            break;
+                        }
+                    }
+                }
+                return;
+            }
+            out[u] = append(out[u], outSize[u]++, v, weight, middle);
+            in[v] = append(in[v], inSize[v]++, u, weight, middle);
+        }
+
+        private static int[] append(int[] list, int size, int v, int weight, int middle) {
+            if (3 * size == list.length) list = Arrays.copyOf(list, 2 * list.length);
+            list[3 * size] = v;
+            list[3 * size + 1] = weight;
+            list[3 * size + 2] = middle;
+            return list;
+        }
+
+        private static int remove(int[] list, int size, int v) {
+            for (int i = 0; i < 3 * size; i += 3) {
+                if (list[i] == v) {
+                    int last = 3 * (size - 1);
+                    list[i] = list[last];
+                    list[i + 1] = list[last + 1];
+                    list[i + 2] = list[last + 2];
+                    return size - 1;
+                }
+            }
+            return size;
+        }
+
+        /*
+          Dijkstra from source that never enters skip. It stops once the
+          targets (vertices with mark == stamp) are all settled, the keys
+          pass limit, or settleLimit vertices are settled.
+         */
+        void witnessSearch(int source, int skip, long limit, int targets, int settleLimit) {
+            label(source, 0);
+            int settled = 0;
+            while (targets > 0 && !heap.isEmpty() && heap.peekKey() <= limit && settled++ < settleLimit) {
+                int u = heap.poll();
+                if (mark[u] == stamp) targets--;
+                long du = dist[u];
+                int[] list = out[u];
+                for (int i = 0, end = 3 * outSize[u]; i < end; i += 3) {
+                    int v = list[i];
+                    long d = du + list[i + 1];
+                    if (v != skip && d <= limit && d < dist[v]) label(v, d); // beyond limit cannot be a witness
+                }
+            }
+        }
+
+        private void label(int v, long d) {
+            if (dist[v] == Long.MAX_VALUE) touched[touchedSize++] = v;
+            dist[v] = d;
+            heap.insertOrDecrease(v, d);
+        }
+
+        private void resetWitness() {
+            for (int i = 0; i < touchedSize; i++) dist[touched[i]] = Long.MAX_VALUE;
+            touchedSize = 0;
+            heap.clear();
+        }
+
+        /*
+          The shortcuts contracting v needs, added to the graph if add is
+          set and only counted otherwise.
+         */
+        int shortcuts(int v, boolean add) {
+            int[] ins = in[v], outs = out[v];
+            int inCount = inSize[v], outCount = outSize[v];
+            if (inCount == 0 || outCount == 0) return 0;
+            int maxOut = 0;
+            for (int j = 0; j < 3 * outCount; j += 3) maxOut = Math.max(maxOut, outs[j + 1]);
+
+            int count = 0;
+            for (int i = 0; i < 3 * inCount; i += 3) {
+                int u = ins[i], wu = ins[i + 1];
+                stamp++;
+                int targets = 0;
+                for (int j = 0; j < 3 * outCount; j += 3) {
+                    if (outs[j] != u && mark[outs[j]] != stamp) {
+                        mark[outs[j]] = stamp;
+                        targets++;
+                    }
+                }
+                witnessSearch(u, v, (long) wu + maxOut, targets, add ? WITNESS_SETTLE_LIMIT : SIMULATION_SETTLE_LIMIT);
+                for (int j = 0; j < 3 * outCount; j += 3) {
+                    int x = outs[j];
+                    if (x == u) continue;
+                    long viaV = (long) wu + outs[j + 1];
+                    if (dist[x] <= viaV) continue; // a witness path is as short
+                    count++;
+                    if (!add) continue;
+                    if (viaV > Integer.MAX_VALUE) throw new IllegalArgumentException("Shortcut " + u + " -> " + x + " overflows an int weight");
+                    addEdge(u, x, (int) viaV, v);
+                }
+                resetWitness();
+            }
+            return count;
+        }
+
+        /*
+          Edge difference, weighted double, plus the contracted neighbors and
+          the level (one more than the highest contracted neighbor's), which
+          keep the contraction spread out and the hierarchy shallow.
+         */
+        long priority(int v) {
+            int added = shortcuts(v, false), removed = inSize[v] + outSize[v];
+            return 2L * (added - removed) + contractedNeighbors[v] + level[v];
+        }
+
+        ContractionHierarchy contract() {
+            IndexedIntHeap queue = new IndexedIntHeap(n, 4);
+            for (int v = 0; v < n; v++) queue.insert(v, priority(v));
+
+            int[] order = new int[n];
+            int next = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                // Lazy update: the priority may be stale; put v back if it is no longer the minimum
+                long p = priority(v);
+                if (!queue.isEmpty() && p > queue.peekKey()) {
+                    queue.insert(v, p);
+                    continue;
+                }
+
+                shortcuts(v, true);
+                rank[v] = next;
+                order[next++] = v;
+                for (int i = 0; i < 3 * outSize[v]; i += 3) {
+                    int x = out[v][i];
+                    inSize[x] = remove(in[x], inSize[x], v);
+                }
+                for (int i = 0; i < 3 * inSize[v]; i += 3) {
+                    int u = in[v][i];
+                    outSize[u] = remove(out[u], outSize[u], v);
+                }
+                updateNeighbors(queue, v);
+            }
+            return searchGraphs(order);
+        }
+
+        // Refreshes the priorities around v; neighbors in both lists (two-way streets) are updated once
+        private void updateNeighbors(IndexedIntHeap queue, int v) {
+            round++;
+            for (int i = 0; i < 3 * outSize[v]; i += 3) updateNeighbor(queue, v, out[v][i]);
+            for (int i = 0; i < 3 * inSize[v]; i += 3) updateNeighbor(queue, v, in[v][i]);
+        }
+
+        private void updateNeighbor(IndexedIntHeap queue, int v, int w) {
+            if (updated[w] == round) return;
+            updated[w] = round;
+            contractedNeighbors[w]++;
+            level[w] = Math.max(level[w], level[v] + 1);
+            long p = priority(w);
+            long old = queue.keyOf(w);
+            if (p < old) queue.decreaseKey(w, p);
+            else if (p > old) queue.increaseKey(w, p);
+        }
+
+        // Frozen lists of every vertex -> CSR arrays numbered by rank
+        private ContractionHierarchy searchGraphs(int[] order) {
+            int[] upOffsets = new int[n + 1], downOffsets = new int[n + 1];
+            for (int r = 0; r < n; r++) {
+                upOffsets[r + 1] = upOffsets[r] + outSize[order[r]];
+                downOffsets[r + 1] = downOffsets[r] + inSize[order[r]];
+            }
+            int[] upTargets = new int[upOffsets[n]], upWeights = new int[upOffsets[n]], upMiddle = new int[upOffsets[n]];
+            int[] downTargets = new int[downOffsets[n]], downWeights = new int[downOffsets[n]], downMiddle = new int[downOffsets[n]];
+            for (int r = 0; r < n; r++) {
+                int v = order[r];
+                copy(out[v], outSize[v], upOffsets[r], upTargets, upWeights, upMiddle);
+                copy(in[v], inSize[v], downOffsets[r], downTargets, downWeights, downMiddle);
+                out[v] = null; // the dynamic graph can go while the arrays fill up
+                in[v] = null;
+            }
+            return new ContractionHierarchy(order, upOffsets, upTargets, upWeights, upMiddle,
+                    downOffsets, downTargets, downWeights, downMiddle);
+        }
+
+        // Edges of one vertex, sorted by target so that unpacking can binary search them
+        private void copy(int[] list, int size, int at, int[] targets, int[] weights, int[] middle) {
+            for (int i = 0; i < size; i++) {
+                int target = rank[list[3 * i]], weight = list[3 * i + 1];
+                int skipped = list[3 * i + 2] < 0 ? -1 : rank[list[3 * i + 2]];
+                int j = at + i;
+                for (; j > at && targets[j - 1] > target; j--) { // insertion sort: degrees are small
+                    targets[j] = targets[j - 1];
+                    weights[j] = weights[j - 1];
+                    middle[j] = middle[j - 1];
+                }
+                targets[j] = target;
+                weights[j] = weight;
+                middle[j] = skipped;
+            }
+        }
+    }
+
+    /*
+      QUERY
+     */
+    // One direction of the query: it searches one graph and stalls on the other
+    private static final class Side {
+        final int[] offsets, targets, weights;                // the graph this side searches
+        final int[] stallOffsets, stallTargets, stallWeights; // edges from higher vertices into this side's vertices
+        final long[] dist;
+        final int[] parent;
+        final IndexedIntHeap heap;
+        final int[] touched;
+        int touchedSize;
+
+        Side(int n, int[] offsets, int[] targets, int[] weights, int[] stallOffsets, int[] stallTargets, int[] stallWeights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.stallOffsets = stallOffsets;
+            this.stallTargets = stallTargets;
+            this.stallWeights = stallWeights;
+            dist = new long[n];
+            Arrays.fill(dist, Long.MAX_VALUE);
+            parent = new int[n];
+            heap = new IndexedIntHeap(n, 4);
+            touched = new int[n];
+        }
+
+        void label(int v, long d, int from) {
+            if (dist[v] == Long.MAX_VALUE) touched[touchedSize++] = v;
+            dist[v] = d;
+            parent[v] = from;
+            heap.insertOrDecrease(v, d);
+        }
+
+        // Stall-on-demand: u's label is beaten by a path through a higher vertex, so u is not on a shortest path
+        boolean stalled(int u) {
+            long du = dist[u];
+            for (int e = stallOffsets[u], end = stallOffsets[u + 1]; e < end; e++) {
+                long dw = dist[stallTargets[e]];
+                if (dw != Long.MAX_VALUE && dw + stallWeights[e] < du) return true;
+            }
+            return false;
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedSize; i++) dist[touched[i]] = Long.MAX_VALUE;
+            touchedSize = 0;
+            heap.clear();
+        }
+    }
+
+    // One query at a time per hierarchy: queries share the search arrays
+    public synchronized BidirectionalDijkstra.Result query(int source, int target) {
+        if (source < 0 || source >= n) throw new IndexOutOfBoundsException("Source " + source + " outside 0.." + (n - 1));
+        if (target < 0 || target >= n) throw new IndexOutOfBoundsException("Target " + target + " outside 0.." + (n - 1));
+        if (source == target) return new BidirectionalDijkstra.Result(0, new int[] { source }, 0);
+
+        forward.label(rank[source], 0, -1);
+        backward.label(rank[target], 0, -1);
+        long best = Long.MAX_VALUE;
+        int meet = -1;
+        int settled = 0;
+
+        while (true) {
+            // A side is done once its smallest key cannot improve the best meeting point
+            boolean forwardOpen = !forward.heap.isEmpty() && forward.heap.peekKey() < best;
+            boolean backwardOpen = !backward.heap.isEmpty() && backward.heap.peekKey() < best;
+            if (!forwardOpen && !backwardOpen) break;
+            Side side = forwardOpen && (!backwardOpen || forward.heap.peekKey() <= backward.heap.peekKey()) ? forward : backward;
+            Side other = side == forward ? backward : forward;
+
+            int u = side.heap.poll();
+            settled++;
+            long du = side.dist[u];
+            if (other.dist[u] != Long.MAX_VALUE && du + other.dist[u] < best) {
+                best = du + other.dist[u];
+                meet = u;
+            }
+            if (side.stalled(u)) continue;
+            for (int e = side.offsets[u], end = side.offsets[u + 1]; e < end; e++) {
+                int v = side.targets[e];
+                long d = du + side.weights[e];
+                if (d < side.dist[v]) side.label(v, d, u);
+            }
+        }
+
+        int[] path = best == Long.MAX_VALUE ? new int[0] : path(meet);
+        forward.reset();
+        backward.reset();
+        return new BidirectionalDijkstra.Result(best, path, settled);
+    }
+
+    // A growable int array for paths and the unpacking stack
+    private static final class Ints {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, 2 * size);
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+    }
+
+    // Upward path source -> meet, downward path meet -> target, every shortcut unpacked
+    private int[] path(int meet) {
+        Ints up = new Ints(); // meet ... source
+        for (int v = meet; v != -1; v = forward.parent[v]) up.add(v);
+        Ints path = new Ints(), stack = new Ints();
+        path.add(up.values[up.size - 1]);
+        for (int i = up.size - 1; i > 0; i--) unpack(up.values[i], up.values[i - 1], path, stack);
+        for (int v = meet; backward.parent[v] != -1; v = backward.parent[v]) unpack(v, backward.parent[v], path, stack);
+
+        int[] ids = new int[path.size];
+        for (int i = 0; i < path.size; i++) ids[i] = order[path.values[i]];
+        return ids;
+    }
+
+    // Appends the vertices after from on the original path from -> to
+    private void unpack(int from, int to, Ints path, Ints stack) {
+        stack.add(from);
+        stack.add(to);
+        while (stack.size > 0) {
+            int b = stack.pop(), a = stack.pop();
+            int middle = middle(a, b);
+            if (middle < 0) {
+                path.add(b);
+                continue;
+            }
+            stack.add(middle); // a -> middle comes out first
+            stack.add(b);
+            stack.add(a);
+            stack.add(middle);
+        }
+    }
+
+    // The vertex edge a -> b skips (-1 for an original edge); the edge lives at its lower end
+    private int middle(int a, int b) {
+        int e = edgeIndex(a, b);
+        if (e < 0) throw new IllegalStateException("No edge " + order[a] + " -> " + order[b] + " in the hierarchy");
+        return a < b ? upMiddle[e] : downMiddle[e];
+    }
+
+    private int edgeIndex(int a, int b) {
+        return a < b ? Arrays.binarySearch(upTargets, upOffsets[a], upOffsets[a + 1], b)
+                : Arrays.binarySearch(downTargets, downOffsets[b], downOffsets[b + 1], a);
+    }
+
+    // Unpacking replaces a -> b by a -> middle -> b, so both halves must exist
+    private void checkShortcuts(Path path) throws IOException {
+        for (int r = 0; r < n; r++) {
+            for (int e = upOffsets[r]; e < upOffsets[r + 1]; e++) {
+                int m = upMiddle[e];
+                if (m >= 0 && (edgeIndex(r, m) < 0 || edgeIndex(m, upTargets[e]) < 0)) {
+                    throw new IOException("Corrupt upward shortcut in " + path);
+                }
+            }
+            for (int e = downOffsets[r]; e < downOffsets[r + 1]; e++) {
+                int m = downMiddle[e];
+                if (m >= 0 && (edgeIndex(downTargets[e], m) < 0 || edgeIndex(m, r) < 0)) {
+                    throw new IOException("Corrupt downward shortcut in " + path);
+                }
+            }
+        }
+    }
+
+    /*
+      SERIALIZATION
+      Layout (little-endian): a 32-byte header with magic, version, vertex
+      count, upward and downward edge counts, then the int arrays order,
+      up offsets / targets / weights / middles and the same for down.
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(upTargets.length).putInt(downTargets.length);
+            while (buffer.position() < HEADER_BYTES) buffer.put((byte) 0);
+            for (int[] array : new int[][] { order, upOffsets, upTargets, upWeights, upMiddle,
+                    downOffsets, downTargets, downWeights, downMiddle }) {
+                for (int value : array) {
+                    if (!buffer.hasRemaining()) drain(channel, buffer);
+                    buffer.putInt(value);
+                }
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    public static ContractionHierarchy read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Not a contraction hierarchy file: " + path);
+            if (size > Integer.MAX_VALUE) throw new IOException("Contraction hierarchy file too large: " + path);
+            ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            if (file.getInt(0) != MAGIC) throw new IOException("Not a contraction hierarchy file: " + path);
+            if (file.getInt(4) != VERSION) throw new IOException("Unsupported version " + file.getInt(4));
+            long n = file.getInt(8), up = file.getInt(12), down = file.getInt(16);
+            if (n < 0 || up < 0 || down < 0 || HEADER_BYTES + 4 * (3 * n + 2 + 3 * up + 3 * down) != size) {
+                throw new IOException("Truncated contraction hierarchy file: " + path);
+            }
+            file.position(HEADER_BYTES);
+            IntBuffer ints = file.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int[][] arrays = new int[9][];
+            long[] lengths = { n, n + 1, up, up, up, n + 1, down, down, down };
+            for (int i = 0; i < arrays.length; i++) {
+                arrays[i] = new int[(int) lengths[i]];
+                ints.get(arrays[i]);
+            }
+            // The right length says nothing about the contents: check what queries and unpacking index by
+            boolean[] seen = new boolean[(int) n];
+            for (int v : arrays[0]) {
+                if (v < 0 || v >= n || seen[v]) throw new IOException("Corrupt vertex order in " + path);
+                seen[v] = true;
+            }
+            checkAdjacency(arrays[1], arrays[2], arrays[3], arrays[4], "upward", path);
+            checkAdjacency(arrays[5], arrays[6], arrays[7], arrays[8], "downward", path);
+            ContractionHierarchy hierarchy = new ContractionHierarchy(arrays[0], arrays[1], arrays[2], arrays[3],
+                    arrays[4], arrays[5], arrays[6], arrays[7], arrays[8]);
+            hierarchy.checkShortcuts(path);
+            return hierarchy;
+        }
+    }
+
+    // Each rank's targets are higher ranks in increasing order (middle() binary searches them), and a
+    // shortcut's middle ranks below both ends, which is what makes unpacking terminate
+    private static void checkAdjacency(int[] offsets, int[] targets, int[] weights, int[] middle, String name,
+                                       Path path) throws IOException {
+        int n = offsets.length - 1;
+        if (offsets[0] != 0 || offsets[n] != targets.length) {
+            throw new IOException("Corrupt " + name + " offsets in " + path);
+        }
+        for (int r = 0; r < n; r++) {
+            if (offsets[r + 1] < offsets[r]) throw new IOException("Corrupt " + name + " offsets in " + path);
+        }
+        for (int r = 0; r < n; r++) {
+            for (int e = offsets[r]; e < offsets[r + 1]; e++) {
+                int previous = e > offsets[r] ? targets[e - 1] : r;
+                if (targets[e] <= previous || targets[e] >= n || weights[e] < 0) {
+                    throw new IOException("Corrupt " + name + " edge in " + path);
+                }
+                if (middle[e] < -1 || middle[e] >= r) throw new IOException("Corrupt " + name + " shortcut in " + path);
+            }
+        }
+    }
+
+    // QUICK BENCHMARK: preprocessing, file round trip and query latency on a road-like grid
+    private static void benchmark(CSRGraph graph, int landmarkCount, int queries) throws IOException {
+        int n = graph.vertexCount();
+        System.out.printf("Road grid: %d vertices, %d edges, %d random queries%n", n, graph.edgeCount(), queries);
+
+        long start = System.nanoTime();
+        ContractionHierarchy built = build(graph);
+        System.out.printf("  contraction: %.1f s, %d shortcuts (%.2f per original edge), %.1f MB%n",
+                (System.nanoTime() - start) / 1e9, built.shortcutCount(), (double) built.shortcutCount() / graph.edgeCount(),
+                built.sizeInBytes() / 1e6);
+        Path file = Files.createTempFile("hierarchy", ".ch");
+        try {
+            start = System.nanoTime();
+            built.write(file);
+            long writeTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            ContractionHierarchy hierarchy = read(file);
+            System.out.printf("  file: %.1f MB, write %.0f ms, read %.0f ms%n", Files.size(file) / 1e6, writeTime / 1e6,
+                    (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            Landmarks landmarks = Landmarks.avoid(graph, landmarkCount, new Random(1));
+            System.out.printf("  ALT preprocessing (%d avoid landmarks): %.1f s, %.1f MB%n", landmarkCount,
+                    (System.nanoTime() - start) / 1e9, landmarks.sizeInBytes() / 1e6);
+            BidirectionalDijkstra bidirectional = new BidirectionalDijkstra(graph);
+
+            Random random = new Random(7);
+            int[] sources = new int[queries], targets = new int[queries];
+            for (int q = 0; q < queries; q++) {
+                sources[q] = random.nextInt(n);
+                targets[q] = random.nextInt(n);
+            }
+            String[] names = { "Dijkstra (whole graph)", "Bidirectional Dijkstra", "ALT (A*), 4 active landmarks",
+                    "Contraction hierarchy", "Contraction hierarchy, read" };
+            for (int round = 0; round < 2; round++) { // first round warms up the JIT
+                long[] time = new long[names.length], settled = new long[names.length];
+                for (int q = 0; q < queries; q++) {
+                    int s = sources[q], t = targets[q];
+                    start = System.nanoTime();
+                    long[] dist = Dijkstra.dijkstra(graph, s, new IndexedIntHeap(n, 4));
+                    time[0] += System.nanoTime() - start;
+                    for (long d : dist) if (d != Long.MAX_VALUE) settled[0]++;
+
+                    for (int method = 1; method < names.length; method++) {
+                        start = System.nanoTime();
+                        BidirectionalDijkstra.Result result = method == 1 ? bidirectional.query(s, t)
+                                : method == 2 ? landmarks.aStar(s, t, 4)
+                                : method == 3 ? built.query(s, t)
+                                : hierarchy.query(s, t);
+                        time[method] += System.nanoTime() - start;
+                        settled[method] += result.settled;
+                        if (result.distance != dist[t]) throw new IllegalStateException(names[method] + " is wrong for query " + q);
+                        if (method >= 3 && pathLength(graph, result.path, s, t) != dist[t]) {
+                            throw new IllegalStateException(names[method] + " unpacked a wrong path for query " + q);
+                        }
+                    }
+                }
+                if (round == 1) {
+                    for (int method = 0; method < names.length; method++) {
+                        System.out.printf("  %-30s %9.3f ms %10d settled%n", names[method], time[method] / 1e6 / queries, settled[method] / queries);
+                    }
+                }
+            }
+
+            // Many short queries back to back: the latency a routing service sees
+            int many = 100_000;
+            long checksum = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < many; q++) checksum += hierarchy.query(random.nextInt(n), random.nextInt(n)).distance;
+            System.out.printf("  %d hierarchy queries with paths: %.1f us per query (checksum %d)%n", many,
+                    (System.nanoTime() - start) / 1e3 / many, checksum);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Length of path in graph if it is a walk from s to t, -1 otherwise
+    private static long pathLength(CSRGraph graph, int[] path, int s, int t) {
+        if (path.length == 0 || path[0] != s || path[path.length - 1] != t) return -1;
+        long length = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            long best = Long.MAX_VALUE;
+            for (int e = graph.edgeStart(path[i]); e < graph.edgeEnd(path[i]); e++) {
+                if (graph.target(e) == path[i + 1]) best = Math.min(best, graph.weight(e));
+            }
+            if (best == Long.MAX_VALUE) return -1;
+            length += best;
+        }
+        return length;
+    }
+
+    // DEMO
+    public static void main(String[] args) throws IOException {
+        // A two-way street 0 - 1 - 2 - 3 - 4 - 5 and a slow bypass 0 - 5
+        CSRGraph.Builder builder = new CSRGraph.Builder(6);
+        int[] lengths = { 4, 2, 7, 1, 3 };
+        for (int v = 0; v < 5; v++) builder.addEdge(v, v + 1, lengths[v]).addEdge(v + 1, v, lengths[v]);
+        CSRGraph graph = builder.addEdge(0, 5, 20).addEdge(5, 0, 20).build();
+        ContractionHierarchy hierarchy = build(graph);
+        int[] ranks = new int[6];
+        for (int v = 0; v < 6; v++) ranks[v] = hierarchy.rankOf(v);
+        System.out.println("Ranks " + Arrays.toString(ranks) + ", " + hierarchy.shortcutCount() + " shortcuts");
+        BidirectionalDijkstra.Result result = hierarchy.query(0, 5);
+        System.out.println("0 -> 5: distance " + result.distance + ", path " + Arrays.toString(result.path)
+                + ", " + result.settled + " vertices settled");
+
+        // Arguments: grid side, landmarks for the ALT baseline, queries, e.g. 1000 16 20
+        // (a 1000 x 1000 grid takes several minutes to contract on one core)
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int landmarks = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        benchmark(GraphGenerators.roadGrid(side, 100, new Random(42)), landmarks, queries);
+    }
+}
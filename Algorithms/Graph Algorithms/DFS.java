@@ -21,34 +21,47 @@
  
   Space Complexity:
   --------------------
-  - O(V) for the visited set (recursion stack or explicit stack)
+  - O(V) for the visited set and the explicit stack
  
   Approach:
   --------------------
   1. Start from the source node
   2. Mark it as visited
-  3. Recursively visit all unvisited neighbors
-  4. Backtrack when no unvisited neighbors remain
+  3. Push an iterator over the node's neighbors and follow the first
+     unvisited one, pushing its iterator in turn
+  4. Pop an iterator once it has no unvisited neighbors left
  */
 
 import java.util.*;
 
 public class DFS {
 
-    public static void dfs(Node start) {
+    public static void dfs(Graph graph, Node start) {
         Set<Node> visited = new HashSet<>();
         System.out.print("DFS Traversal: ");
-        dfsHelper(start, visited);
+        dfsHelper(graph, start, visited);
         System.out.println();
     }
 
-    private static void dfsHelper(Node node, Set<Node> visited) {
+    // The stack holds one neighbor iterator per node on the current path, the
+    // same state recursion keeps in its frames, so a long path costs heap, not
+    // call stack. IterativeDFS does the same over a CSRGraph with int cursors.
+    private static void dfsHelper(Graph graph, Node node, Set<Node> visited) {
+        Deque<Iterator<Edge>> stack = new ArrayDeque<>();
         visited.add(node);
-        System.out.print(node.id + " ");
+        System.out.print(node + " ");
+        stack.push(graph.getNeighbors(node).iterator());
 
-        for (Edge edge : node.edges) {
-            if (!visited.contains(edge.dest)) {
-                dfsHelper(edge.dest, visited);
+        while (!stack.isEmpty()) {
+            Iterator<Edge> edges = stack.peek();
+            if (!edges.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Node next = edges.next().to;
+            if (visited.add(next)) {
+                System.out.print(next + " ");
+                stack.push(graph.getNeighbors(next).iterator());
             }
         }
     }
@@ -57,20 +70,20 @@ public class DFS {
     public static void main(String[] args) {
         Graph g = new Graph(false);
 
-        Node n1 = g.addNode(1);
-        Node n2 = g.addNode(2);
-        Node n3 = g.addNode(3);
-        Node n4 = g.addNode(4);
-        Node n5 = g.addNode(5);
+        Node a = new Node("A");
+        Node b = new Node("B");
+        Node c = new Node("C");
+        Node d = new Node("D");
+        Node e = new Node("E");
 
-        g.addEdge(n1, n2, 1);
-        g.addEdge(n1, n3, 1);
-        g.addEdge(n2, n4, 1);
-        g.addEdge(n3, n4, 1);
-        g.addEdge(n4, n5, 1);
+        g.addEdge(a, b, 1);
+        g.addEdge(a, c, 1);
+        g.addEdge(b, d, 1);
+        g.addEdge(c, d, 1);
+        g.addEdge(d, e, 1);
 
-        g.display();
+        g.printGraph();
 
-        dfs(n1);
+        dfs(g, a);
     }
 }
\ No newline at end of file
@@ -0,0 +1,507 @@
+/*
+  Description:
+  --------------------
+  Delta-stepping (Meyer and Sanders) computes single-source shortest paths
+  with non-negative integer weights in parallel. It sits between Dijkstra,
+  which settles one vertex at a time, and Bellman-Ford, which relaxes
+  everything at once.
+
+  Tentative distances are grouped into buckets of width delta: bucket i
+  holds the vertices with i * delta <= dist < (i + 1) * delta. Buckets are
+  emptied in order, and all vertices of one bucket are relaxed in parallel.
+  - Light edges (weight <= delta) can land in the current bucket, so the
+    bucket is relaxed again until it stays empty.
+  - Heavy edges (weight > delta) always land in a later bucket, so they are
+    relaxed only once, from the final distances of the vertices that left
+    the bucket.
+  A small delta approaches Dijkstra (little wasted work, little
+  parallelism); a large delta approaches Bellman-Ford.
+
+  Details:
+  - dist is an AtomicLongArray; a relaxation is an atomic min (CAS loop), so
+    only the thread that lowers a distance queues the vertex.
+  - Every thread that works on a run keeps its own circular bins
+    (maxWeight / delta + 2 buckets ahead is as far as an edge can reach),
+    and the bins are merged into one frontier array between rounds, as in
+    the GAP benchmark suite. The bins belong to the run, so nothing outlives
+    it in the pool's threads.
+  - Edges are reordered once per graph so that each vertex's light edges
+    come first.
+  - Predecessors are chosen after the distances are final: parent[v] is the
+    smallest u with dist[u] + w(u, v) == dist[v], w > 0. Vertices reached
+    only through zero-weight ties are then attached by a search along those
+    edges, so the parents always form a tree and never depend on thread
+    timing.
+
+  Supports:
+  - new DeltaStepping(graph, delta, pool).run(source), reusable for many
+    sources (e.g. every depot)
+  - shortestPaths(graph, source) with defaultDelta(graph)
+  - Result: dist (Long.MAX_VALUE if unreachable, as in Dijkstra) and parent
+    (parent[source] == source, -1 if unreachable)
+
+  Use Cases:
+  --------------------
+  - Many-source distance tables on road networks (depots, stores, sensors)
+  - SSSP on large social and web graphs where Dijkstra's heap is the
+    bottleneck
+
+  Time Complexity:
+  --------------------
+  - O(V + E + L * d * delta) expected work for random weights, where L is
+    the largest distance and d the maximum degree; the number of bucket
+    rounds is about L / delta times the light-edge depth of a bucket
+
+  Space Complexity:
+  --------------------
+  - A reordered copy of the edges (8 bytes per edge), dist and parent
+    (12 bytes per vertex), and the bins
+
+  Approach:
+  --------------------
+  Think of delivering mail by postcode bands rather than house by house:
+  all the houses within the next kilometre are handled at once by many
+  couriers, short hops inside the band are repeated until nothing changes,
+  and long trips are sent off once, when the band is done.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class DeltaStepping {
+
+    // Frontier vertices relaxed by one leaf task
+    private static final int FRONTIER_CHUNK = 1 << 8;
+    // Vertices handled by one leaf task in whole-graph passes
+    private static final int VERTEX_CHUNK = 1 << 12;
+
+    public static final class Result {
+        public final long[] dist;  // Long.MAX_VALUE if unreachable
+        public final int[] parent; // parent[source] == source, -1 if unreachable
+        public final int buckets, rounds;
+
+        Result(long[] dist, int[] parent, int buckets, int rounds) {
+            this.dist = dist;
+            this.parent = parent;
+            this.buckets = buckets;
+            this.rounds = rounds;
+        }
+    }
+
+    private final int n;
+    private final int[] offsets, targets, weights; // each vertex's light edges first
+    private final int[] lightEnd;                  // end of u's light edges
+    private final int delta, window;
+    private final ForkJoinPool pool;
+
+    public DeltaStepping(CSRGraph graph) {
+        this(graph, defaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    public DeltaStepping(CSRGraph graph, int delta, ForkJoinPool pool) {
+        if (graph.hasFloatWeights()) throw new IllegalArgumentException("Delta-stepping here needs int weights");
+        if (delta < 1) throw new IllegalArgumentException("delta must be positive: " + delta);
+        this.n = graph.vertexCount();
+        this.offsets = graph.offsets();
+        this.delta = delta;
+        this.pool = pool;
+
+        int[] original = graph.targets(), originalWeights = graph.weights();
+        int m = original.length;
+        targets = new int[m];
+        weights = new int[m];
+        lightEnd = new int[n];
+        int maxWeight = 0;
+        for (int e = 0; e < m; e++) {
+            int w = originalWeights == null ? 1 : originalWeights[e];
+            if (w < 0) throw new IllegalArgumentException("Negative weight " + w + " on edge " + e);
+            maxWeight = Math.max(maxWeight, w);
+        }
+        window = maxWeight / delta + 2; // an edge reaches at most this many buckets ahead
+
+        // Light edges to the front of every range, heavy edges to the back
+        pool.invoke(new RangeTask(0, n, VERTEX_CHUNK, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                int light = offsets[u], heavy = offsets[u + 1];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int w = originalWeights == null ? 1 : originalWeights[e];
+                    int slot = w <= delta ? light++ : --heavy;
+                    targets[slot] = original[e];
+                    weights[slot] = w;
+                }
+                lightEnd[u] = light;
+            }
+        }));
+    }
+
+    /*
+      Meyer and Sanders suggest delta ~ maxWeight / maxDegree for uniformly
+      random weights. Twice the mean weight stands in for the maximum (they
+      agree for uniform weights, and a few long highways do not inflate it),
+      and the average degree for the maximum, because power-law graphs have
+      a few huge hubs.
+     */
+    public static int defaultDelta(CSRGraph graph) {
+        int m = graph.edgeCount();
+        if (m == 0) return 1;
+        long total = 0;
+        if (graph.weights() == null) total = m;
+        else for (int w : graph.weights()) total += w;
+        double averageDegree = (double) m / graph.vertexCount();
+        return (int) Math.max(1, 2.0 * total / m / Math.max(1, averageDegree));
+    }
+
+    public static Result shortestPaths(CSRGraph graph, int source) {
+        return new DeltaStepping(graph).run(source);
+    }
+
+    public int delta() {
+        return delta;
+    }
+
+    // Runs may overlap: each one has its own dist array and bins
+    public Result run(int source) {
+        if (source < 0 || source >= n) throw new IndexOutOfBoundsException("Source " + source + " outside 0.." + (n - 1));
+        return new Search().run(source);
+    }
+
+    // One run from one source
+    private final class Search {
+        private final AtomicLongArray dist = new AtomicLongArray(n);
+        private final int[] settledRound = new int[n]; // last bucket round u was added to settled in
+        // Bins of every thread that ran a task of this search, including the caller
+        private final ConcurrentHashMap<Thread, Bins> allBins = new ConcurrentHashMap<>();
+        private int[] frontier = new int[16];
+        private int frontierSize;
+        private long bucket;
+        private int round;
+
+        Result run(int source) {
+            pool.invoke(new RangeTask(0, n, VERTEX_CHUNK, (from, to) -> {
+                for (int v = from; v < to; v++) dist.set(v, Long.MAX_VALUE);
+            }));
+            dist.set(source, 0);
+            localBins().add(0, source);
+
+            int rounds = 0;
+            while ((bucket = nextBucket()) >= 0) {
+                round++;
+                while (gather(false) > 0) { // light edges until the bucket stays empty
+                    pool.invoke(new RangeTask(0, frontierSize, FRONTIER_CHUNK, this::relaxLight));
+                    rounds++;
+                }
+                if (gather(true) > 0) { // heavy edges once, from final distances
+                    pool.invoke(new RangeTask(0, frontierSize, FRONTIER_CHUNK, this::relaxHeavy));
+                    rounds++;
+                }
+            }
+
+            long[] result = new long[n];
+            for (int v = 0; v < n; v++) result[v] = dist.get(v);
+            return new Result(result, parents(result, source), round, rounds);
+        }
+
+        private Bins localBins() {
+            return allBins.computeIfAbsent(Thread.currentThread(), t -> new Bins(window));
+        }
+
+        private void relaxLight(int from, int to) {
+            Bins bins = localBins();
+            long bucketStart = bucket * delta, bucketEnd = bucketStart + delta;
+            for (int i = from; i < to; i++) {
+                int u = frontier[i];
+                long du = dist.get(u);
+                // Stale: u was lowered into an earlier bucket after it was queued
+                // here, and was settled (heavy edges included) there already
+                if (du < bucketStart || du >= bucketEnd) continue;
+                if (settledRound[u] != round) { // benign race: a duplicate only repeats heavy relaxations
+                    settledRound[u] = round;
+                    bins.settle(u);
+                }
+                for (int e = offsets[u], end = lightEnd[u]; e < end; e++) relax(targets[e], du + weights[e], bins);
+            }
+        }
+
+        private void relaxHeavy(int from, int to) {
+            Bins bins = localBins();
+            for (int i = from; i < to; i++) {
+                int u = frontier[i];
+                long du = dist.get(u);
+                for (int e = lightEnd[u], end = offsets[u + 1]; e < end; e++) relax(targets[e], du + weights[e], bins);
+            }
+        }
+
+        // Atomic min; the thread that lowers dist[v] queues v
+        private void relax(int v, long newDist, Bins bins) {
+            long old = dist.get(v);
+            while (newDist < old) {
+                if (dist.compareAndSet(v, old, newDist)) {
+                    bins.add(newDist / delta, v);
+                    return;
+                }
+                old = dist.get(v);
+            }
+        }
+
+        // Smallest non-empty bucket over all threads, or -1
+        private long nextBucket() {
+            long next = Long.MAX_VALUE;
+            for (Bins bins : allBins.values()) next = Math.min(next, bins.lowest(bucket));
+            return next == Long.MAX_VALUE ? -1 : next;
+        }
+
+        // Moves the current bucket (or the settled vertices) of every thread into frontier
+        private int gather(boolean settled) {
+            int total = 0;
+            for (Bins bins : allBins.values()) total += settled ? bins.settledSize : bins.sizes[bins.slot(bucket)];
+            if (frontier.length < total) frontier = new int[Math.max(total, frontier.length * 2)];
+            frontierSize = 0;
+            for (Bins bins : allBins.values()) {
+                if (settled) {
+                    System.arraycopy(bins.settled, 0, frontier, frontierSize, bins.settledSize);
+                    frontierSize += bins.settledSize;
+                    bins.settledSize = 0;
+                } else {
+                    int slot = bins.slot(bucket);
+                    if (bins.sizes[slot] == 0) continue;
+                    System.arraycopy(bins.bins[slot], 0, frontier, frontierSize, bins.sizes[slot]);
+                    frontierSize += bins.sizes[slot];
+                    bins.sizes[slot] = 0;
+                }
+            }
+            return total;
+        }
+
+        private int[] parents(long[] dist, int source) {
+            AtomicIntegerArray best = new AtomicIntegerArray(n);
+            pool.invoke(new RangeTask(0, n, VERTEX_CHUNK, (from, to) -> {
+                for (int v = from; v < to; v++) best.set(v, Integer.MAX_VALUE);
+            }));
+            // Smallest u with a positive-weight edge that is tight
+            pool.invoke(new RangeTask(0, n, VERTEX_CHUNK, (from, to) -> {
+                for (int u = from; u < to; u++) {
+                    if (dist[u] == Long.MAX_VALUE) continue;
+                    for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                        int v = targets[e];
+                        if (weights[e] == 0 || dist[u] + weights[e] != dist[v]) continue;
+                        int current = best.get(v);
+                        while (u < current && !best.compareAndSet(v, current, u)) current = best.get(v);
+                    }
+                }
+            }));
+
+            int[] parent = new int[n];
+            int missing = 0;
+            for (int v = 0; v < n; v++) {
+                parent[v] = best.get(v) == Integer.MAX_VALUE ? -1 : best.get(v);
+                if (parent[v] < 0 && dist[v] != Long.MAX_VALUE && v != source) missing++;
+            }
+            parent[source] = source;
+            if (missing > 0) attachZeroWeightTies(dist, parent);
+            return parent;
+        }
+
+        // Vertices whose only tight in-edges weigh 0: search from the attached vertices along tight zero edges
+        private void attachZeroWeightTies(long[] dist, int[] parent) {
+            int[] queue = new int[n];
+            int head = 0, tail = 0;
+            for (int u = 0; u < n; u++) {
+                if (parent[u] >= 0) queue[tail++] = u;
+            }
+            while (head < tail) {
+                int u = queue[head++];
+                for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                    int v = targets[e];
+                    if (weights[e] == 0 && parent[v] < 0 && dist[v] == dist[u]) {
+                        parent[v] = u;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+      PER-THREAD BINS
+      A circular window of buckets starting at the current one, plus the
+      vertices that left the current bucket (for the heavy edges).
+     */
+    private static final class Bins {
+        final int window;
+        final int[][] bins;
+        final int[] sizes;
+        long lowestQueued = Long.MAX_VALUE; // no non-empty bucket below this one
+        int[] settled = new int[16];
+        int settledSize;
+
+        Bins(int window) {
+            this.window = window;
+            bins = new int[window][];
+            sizes = new int[window];
+        }
+
+        int slot(long b) {
+            return (int) (b % window);
+        }
+
+        void add(long b, int v) {
+            int slot = slot(b);
+            if (bins[slot] == null) bins[slot] = new int[16];
+            else if (sizes[slot] == bins[slot].length) bins[slot] = Arrays.copyOf(bins[slot], sizes[slot] * 2);
+            bins[slot][sizes[slot]++] = v;
+            lowestQueued = Math.min(lowestQueued, b);
+        }
+
+        void settle(int u) {
+            if (settledSize == settled.length) settled = Arrays.copyOf(settled, settledSize * 2);
+            settled[settledSize++] = u;
+        }
+
+        // Smallest non-empty bucket >= from, or Long.MAX_VALUE; the cursor only moves forward
+        long lowest(long from) {
+            for (long b = Math.max(from, lowestQueued); b < from + window; b++) {
+                if (sizes[slot(b)] > 0) {
+                    lowestQueued = b;
+                    return b;
+                }
+            }
+            lowestQueued = Long.MAX_VALUE;
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+
+    // Runs body over [from, to) in leaves of at most chunk elements
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, chunk;
+        private final RangeBody body;
+
+        RangeTask(int from, int to, int chunk, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeTask(from, mid, chunk, body), new RangeTask(mid, to, chunk, body));
+            } else {
+                body.run(from, to);
+            }
+        }
+    }
+
+    // QUICK BENCHMARK: against sequential Dijkstra on road-like and power-law graphs, 1..cores threads
+    private static void verify(CSRGraph graph, Result result, long[] expected, int source) {
+        if (!Arrays.equals(result.dist, expected)) throw new IllegalStateException("Distances differ from Dijkstra");
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            int p = result.parent[v];
+            if (v == source || expected[v] == Long.MAX_VALUE) continue;
+            long best = Long.MAX_VALUE;
+            for (int e = graph.edgeStart(p); e < graph.edgeEnd(p); e++) {
+                if (graph.target(e) == v) best = Math.min(best, expected[p] + graph.weight(e));
+            }
+            if (best != expected[v]) throw new IllegalStateException("Bad parent of " + v);
+        }
+    }
+
+    // One-shot calls must leave nothing behind in the pool's threads: heap after GC stays flat
+    private static void checkNoRetention(CSRGraph graph, int calls) {
+        Runtime runtime = Runtime.getRuntime();
+        long first = 0, last = 0;
+        for (int i = 1; i <= calls; i++) {
+            shortestPaths(graph, i % graph.vertexCount());
+            if (i == 1 || i == calls) {
+                System.gc();
+                long used = runtime.totalMemory() - runtime.freeMemory();
+                if (i == 1) first = used;
+                else last = used;
+            }
+        }
+        System.out.printf("  heap after GC: %d MB after 1 shortestPaths call, %d MB after %d%n",
+                first >> 20, last >> 20, calls);
+        // Each leaked run would pin its reordered edge copy, 8 bytes per edge
+        if (last - first > 4L * graph.edgeCount()) throw new IllegalStateException("shortestPaths retains memory");
+    }
+
+    private static void benchmark(String name, CSRGraph graph, int sources) {
+        int n = graph.vertexCount();
+        System.out.printf("%s: %d vertices, %d edges, default delta %d%n", name, n, graph.edgeCount(), defaultDelta(graph));
+        Random random = new Random(7);
+        int[] from = new int[sources];
+        for (int i = 0; i < sources; i++) {
+            do from[i] = random.nextInt(n); while (graph.degree(from[i]) == 0);
+        }
+
+        long[][] expected = new long[sources][];
+        long dijkstraTime = 0;
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            dijkstraTime = 0;
+            for (int i = 0; i < sources; i++) {
+                long start = System.nanoTime();
+                expected[i] = Dijkstra.dijkstra(graph, from[i], new IndexedIntHeap(n, 4));
+                dijkstraTime += System.nanoTime() - start;
+            }
+        }
+        System.out.printf("  %-32s %8.0f ms per source%n", "Dijkstra (4-ary IndexedIntHeap)", dijkstraTime / 1e6 / sources);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int base = defaultDelta(graph);
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            for (int delta : new int[] { Math.max(1, base / 4), base, base * 4 }) {
+                DeltaStepping stepping = new DeltaStepping(graph, delta, pool);
+                long time = 0;
+                int rounds = 0;
+                for (int round = 0; round < 2; round++) {
+                    time = 0;
+                    rounds = 0;
+                    for (int i = 0; i < sources; i++) {
+                        long start = System.nanoTime();
+                        Result result = stepping.run(from[i]);
+                        time += System.nanoTime() - start;
+                        rounds += result.rounds;
+                        if (round == 0) verify(graph, result, expected[i], from[i]);
+                    }
+                }
+                System.out.printf("  %2d threads, delta %-13d %8.0f ms per source (%.2fx Dijkstra, %d rounds)%n",
+                        threads, delta, time / 1e6 / sources, (double) dijkstraTime / time, rounds / sources);
+            }
+            pool.shutdown();
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        // 0 -> 1 (4), 0 -> 2 (1), 2 -> 1 (2), 1 -> 3 (1), 2 -> 3 (7), 3 -> 4 (0)
+        CSRGraph graph = new CSRGraph.Builder(5)
+                .addEdge(0, 1, 4).addEdge(0, 2, 1).addEdge(2, 1, 2).addEdge(1, 3, 1).addEdge(2, 3, 7).addEdge(3, 4, 0)
+                .build();
+        Result result = new DeltaStepping(graph, 2, ForkJoinPool.commonPool()).run(0);
+        System.out.println("dist:   " + Arrays.toString(result.dist));
+        System.out.println("parent: " + Arrays.toString(result.parent));
+
+        // Arguments: road grid side, R-MAT scale, sources per graph, e.g. 3000 22 4
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int scale = args.length > 1 ? Integer.parseInt(args[1]) : 18;
+        int sources = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        Random random = new Random(42);
+        benchmark("Road grid " + side + " x " + side, GraphGenerators.roadGrid(side, 100, random), sources);
+        CSRGraph rmat = GraphGenerators.withRandomWeights(GraphGenerators.rmat(scale, 16, true, random), 255, random);
+        benchmark("R-MAT scale " + scale + ", weights 1..255", rmat, sources);
+        checkNoRetention(rmat, 20);
+    }
+}
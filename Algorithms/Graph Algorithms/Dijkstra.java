@@ -13,6 +13,10 @@
   Space Complexity:
   - O(V + E) → adjacency list + distance map
  
+  The queue is pluggable: the overloads that take an IntMinQueue run the
+  same loop over int ids, with IndexedIntHeap (decrease-key), RadixHeap or
+  RadixHeap.DialQueue (monotone integer keys).
+
   Approach:
   1. Initialize distances from start to all nodes as infinity.
   2. Set distance to start node as 0.
@@ -22,6 +26,7 @@
  */
 
 import java.util.*;
+import java.util.function.IntFunction;
 
 public class Dijkstra {
 
@@ -50,6 +55,67 @@ public class Dijkstra {
         return distances;
     }
 
+    /*
+      Same algorithm with a pluggable IntMinQueue (IndexedIntHeap, RadixHeap,
+      RadixHeap.DialQueue). newQueue receives the number of nodes, e.g.
+      dijkstra(graph, start, IndexedIntHeap::new). The graph is converted to a
+      CSRGraph once, so nodes get dense ids.
+     */
+    public static Map<Node, Integer> dijkstra(Graph graph, Node start, IntFunction<IntMinQueue> newQueue) {
+        List<Node> nodes = new ArrayList<>(graph.getNodes());
+        int source = nodes.indexOf(start);
+        if (source < 0) {
+            source = nodes.size();
+            nodes.add(start);
+        }
+
+        int n = nodes.size();
+        long[] dist = dijkstra(CSRGraph.from(graph, nodes), source, newQueue.apply(n));
+        Map<Node, Integer> distances = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            distances.put(nodes.get(i), dist[i] == Long.MAX_VALUE ? Integer.MAX_VALUE : (int) dist[i]);
+        }
+        return distances;
+    }
+
+    public static long[] dijkstra(CSRGraph graph, int source, IntMinQueue queue) {
+        if (graph.hasFloatWeights()) throw new IllegalArgumentException("Dijkstra here needs int weights");
+        int[] weights = graph.weights();
+        if (weights == null) { // unweighted: every edge costs 1
+            weights = new int[graph.edgeCount()];
+            Arrays.fill(weights, 1);
+        }
+        return dijkstra(graph.offsets(), graph.targets(), weights, source, queue);
+    }
+
+    /*
+      Array form: the edges of vertex u are targets[offsets[u] .. offsets[u + 1] - 1]
+      with the matching weights. Returns Long.MAX_VALUE for unreachable vertices.
+     */
+    public static long[] dijkstra(int[] offsets, int[] targets, int[] weights, int source, IntMinQueue queue) {
+        int n = offsets.length - 1;
+        long[] dist = new long[n];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        dist[source] = 0;
+        queue.push(source, 0);
+
+        while (!queue.isEmpty()) {
+            long d = queue.peekKey();
+            int u = queue.pop();
+            if (d > dist[u]) continue; // stale duplicate
+
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                long newDist = d + weights[e];
+                int v = targets[e];
+                if (newDist < dist[v]) {
+                    dist[v] = newDist;
+                    queue.push(v, newDist);
+                }
+            }
+        }
+        return dist;
+    }
+
     private static class NodeDistance {
         Node node;
         int distance;
@@ -77,5 +143,8 @@ public class Dijkstra {
         Map<Node, Integer> distances = dijkstra(graph, a);
         System.out.println("Shortest distances from A:");
         distances.forEach((node, dist) -> System.out.println(node + ": " + dist));
+
+        Map<Node, Integer> withRadixHeap = dijkstra(graph, a, n -> new RadixHeap());
+        System.out.println("Same result with a RadixHeap: " + withRadixHeap.equals(distances));
     }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+/*
+  Description:
+  --------------------
+  Synthetic graphs for the CSRGraph benchmarks, so every algorithm is
+  measured on the same families of inputs.
+
+  - R-MAT (recursive matrix, as in the Graph500 benchmark): every edge picks
+    its cell of the adjacency matrix by descending into one of the four
+    quadrants with probabilities a, b, c, d at each of `scale` levels. The
+    result has a power-law degree distribution and a small diameter, like
+    web and social graphs. Vertex ids are shuffled afterwards so that high
+    degree vertices are not all at the start of the arrays.
+  - Road-like grid: a side x side grid of two-way streets with a few missing
+    segments and occasional highways, so the graph has a large diameter, a
+    low, even degree and distances that follow the geometry, like a road
+    network.
+
+  Supports:
+  - rmat(scale, edgeFactor, undirected, random)
+  - roadGrid(side, maxStreetWeight, random)
+  - withRandomWeights(graph, maxWeight, random)
+
+  Use Cases:
+  --------------------
+  - Benchmarks and randomized tests of graph algorithms
+
+  Time Complexity:
+  --------------------
+  - rmat: O(E * scale)
+  - roadGrid, withRandomWeights: O(V + E)
+
+  Space Complexity:
+  --------------------
+  - The CSRGraph plus the builder's staging arrays while it is built
+
+  Approach:
+  --------------------
+  Think of dropping a marble onto a board split into four unequal bins,
+  where each bin is again split into four, and so on: the biggest bin keeps
+  winning, so a few rows and columns collect most of the marbles.
+ */
+
+import java.util.Random;
+
+public final class GraphGenerators {
+
+    // Graph500 quadrant probabilities (d = 0.05)
+    private static final double A = 0.57, B = 0.19, C = 0.19;
+
+    private GraphGenerators() {
+    }
+
+    /*
+      2^scale vertices and edgeFactor * 2^scale edges, unweighted. With
+      undirected, every edge is stored in both directions (self-loops once).
+      Self-loops and parallel edges are kept, as in Graph500.
+     */
+    public static CSRGraph rmat(int scale, int edgeFactor, boolean undirected, Random random) {
+        if (scale < 0 || scale > 30) throw new IllegalArgumentException("Scale must be in 0..30: " + scale);
+        int n = 1 << scale;
+        long m = (long) edgeFactor * n;
+        if (m * (undirected ? 2 : 1) > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Too many edges: " + m);
+
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) permutation[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = tmp;
+        }
+
+        CSRGraph.Builder builder = new CSRGraph.Builder(n);
+        for (long i = 0; i < m; i++) {
+            int u = 0, v = 0;
+            for (int bit = scale - 1; bit >= 0; bit--) {
+                double p = random.nextDouble();
+                if (p >= A) {
+                    if (p < A + B) v |= 1 << bit;
+                    else if (p < A + B + C) u |= 1 << bit;
+                    else {
+                        u |= 1 << bit;
+                        v |= 1 << bit;
+                    }
+                }
+            }
+            u = permutation[u];
+            v = permutation[v];
+            builder.addEdge(u, v);
+            if (undirected && u != v) builder.addEdge(v, u);
+        }
+        return builder.build();
+    }
+
+    /*
+      side * side vertices, id y * side + x. Neighbouring cells are joined by
+      a two-way street (one in ten is missing) costing 1..maxStreetWeight.
+      One vertex in a hundred gets a two-way highway to a vertex at most
+      side / 20 cells away in each direction, costing maxStreetWeight / 4 per
+      cell of Manhattan distance (half the average street cost).
+     */
+    public static CSRGraph roadGrid(int side, int maxStreetWeight, Random random) {
+        if (maxStreetWeight < 4) throw new IllegalArgumentException("maxStreetWeight must be at least 4: " + maxStreetWeight);
+        int n = Math.multiplyExact(side, side);
+        int reach = Math.max(1, side / 20);
+        CSRGraph.Builder builder = new CSRGraph.Builder(n);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                int u = y * side + x;
+                if (x + 1 < side && random.nextInt(10) != 0) addTwoWay(builder, u, u + 1, 1 + random.nextInt(maxStreetWeight));
+                if (y + 1 < side && random.nextInt(10) != 0) addTwoWay(builder, u, u + side, 1 + random.nextInt(maxStreetWeight));
+                if (random.nextInt(100) == 0) {
+                    int tx = Math.min(side - 1, Math.max(0, x + random.nextInt(2 * reach + 1) - reach));
+                    int ty = Math.min(side - 1, Math.max(0, y + random.nextInt(2 * reach + 1) - reach));
+                    int cells = Math.abs(tx - x) + Math.abs(ty - y);
+                    if (cells > 0) addTwoWay(builder, u, ty * side + tx, cells * (maxStreetWeight / 4));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static void addTwoWay(CSRGraph.Builder builder, int u, int v, int weight) {
+        builder.addEdge(u, v, weight);
+        builder.addEdge(v, u, weight);
+    }
+
+    // Same vertices and edges, every edge weighted uniformly in 1..maxWeight
+    public static CSRGraph withRandomWeights(CSRGraph graph, int maxWeight, Random random) {
+        int[] weights = new int[graph.edgeCount()];
+        for (int e = 0; e < weights.length; e++) weights[e] = 1 + random.nextInt(maxWeight);
+        return CSRGraph.wrap(graph.offsets(), graph.targets(), weights);
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        CSRGraph graph = rmat(16, 16, true, new Random(42));
+        int maxDegree = 0, isolated = 0;
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            maxDegree = Math.max(maxDegree, graph.degree(u));
+            if (graph.degree(u) == 0) isolated++;
+        }
+        System.out.printf("R-MAT scale 16: %d vertices, %d directed edges, max degree %d, %d isolated vertices%n",
+                graph.vertexCount(), graph.edgeCount(), maxDegree, isolated);
+
+        CSRGraph roads = roadGrid(256, 100, new Random(42));
+        System.out.printf("Road grid 256 x 256: %d vertices, %d directed edges%n", roads.vertexCount(), roads.edgeCount());
+    }
+}
@@ -0,0 +1,327 @@
+/*
+  Description:
+  --------------------
+  An Indexed Int Heap is a priority queue of dense int ids (0..capacity-1),
+  each with a long priority. Because it knows where every id sits in the
+  heap, it can change or remove the priority of an id in place instead of
+  inserting a duplicate entry, which is what Dijkstra and Prim need.
+
+  - Everything lives in primitive arrays: heap slots (ids), their keys, and
+    the slot of every id. Nothing is allocated after construction.
+  - The heap is d-ary (arity 2, 4 or 8). A wider heap is shallower, so
+    decreaseKey climbs fewer levels, and the d children of a node sit next
+    to each other in memory.
+
+  Supports:
+  - insert, decreaseKey, increaseKey, remove(id), contains(id), clear
+  - peek / poll the id with the smallest key
+
+  Use Cases:
+  --------------------
+  - Dijkstra and Prim with decrease-key instead of lazy duplicates
+  - Event simulation and schedulers keyed by dense ids
+  - Any "update the priority of item i" workload
+
+  Time Complexity:
+  --------------------
+  - insert / decreaseKey: O(log_d n)
+  - poll / increaseKey / remove: O(d log_d n)
+  - contains / keyOf / peek: O(1)
+
+  Space Complexity:
+  --------------------
+  - O(capacity): 16 bytes per id (slot index, heap id, key)
+
+  Approach:
+  --------------------
+  Think of a company org chart where everyone's boss has a smaller number.
+  When someone's number drops, they swap places with their boss until the
+  boss is smaller again; the personnel file says where each person sits, so
+  nobody has to be searched for.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class IndexedIntHeap implements IntMinQueue {
+
+    private final int shift;    // log2(arity)
+    private final int[] heap;   // heap slot -> id
+    private final long[] keys;  // heap slot -> key, kept next to the ids for locality
+    private final int[] slotOf; // id -> heap slot, -1 if absent
+    private int size;
+
+    public IndexedIntHeap(int capacity) {
+        this(capacity, 4);
+    }
+
+    public IndexedIntHeap(int capacity, int arity) {
+        if (arity != 2 && arity != 4 && arity != 8) {
+            throw new IllegalArgumentException("Arity must be 2, 4 or 8: " + arity);
+        }
+        shift = Integer.numberOfTrailingZeros(arity);
+        heap = new int[capacity];
+        keys = new long[capacity];
+        slotOf = new int[capacity];
+        Arrays.fill(slotOf, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return slotOf[id] >= 0;
+    }
+
+    public long keyOf(int id) {
+        checkPresent(id);
+        return keys[slotOf[id]];
+    }
+
+    public void insert(int id, long key) {
+        if (slotOf[id] >= 0) throw new IllegalArgumentException("Id already in heap: " + id);
+        heap[size] = id;
+        keys[size] = key;
+        slotOf[id] = size;
+        siftUp(size++);
+    }
+
+    public void decreaseKey(int id, long key) {
+        checkPresent(id);
+        int slot = slotOf[id];
+        if (key > keys[slot]) throw new IllegalArgumentException("New key is larger: " + key + " > " + keys[slot]);
+        keys[slot] = key;
+        siftUp(slot);
+    }
+
+    public void increaseKey(int id, long key) {
+        checkPresent(id);
+        int slot = slotOf[id];
+        if (key < keys[slot]) throw new IllegalArgumentException("New key is smaller: " + key + " < " + keys[slot]);
+        keys[slot] = key;
+        siftDown(slot);
+    }
+
+    // Inserts id, or lowers its key if the new key is smaller; returns true if anything changed
+    public boolean insertOrDecrease(int id, long key) {
+        int slot = slotOf[id];
+        if (slot < 0) {
+            insert(id, key);
+            return true;
+        }
+        if (key >= keys[slot]) return false;
+        keys[slot] = key;
+        siftUp(slot);
+        return true;
+    }
+
+    // IntMinQueue: push lowers the key of an id that is already queued
+    @Override
+    public void push(int id, long key) {
+        insertOrDecrease(id, key);
+    }
+
+    @Override
+    public int pop() {
+        return poll();
+    }
+
+    // Empties the heap in O(size), so one heap can serve many queries
+    public void clear() {
+        for (int i = 0; i < size; i++) slotOf[heap[i]] = -1;
+        size = 0;
+    }
+
+    public void remove(int id) {
+        checkPresent(id);
+        removeAt(slotOf[id]);
+    }
+
+    public int peekId() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return heap[0];
+    }
+
+    @Override
+    public long peekKey() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return keys[0];
+    }
+
+    // Removes and returns the id with the smallest key
+    public int poll() {
+        int id = peekId();
+        removeAt(0);
+        return id;
+    }
+
+    private void checkPresent(int id) {
+        if (slotOf[id] < 0) throw new NoSuchElementException("Id not in heap: " + id);
+    }
+
+    private void removeAt(int slot) {
+        int id = heap[slot];
+        slotOf[id] = -1;
+        if (--size == slot) return;
+
+        // Move the last entry into the hole, then fix it in whichever direction it needs
+        long oldKey = keys[slot];
+        move(size, slot);
+        if (keys[slot] < oldKey) siftUp(slot);
+        else siftDown(slot);
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        slotOf[heap[to]] = to;
+    }
+
+    // Holds the moving entry aside and shifts parents down into the hole
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        long key = keys[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >> shift;
+            if (keys[parent] <= key) break;
+            move(parent, slot);
+            slot = parent;
+        }
+        heap[slot] = id;
+        keys[slot] = key;
+        slotOf[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        long key = keys[slot];
+        while (true) {
+            int first = (slot << shift) + 1;
+            if (first >= size) break;
+
+            int last = Math.min(first + (1 << shift), size), best = first;
+            for (int child = first + 1; child < last; child++) {
+                if (keys[child] < keys[best]) best = child;
+            }
+            if (keys[best] >= key) break;
+            move(best, slot);
+            slot = best;
+        }
+        heap[slot] = id;
+        keys[slot] = key;
+        slotOf[id] = slot;
+    }
+
+    // Same loop with java.util.PriorityQueue: boxed entries, duplicates skipped when polled
+    private static long[] dijkstraPriorityQueue(int[] offsets, int[] targets, int[] weights, int source) {
+        int n = offsets.length - 1;
+        long[] dist = new long[n];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        dist[source] = 0;
+
+        PriorityQueue<long[]> pq = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+        pq.add(new long[] { 0, source });
+        while (!pq.isEmpty()) {
+            long[] entry = pq.poll();
+            int u = (int) entry[1];
+            if (entry[0] > dist[u]) continue; // stale duplicate
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                long nd = entry[0] + weights[e];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    pq.add(new long[] { nd, v });
+                }
+            }
+        }
+        return dist;
+    }
+
+    // QUICK BENCHMARK: Dijkstra on a random graph
+    private static void benchmark(int n, int degree) {
+        Random random = new Random(42);
+        int m = n * degree;
+        int[] offsets = new int[n + 1], targets = new int[m], weights = new int[m];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + degree;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                targets[e] = random.nextInt(n);
+                weights[e] = 1 + random.nextInt(1000);
+            }
+        }
+
+        // The same graph in the object model used by Dijkstra.dijkstra
+        Graph graph = new Graph(true);
+        Node[] nodes = new Node[n];
+        for (int u = 0; u < n; u++) graph.addNode(nodes[u] = new Node(String.valueOf(u)));
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) graph.addEdge(nodes[u], nodes[targets[e]], weights[e]);
+        }
+
+        System.out.printf("Dijkstra on a random graph with %d vertices and %d edges:%n", n, m);
+        long[] expected = null;
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            List<String> lines = new ArrayList<>();
+            long start = System.nanoTime();
+            Map<Node, Integer> objectDist = Dijkstra.dijkstra(graph, nodes[0]);
+            lines.add(String.format("  Dijkstra.dijkstra (object graph, PriorityQueue<NodeDistance>): %6.0f ms",
+                    (System.nanoTime() - start) / 1e6));
+
+            start = System.nanoTime();
+            expected = dijkstraPriorityQueue(offsets, targets, weights, 0);
+            lines.add(String.format("  int arrays + PriorityQueue (lazy duplicates):                  %6.0f ms",
+                    (System.nanoTime() - start) / 1e6));
+
+            for (int arity = 2; arity <= 8; arity *= 2) {
+                start = System.nanoTime();
+                long[] dist = Dijkstra.dijkstra(offsets, targets, weights, 0, new IndexedIntHeap(n, arity));
+                lines.add(String.format("  int arrays + IndexedIntHeap (arity %d):                        %6.0f ms",
+                        arity, (System.nanoTime() - start) / 1e6));
+                if (!Arrays.equals(dist, expected)) throw new IllegalStateException("Distances differ");
+            }
+            long reachable = objectDist.values().stream().filter(d -> d != Integer.MAX_VALUE).count();
+            if (reachable != Arrays.stream(expected).filter(d -> d != Long.MAX_VALUE).count()) {
+                throw new IllegalStateException("Reachable sets differ");
+            }
+            if (round == 1) lines.forEach(System.out::println);
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        IndexedIntHeap heap = new IndexedIntHeap(10, 4);
+        heap.insert(3, 50);
+        heap.insert(7, 20);
+        heap.insert(1, 40);
+        heap.insert(5, 10);
+
+        heap.decreaseKey(1, 5);  // 1 jumps to the front
+        heap.increaseKey(5, 60); // 5 moves to the back
+        heap.remove(3);
+
+        System.out.println("contains(3): " + heap.contains(3) + ", key of 7: " + heap.keyOf(7));
+        System.out.print("Poll order: ");
+        while (!heap.isEmpty()) {
+            long key = heap.peekKey();
+            System.out.print(heap.poll() + "(" + key + ") ");
+        }
+        System.out.println();
+
+        // Arguments: vertices, out-degree, e.g. 2000000 8
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        benchmark(n, degree);
+    }
+}
@@ -0,0 +1,30 @@
+/*
+  Description:
+  --------------------
+  IntMinQueue is the priority queue that Dijkstra.dijkstra can be given.
+  Entries are dense int ids with long keys, stored in primitive arrays.
+
+  An implementation may keep the same id more than once (lazy duplicates,
+  as RadixHeap does) or lower the key of the existing entry (as
+  IndexedIntHeap does). Dijkstra skips any popped entry whose key is larger
+  than the best distance already known, so both styles work.
+
+  Implementations:
+  - IndexedIntHeap: d-ary heap with decrease-key, any keys
+  - RadixHeap: monotone keys (never smaller than the last popped key)
+  - RadixHeap.DialQueue: monotone keys with small integer edge weights
+ */
+
+public interface IntMinQueue {
+
+    // Adds id with the given key, or lowers its key
+    void push(int id, long key);
+
+    // Smallest key currently in the queue
+    long peekKey();
+
+    // Removes the entry with the smallest key and returns its id
+    int pop();
+
+    boolean isEmpty();
+}
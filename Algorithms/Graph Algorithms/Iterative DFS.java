@@ -0,0 +1,438 @@
+/*
+  Description:
+  --------------------
+  An iterative depth-first search over a CSRGraph that never recurses, so
+  it handles paths millions of vertices deep, where a recursive DFS such as
+  DFS.dfsHelper overflows the thread stack after a few tens of thousands.
+
+  The engine keeps the current path in a primitive int[] stack and a
+  per-vertex cursor into its adjacency range, and reports events to a
+  Visitor:
+  - discover(v, parent): v is seen for the first time (parent -1 for a root)
+  - nonTreeEdge(u, v): an edge to an already discovered vertex; it is a back
+    edge (closes a cycle) exactly when onPath(v)
+  - finish(v, parent): every edge of v has been explored
+
+  On top of it:
+  - Tarjan's strongly connected components (one pass, lowlinks)
+  - Kosaraju's strongly connected components (finish order, then a second
+    pass over the reverse graph)
+  - Topological order (reverse finish order)
+  - Cycle detection that returns the vertices of one cycle
+
+  Supports:
+  - search(source, visitor), searchAll(visitor), stop(), reset()
+  - onPath(v), visited(v), depth(), pathFrom(v)
+  - tarjan(graph), kosaraju(graph) -> Components
+  - topologicalOrder(graph), findCycle(graph)
+
+  Use Cases:
+  --------------------
+  - Build systems and package managers: ordering deep dependency graphs
+  - Deadlock detection in wait-for graphs
+  - Condensing a graph into its DAG of strongly connected components
+
+  Time Complexity:
+  --------------------
+  - Every algorithm: O(V + E)
+
+  Space Complexity:
+  --------------------
+  - Engine: two int[V] arrays (stack, cursors) and a byte[V] of colors
+  - Tarjan: three more int[V]; Kosaraju: the reverse graph and one int[V]
+
+  Approach:
+  --------------------
+  Think of exploring a cave with a ball of string instead of your memory:
+  the string (the explicit stack) records the way back, and a chalk mark at
+  each junction (the cursor) says which tunnel to try next, so the depth of
+  the cave no longer depends on how much you can remember.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class IterativeDFS {
+
+    private static final byte WHITE = 0, GRAY = 1, BLACK = 2; // unseen, on the path, finished
+
+    public interface Visitor {
+        default void discover(int v, int parent) {
+        }
+
+        default void nonTreeEdge(int u, int v) {
+        }
+
+        default void finish(int v, int parent) {
+        }
+    }
+
+    private final CSRGraph graph;
+    private final int[] offsets, targets;
+    private final byte[] color;
+    private final int[] stack;  // current path, root first
+    private final int[] cursor; // next edge of each vertex on the path
+    private int top;
+    private boolean stopped;
+
+    public IterativeDFS(CSRGraph graph) {
+        this.graph = graph;
+        this.offsets = graph.offsets();
+        this.targets = graph.targets();
+        int n = graph.vertexCount();
+        color = new byte[n];
+        stack = new int[n];
+        cursor = new int[n];
+    }
+
+    public CSRGraph graph() {
+        return graph;
+    }
+
+    // Explores everything reachable from source that is not visited yet
+    public void search(int source, Visitor visitor) {
+        if (color[source] != WHITE) return;
+        stopped = false;
+        top = 0;
+        enter(source, -1, visitor);
+
+        while (top > 0 && !stopped) {
+            int u = stack[top - 1];
+            int e = cursor[u];
+            if (e < offsets[u + 1]) {
+                cursor[u] = e + 1;
+                int v = targets[e];
+                if (color[v] == WHITE) enter(v, u, visitor);
+                else visitor.nonTreeEdge(u, v);
+            } else {
+                top--;
+                color[u] = BLACK;
+                visitor.finish(u, top > 0 ? stack[top - 1] : -1);
+            }
+        }
+    }
+
+    // Searches from every unvisited vertex in id order, covering the whole graph
+    public void searchAll(Visitor visitor) {
+        for (int v = 0; v < color.length && !stopped; v++) search(v, visitor);
+    }
+
+    private void enter(int v, int parent, Visitor visitor) {
+        color[v] = GRAY;
+        cursor[v] = offsets[v];
+        stack[top++] = v;
+        visitor.discover(v, parent);
+    }
+
+    // Called from a visitor: ends the search after the current event, leaving the path in place
+    public void stop() {
+        stopped = true;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    // Forgets all visited vertices so the engine can be reused
+    public void reset() {
+        Arrays.fill(color, WHITE);
+        top = 0;
+        stopped = false;
+    }
+
+    public boolean visited(int v) {
+        return color[v] != WHITE;
+    }
+
+    public boolean onPath(int v) {
+        return color[v] == GRAY;
+    }
+
+    // Number of vertices on the current path
+    public int depth() {
+        return top;
+    }
+
+    // The current path from v (which must be on it) to the deepest vertex
+    public int[] pathFrom(int v) {
+        if (color[v] != GRAY) throw new IllegalArgumentException("Vertex " + v + " is not on the current path");
+        int i = top - 1;
+        while (stack[i] != v) i--;
+        return Arrays.copyOfRange(stack, i, top);
+    }
+
+    /*
+      STRONGLY CONNECTED COMPONENTS
+      component[v] is in 0..count-1. Tarjan numbers components in reverse
+      topological order of the condensation (sinks first), Kosaraju in
+      topological order (sources first).
+     */
+    public static final class Components {
+        public final int count;
+        public final int[] component;
+
+        Components(int count, int[] component) {
+            this.count = count;
+            this.component = component;
+        }
+
+        public int[] sizes() {
+            int[] sizes = new int[count];
+            for (int c : component) sizes[c]++;
+            return sizes;
+        }
+    }
+
+    public static Components tarjan(CSRGraph graph) {
+        int n = graph.vertexCount();
+        int[] index = new int[n];        // discovery time
+        int[] low = new int[n];          // smallest discovery time reachable through the subtree
+        int[] component = new int[n];
+        int[] open = new int[n];         // Tarjan's stack of vertices without a component yet
+        int[] count = { 0 };
+        Arrays.fill(component, -1);
+
+        new IterativeDFS(graph).searchAll(new Visitor() {
+            int time, openSize;
+
+            @Override
+            public void discover(int v, int parent) {
+                index[v] = low[v] = time++;
+                open[openSize++] = v;
+            }
+
+            @Override
+            public void nonTreeEdge(int u, int v) {
+                if (component[v] < 0) low[u] = Math.min(low[u], index[v]); // v is still open
+            }
+
+            @Override
+            public void finish(int v, int parent) {
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = open[--openSize];
+                        component[w] = count[0];
+                    } while (w != v);
+                    count[0]++;
+                }
+                if (parent >= 0) low[parent] = Math.min(low[parent], low[v]);
+            }
+        });
+        return new Components(count[0], component);
+    }
+
+    public static Components kosaraju(CSRGraph graph) {
+        int n = graph.vertexCount();
+        int[] order = new int[n];
+        new IterativeDFS(graph).searchAll(new Visitor() {
+            int finished;
+
+            @Override
+            public void finish(int v, int parent) {
+                order[finished++] = v;
+            }
+        });
+
+        int[] component = new int[n];
+        int[] count = { 0 };
+        IterativeDFS dfs = new IterativeDFS(graph.reverse());
+        Visitor label = new Visitor() {
+            @Override
+            public void discover(int v, int parent) {
+                component[v] = count[0];
+            }
+        };
+        for (int i = n - 1; i >= 0; i--) {
+            int v = order[i];
+            if (dfs.visited(v)) continue;
+            dfs.search(v, label);
+            count[0]++;
+        }
+        return new Components(count[0], component);
+    }
+
+    /*
+      TOPOLOGICAL ORDER AND CYCLES
+     */
+
+    // Vertices so that every edge goes forward; throws with one cycle if there is none
+    public static int[] topologicalOrder(CSRGraph graph) {
+        int n = graph.vertexCount();
+        int[] order = new int[n];
+        IterativeDFS dfs = new IterativeDFS(graph);
+        CycleFinder cycles = new CycleFinder(dfs) {
+            int next = n;
+
+            @Override
+            public void finish(int v, int parent) {
+                order[--next] = v;
+            }
+        };
+        dfs.searchAll(cycles);
+        if (cycles.cycle != null) {
+            throw new IllegalArgumentException("Graph has a cycle of " + cycles.cycle.length + " vertices: "
+                    + describe(cycles.cycle));
+        }
+        return order;
+    }
+
+    // The vertices of one cycle in edge order (the last has an edge to the first), or null if acyclic
+    public static int[] findCycle(CSRGraph graph) {
+        IterativeDFS dfs = new IterativeDFS(graph);
+        CycleFinder cycles = new CycleFinder(dfs);
+        dfs.searchAll(cycles);
+        return cycles.cycle;
+    }
+
+    private static class CycleFinder implements Visitor {
+        private final IterativeDFS dfs;
+        int[] cycle;
+
+        CycleFinder(IterativeDFS dfs) {
+            this.dfs = dfs;
+        }
+
+        @Override
+        public void nonTreeEdge(int u, int v) {
+            if (dfs.onPath(v)) { // back edge u -> v: the path from v to u plus this edge is a cycle
+                cycle = dfs.pathFrom(v);
+                dfs.stop();
+            }
+        }
+    }
+
+    private static String describe(int[] vertices) {
+        if (vertices.length <= 10) return Arrays.toString(vertices);
+        return Arrays.toString(Arrays.copyOf(vertices, 10)).replace("]", ", ...]");
+    }
+
+    // QUICK BENCHMARK: 10M-vertex chains and random DAGs, far deeper than a recursive DFS can go
+    private static CSRGraph chain(int n, boolean closed) {
+        int[] offsets = new int[n + 1];
+        int m = closed ? n : n - 1;
+        int[] targets = new int[m];
+        for (int v = 0; v < n; v++) offsets[v + 1] = Math.min(v + 1, m);
+        for (int e = 0; e < m; e++) targets[e] = e + 1 == n ? 0 : e + 1;
+        return CSRGraph.wrap(offsets, targets, null);
+    }
+
+    // Edges only go from lower to higher rank; ranks are a random permutation of the ids
+    private static CSRGraph randomDag(int n, int edgesPerVertex, Random random) {
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) rank[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = rank[i];
+            rank[i] = rank[j];
+            rank[j] = tmp;
+        }
+        // byRank[r] is the vertex with rank r
+        int[] byRank = new int[n];
+        for (int v = 0; v < n; v++) byRank[rank[v]] = v;
+
+        CSRGraph.Builder builder = new CSRGraph.Builder(n);
+        for (int r = 0; r + 1 < n; r++) {
+            builder.addEdge(byRank[r], byRank[r + 1]); // a Hamiltonian path makes the DFS as deep as possible
+            for (int k = 1; k < edgesPerVertex; k++) {
+                builder.addEdge(byRank[r], byRank[r + 1 + random.nextInt(n - r - 1)]);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void checkTopological(CSRGraph graph, int[] order) {
+        int[] position = new int[graph.vertexCount()];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < order.length; i++) position[order[i]] = i;
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            if (position[u] < 0) throw new IllegalStateException("Vertex " + u + " missing from the order");
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                if (position[u] >= position[graph.target(e)]) throw new IllegalStateException("Edge against the order");
+            }
+        }
+    }
+
+    // Both labelings describe the same partition
+    private static void checkSamePartition(Components a, Components b) {
+        if (a.count != b.count) throw new IllegalStateException(a.count + " vs " + b.count + " components");
+        int[] map = new int[a.count];
+        Arrays.fill(map, -1);
+        for (int v = 0; v < a.component.length; v++) {
+            int ca = a.component[v], cb = b.component[v];
+            if (map[ca] < 0) map[ca] = cb;
+            else if (map[ca] != cb) throw new IllegalStateException("Tarjan and Kosaraju disagree at vertex " + v);
+        }
+    }
+
+    private static void benchmark(String name, CSRGraph graph, boolean acyclic) {
+        System.out.printf("%s: %d vertices, %d edges%n", name, graph.vertexCount(), graph.edgeCount());
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            long t0 = System.nanoTime();
+            int[] cycle = findCycle(graph);
+            long t1 = System.nanoTime();
+            int[] order = acyclic ? topologicalOrder(graph) : null;
+            long t2 = System.nanoTime();
+            Components tarjan = tarjan(graph);
+            long t3 = System.nanoTime();
+            graph.reverse(); // built once and cached; not part of Kosaraju's time
+            long t4 = System.nanoTime();
+            Components kosaraju = kosaraju(graph);
+            long t5 = System.nanoTime();
+
+            if ((cycle == null) != acyclic) throw new IllegalStateException("Wrong cycle answer");
+            if (order != null) checkTopological(graph, order);
+            checkSamePartition(tarjan, kosaraju);
+            if (round == 1) {
+                System.out.printf("  findCycle          %7.0f ms  (%s)%n", (t1 - t0) / 1e6,
+                        cycle == null ? "acyclic" : "cycle of " + cycle.length + " vertices");
+                if (acyclic) System.out.printf("  topologicalOrder   %7.0f ms%n", (t2 - t1) / 1e6);
+                System.out.printf("  Tarjan SCC         %7.0f ms  (%d components)%n", (t3 - t2) / 1e6, tarjan.count);
+                System.out.printf("  Kosaraju SCC       %7.0f ms%n", (t5 - t4) / 1e6);
+            }
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        // 0 -> 1 -> 2 -> 0 is a cycle, 2 -> 3 -> 4 -> 3 another, 5 stands alone
+        CSRGraph graph = new CSRGraph.Builder(6)
+                .addEdge(0, 1).addEdge(1, 2).addEdge(2, 0)
+                .addEdge(2, 3).addEdge(3, 4).addEdge(4, 3)
+                .addEdge(5, 4)
+                .build();
+
+        StringBuilder events = new StringBuilder();
+        new IterativeDFS(graph).search(0, new Visitor() {
+            @Override
+            public void discover(int v, int parent) {
+                events.append("(").append(v).append(' ');
+            }
+
+            @Override
+            public void finish(int v, int parent) {
+                events.append(v).append(") ");
+            }
+        });
+        System.out.println("Discover/finish from 0: " + events);
+        System.out.println("Cycle: " + Arrays.toString(findCycle(graph)));
+        Components scc = tarjan(graph);
+        System.out.println("Tarjan components: " + Arrays.toString(scc.component) + ", sizes " + Arrays.toString(scc.sizes()));
+        System.out.println("Kosaraju components: " + Arrays.toString(kosaraju(graph).component));
+
+        CSRGraph dag = new CSRGraph.Builder(5).addEdge(3, 1).addEdge(1, 0).addEdge(3, 4).addEdge(4, 0).addEdge(2, 4).build();
+        System.out.println("Topological order: " + Arrays.toString(topologicalOrder(dag)));
+        try {
+            topologicalOrder(graph);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Cyclic graph: " + e.getMessage());
+        }
+
+        // Pass the chain length and the random DAG size as arguments, e.g. 10000000 2000000
+        int chainLength = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int dagSize = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        benchmark("Chain", chain(chainLength, false), true);
+        benchmark("Closed chain (one big cycle)", chain(chainLength, true), false);
+        benchmark("Random DAG, 8 edges per vertex", randomDag(dagSize, 8, new Random(42)), true);
+    }
+}
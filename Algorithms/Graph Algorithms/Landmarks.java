@@ -0,0 +1,432 @@
+/*
+  Description:
+  --------------------
+  ALT (A*, Landmarks, Triangle inequality) gives A* a good heuristic for
+  any graph, without coordinates. A few landmark vertices L are chosen and
+  the exact distances d(L, v) and d(v, L) are stored for every vertex v.
+  The triangle inequality then bounds the remaining distance from v to the
+  target t from below:
+
+      d(v, t) >= d(L, t) - d(L, v)      and      d(v, t) >= d(v, L) - d(t, L)
+
+  The heuristic is the largest of these bounds over the landmarks. It is
+  admissible and consistent, so A* with it settles every vertex at most
+  once and returns exact shortest paths.
+
+  Landmark selection matters more than landmark count:
+  - farthest: each new landmark is the vertex farthest from the ones chosen
+    so far, which spreads them over the edges of the graph.
+  - avoid (Goldberg and Werneck): grow a shortest path tree from a random
+    root, weigh every vertex by how badly the current landmarks bound its
+    distance from the root, and put the next landmark at the leaf of the
+    heaviest branch that holds no landmark yet. It covers the regions the
+    existing landmarks serve worst.
+
+  The tables are int[], one row per vertex with d(L, v) and d(v, L) for all
+  landmarks side by side, so one heuristic evaluation reads one or two
+  cache lines. Each query uses only the few landmarks that give the best
+  bound for its source and target.
+
+  Supports:
+  - farthest(graph, count, random), avoid(graph, count, random)
+  - estimate(v, target): the lower bound, for int ids
+  - heuristic(nodes): the same bound as an AStar.Heuristic over Graph nodes
+  - aStar(source, target, active): an A* query on the CSRGraph with the
+    best `active` landmarks (0 gives Dijkstra that stops at the target)
+
+  Use Cases:
+  --------------------
+  - Point-to-point routing on road networks without coordinates
+  - A drop-in heuristic for AStar.aStar instead of a hand-written one
+
+  Time Complexity:
+  --------------------
+  - Preprocessing: two Dijkstra runs per landmark (plus one tree per
+    landmark for avoid)
+  - Query: A* with O(active) work per heuristic evaluation
+
+  Space Complexity:
+  --------------------
+  - 8 bytes per vertex per landmark for the tables
+
+  Approach:
+  --------------------
+  Think of knowing how far every town is from a few lighthouses. If the
+  destination is 100 km from a lighthouse and you are 30 km from it, you
+  are at least 70 km from the destination, whatever the roads look like.
+ */
+
+import java.util.*;
+
+public final class Landmarks {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    // Landmarks used by one query
+    private static final int DEFAULT_ACTIVE = 4;
+
+    private final CSRGraph graph;
+    private final int[] weights;
+    private final int[] landmarks;
+    private final int k;
+    private final int[] table; // table[v * 2k + 2i] = d(L_i, v), table[v * 2k + 2i + 1] = d(v, L_i)
+    private int used;          // landmarks with filled tables (all but while selecting)
+
+    // Per-query state of aStar, reused across queries
+    private final long[] g;
+    private final int[] parent, touched;
+    private final IndexedIntHeap heap;
+
+    private Landmarks(CSRGraph graph, int[] landmarks, int[] table) {
+        this.graph = graph;
+        this.weights = weightsOf(graph);
+        this.landmarks = landmarks;
+        this.k = landmarks.length;
+        this.table = table;
+        this.used = landmarks.length;
+        int n = graph.vertexCount();
+        g = new long[n];
+        Arrays.fill(g, Long.MAX_VALUE);
+        parent = new int[n];
+        touched = new int[n];
+        heap = new IndexedIntHeap(n, 4);
+    }
+
+    public static Landmarks farthest(CSRGraph graph, int count, Random random) {
+        return select(graph, count, random, false);
+    }
+
+    public static Landmarks avoid(CSRGraph graph, int count, Random random) {
+        return select(graph, count, random, true);
+    }
+
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    public long sizeInBytes() {
+        return table.length * 4L;
+    }
+
+    /*
+      PREPROCESSING
+     */
+    private static Landmarks select(CSRGraph graph, int count, Random random, boolean avoid) {
+        int n = graph.vertexCount();
+        if (count < 1 || count > n) throw new IllegalArgumentException("Landmark count must be in 1.." + n + ": " + count);
+        if (graph.hasFloatWeights()) throw new IllegalArgumentException("Landmarks here need int weights");
+        int[] weights = weightsOf(graph);
+        CSRGraph reverse = CSRGraph.wrap(graph.offsets(), graph.targets(), weights).reverse();
+        int[] table = new int[Math.multiplyExact(n, 2 * count)];
+        int[] chosen = new int[count];
+        boolean[] isLandmark = new boolean[n];
+        long[] closest = new long[n]; // farthest: min over chosen landmarks of d(L, v) + d(v, L)
+        Arrays.fill(closest, Long.MAX_VALUE);
+        Landmarks partial = new Landmarks(graph, chosen, table);
+        partial.used = 0;
+
+        for (int i = 0; i < count; i++) {
+            int landmark = avoid ? avoidCandidate(graph, weights, partial, isLandmark, random)
+                    : farthestCandidate(graph, weights, i, closest, random);
+            chosen[i] = landmark;
+            isLandmark[landmark] = true;
+
+            long[] from = shortestPaths(graph.offsets(), graph.targets(), weights, landmark, null, null);
+            long[] to = shortestPaths(reverse.offsets(), reverse.targets(), reverse.weights(), landmark, null, null);
+            for (int v = 0; v < n; v++) {
+                table[v * 2 * count + 2 * i] = compact(from[v]);
+                table[v * 2 * count + 2 * i + 1] = compact(to[v]);
+                if (from[v] != Long.MAX_VALUE && to[v] != Long.MAX_VALUE) closest[v] = Math.min(closest[v], from[v] + to[v]);
+            }
+            partial.used = i + 1;
+        }
+        return partial;
+    }
+
+    private static int compact(long d) {
+        if (d == Long.MAX_VALUE) return UNREACHABLE;
+        if (d >= UNREACHABLE) throw new IllegalArgumentException("Distance " + d + " does not fit the int tables");
+        return (int) d;
+    }
+
+    // The first landmark is the farthest vertex from a random one; later ones maximize the distance to the chosen set
+    private static int farthestCandidate(CSRGraph graph, int[] weights, int i, long[] closest, Random random) {
+        int n = graph.vertexCount();
+        if (i == 0) {
+            long[] dist = shortestPaths(graph.offsets(), graph.targets(), weights, random.nextInt(n), null, null);
+            return argMaxFinite(dist);
+        }
+        return argMaxFinite(closest);
+    }
+
+    private static int argMaxFinite(long[] values) {
+        int best = 0;
+        long bestValue = -1;
+        for (int v = 0; v < values.length; v++) {
+            if (values[v] != Long.MAX_VALUE && values[v] > bestValue) {
+                bestValue = values[v];
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    private static int avoidCandidate(CSRGraph graph, int[] weights, Landmarks current, boolean[] isLandmark, Random random) {
+        int n = graph.vertexCount();
+        int[] parent = new int[n], order = new int[n];
+        for (int attempt = 0; attempt < 8; attempt++) {
+            int root = random.nextInt(n);
+            long[] dist = shortestPaths(graph.offsets(), graph.targets(), weights, root, parent, order);
+            int reached = 0;
+            while (reached < n && order[reached] >= 0) reached++;
+
+            // size(v) = how badly the landmarks bound d(root, w), summed over v's subtree; 0 if it holds a landmark
+            long[] size = new long[n];
+            boolean[] hasLandmark = new boolean[n];
+            for (int j = reached - 1; j >= 0; j--) {
+                int v = order[j];
+                if (isLandmark[v]) hasLandmark[v] = true;
+                size[v] += dist[v] - current.estimate(root, v);
+                int p = parent[v];
+                if (p >= 0) {
+                    hasLandmark[p] |= hasLandmark[v];
+                    size[p] += size[v];
+                }
+            }
+            for (int j = 0; j < reached; j++) if (hasLandmark[order[j]]) size[order[j]] = 0;
+
+            // Children of every tree vertex, to walk down the heaviest branch
+            int[] childStart = new int[n + 1];
+            for (int j = 1; j < reached; j++) childStart[parent[order[j]] + 1]++;
+            for (int v = 0; v < n; v++) childStart[v + 1] += childStart[v];
+            int[] fill = Arrays.copyOf(childStart, n), children = new int[Math.max(0, reached - 1)];
+            for (int j = 1; j < reached; j++) children[fill[parent[order[j]]]++] = order[j];
+
+            int v = root;
+            while (true) {
+                int next = -1;
+                for (int c = childStart[v]; c < childStart[v + 1]; c++) {
+                    int child = children[c];
+                    if (size[child] > 0 && (next < 0 || size[child] > size[next])) next = child;
+                }
+                if (next < 0) break;
+                v = next;
+            }
+            if (v != root) return v; // else no branch from this root is free of landmarks
+        }
+        // Every branch is already covered: fall back to any vertex that is not a landmark yet
+        int v = random.nextInt(n);
+        while (isLandmark[v]) v = (v + 1) % n;
+        return v;
+    }
+
+    /*
+      Plain Dijkstra with an indexed heap. parent and order are optional;
+      order lists the vertices in the order they were settled, then -1.
+     */
+    private static long[] shortestPaths(int[] offsets, int[] targets, int[] weights, int source, int[] parent, int[] order) {
+        int n = offsets.length - 1;
+        long[] dist = new long[n];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        if (order != null) Arrays.fill(order, -1);
+        IndexedIntHeap heap = new IndexedIntHeap(n, 4);
+        dist[source] = 0;
+        if (parent != null) parent[source] = -1;
+        heap.insert(source, 0);
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (order != null) order[settled] = u;
+            settled++;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                long d = dist[u] + weights[e];
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    if (parent != null) parent[v] = u;
+                    heap.insertOrDecrease(v, d);
+                }
+            }
+        }
+        return dist;
+    }
+
+    private static int[] weightsOf(CSRGraph graph) {
+        if (graph.weights() != null) return graph.weights();
+        int[] ones = new int[graph.edgeCount()];
+        Arrays.fill(ones, 1);
+        return ones;
+    }
+
+    /*
+      HEURISTIC
+     */
+
+    // Lower bound on d(v, target) from all landmarks
+    public long estimate(int v, int target) {
+        long best = 0;
+        for (int i = 0; i < used; i++) best = Math.max(best, bound(i, v, target));
+        return best;
+    }
+
+    // Lower bound from landmark i alone
+    private long bound(int i, int v, int target) {
+        int row = 2 * k;
+        long best = 0;
+        int fromV = table[v * row + 2 * i], fromT = table[target * row + 2 * i];
+        if (fromT != UNREACHABLE && fromV != UNREACHABLE) best = Math.max(best, (long) fromT - fromV);
+        int toV = table[v * row + 2 * i + 1], toT = table[target * row + 2 * i + 1];
+        if (toV != UNREACHABLE && toT != UNREACHABLE) best = Math.max(best, (long) toV - toT);
+        return best;
+    }
+
+    /*
+      AStar.Heuristic over Graph nodes; node i of the list is vertex i of the
+      CSRGraph the landmarks were built on, as with CSRGraph.from(graph, nodes).
+     */
+    public AStar.Heuristic heuristic(List<Node> nodes) {
+        Map<Node, Integer> ids = new HashMap<>();
+        for (int i = 0; i < nodes.size(); i++) ids.put(nodes.get(i), i);
+        return (current, goal) -> (int) Math.min(Integer.MAX_VALUE, estimate(ids.get(current), ids.get(goal)));
+    }
+
+    /*
+      QUERY
+     */
+    public BidirectionalDijkstra.Result aStar(int source, int target) {
+        return aStar(source, target, DEFAULT_ACTIVE);
+    }
+
+    // A* with the `active` landmarks that bound d(source, target) best; one query at a time
+    public synchronized BidirectionalDijkstra.Result aStar(int source, int target, int active) {
+        int n = graph.vertexCount();
+        if (source < 0 || source >= n || target < 0 || target >= n) {
+            throw new IndexOutOfBoundsException("Query " + source + " -> " + target + " outside 0.." + (n - 1));
+        }
+        int[] use = bestLandmarks(source, target, Math.min(active, k));
+        int[] offsets = graph.offsets(), targets = graph.targets();
+        int touchedSize = 0, settled = 0;
+        g[source] = 0;
+        parent[source] = -1;
+        touched[touchedSize++] = source;
+        heap.insert(source, potential(use, source, target));
+
+        long distance = Long.MAX_VALUE;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+            if (u == target) {
+                distance = g[u];
+                break;
+            }
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                long d = g[u] + weights[e];
+                if (d >= g[v]) continue;
+                if (g[v] == Long.MAX_VALUE) touched[touchedSize++] = v;
+                g[v] = d;
+                parent[v] = u;
+                heap.insertOrDecrease(v, d + potential(use, v, target));
+            }
+        }
+
+        int[] path = new int[0];
+        if (distance != Long.MAX_VALUE) {
+            int length = 0;
+            for (int v = target; v != -1; v = parent[v]) length++;
+            path = new int[length];
+            for (int v = target; v != -1; v = parent[v]) path[--length] = v;
+        }
+        for (int i = 0; i < touchedSize; i++) g[touched[i]] = Long.MAX_VALUE;
+        heap.clear();
+        return new BidirectionalDijkstra.Result(distance, path, settled);
+    }
+
+    private long potential(int[] use, int v, int target) {
+        long best = 0;
+        for (int i : use) best = Math.max(best, bound(i, v, target));
+        return best;
+    }
+
+    private int[] bestLandmarks(int source, int target, int active) {
+        Integer[] byBound = new Integer[k];
+        for (int i = 0; i < k; i++) byBound[i] = i;
+        Arrays.sort(byBound, (a, b) -> Long.compare(bound(b, source, target), bound(a, source, target)));
+        int[] use = new int[Math.max(0, active)];
+        for (int i = 0; i < use.length; i++) use[i] = byBound[i];
+        return use;
+    }
+
+    // QUICK BENCHMARK: settled vertices and latency on a road-like grid
+    private static void benchmark(CSRGraph graph, int count, int queries) {
+        int n = graph.vertexCount();
+        System.out.printf("Road grid: %d vertices, %d edges, %d landmarks, %d random queries%n", n, graph.edgeCount(), count, queries);
+
+        long start = System.nanoTime();
+        Landmarks farthest = farthest(graph, count, new Random(1));
+        System.out.printf("  farthest selection + tables: %.0f ms, %.1f MB%n", (System.nanoTime() - start) / 1e6, farthest.sizeInBytes() / 1e6);
+        start = System.nanoTime();
+        Landmarks avoid = avoid(graph, count, new Random(1));
+        System.out.printf("  avoid selection + tables:    %.0f ms, %.1f MB%n", (System.nanoTime() - start) / 1e6, avoid.sizeInBytes() / 1e6);
+        BidirectionalDijkstra bidirectional = new BidirectionalDijkstra(graph);
+
+        Random random = new Random(7);
+        int[] sources = new int[queries], targets = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            sources[q] = random.nextInt(n);
+            targets[q] = random.nextInt(n);
+        }
+        String[] names = { "Dijkstra (whole graph)", "Dijkstra, stop at target", "Bidirectional Dijkstra",
+                "ALT farthest, 4 active", "ALT avoid, 4 active", "ALT avoid, all active" };
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            long[] time = new long[names.length], settled = new long[names.length];
+            for (int q = 0; q < queries; q++) {
+                int s = sources[q], t = targets[q];
+                start = System.nanoTime();
+                long[] dist = Dijkstra.dijkstra(graph, s, new IndexedIntHeap(n, 4));
+                time[0] += System.nanoTime() - start;
+                for (long d : dist) if (d != Long.MAX_VALUE) settled[0]++;
+
+                for (int method = 1; method < names.length; method++) {
+                    start = System.nanoTime();
+                    BidirectionalDijkstra.Result result = method == 1 ? avoid.aStar(s, t, 0)
+                            : method == 2 ? bidirectional.query(s, t)
+                            : method == 3 ? farthest.aStar(s, t, 4)
+                            : method == 4 ? avoid.aStar(s, t, 4)
+                            : avoid.aStar(s, t, count);
+                    time[method] += System.nanoTime() - start;
+                    settled[method] += result.settled;
+                    if (result.distance != dist[t]) throw new IllegalStateException(names[method] + " is wrong for query " + q);
+                }
+            }
+            if (round == 1) {
+                for (int method = 0; method < names.length; method++) {
+                    System.out.printf("  %-28s %9.3f ms %10d settled%n", names[method], time[method] / 1e6 / queries, settled[method] / queries);
+                }
+            }
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        // The AStar demo graph, with a landmark heuristic instead of a hand-written one
+        Graph graph = new Graph(false);
+        Node a = new Node("A"), b = new Node("B"), c = new Node("C"), d = new Node("D"), e = new Node("E");
+        graph.addEdge(a, b, 4);
+        graph.addEdge(a, c, 2);
+        graph.addEdge(c, d, 5);
+        graph.addEdge(b, e, 10);
+        graph.addEdge(d, e, 2);
+        List<Node> nodes = new ArrayList<>(graph.getNodes());
+        Landmarks landmarks = avoid(CSRGraph.from(graph, nodes), 2, new Random(1));
+
+        AStar.Heuristic heuristic = landmarks.heuristic(nodes);
+        System.out.println("Estimate A -> E: " + heuristic.estimate(a, e) + " (true distance 9)");
+        System.out.println("A* path A -> E: " + AStar.aStar(graph, a, e, heuristic));
+
+        // Arguments: grid side, landmarks, queries, e.g. 2000 16 100
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        benchmark(GraphGenerators.roadGrid(side, 100, new Random(42)), count, queries);
+    }
+}
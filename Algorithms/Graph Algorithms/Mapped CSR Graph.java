@@ -0,0 +1,759 @@
+/*
+  Description:
+  --------------------
+  A Mapped CSR Graph is a CSR graph (see CSRGraph) stored in a binary file
+  and opened with memory mapping instead of being loaded. Opening a graph
+  only maps the file and reads the header, so a traversal can start right
+  away; the operating system pages offsets and edges in as they are touched,
+  and the graph can be far larger than the Java heap or even than RAM.
+
+  File layout (little-endian, every section 8-byte aligned):
+  - Header, 64 bytes: magic, version, flags, vertex count, edge count and the
+    file position of each section
+  - offsets: long[vertexCount + 1], edge slots of vertex u are
+    offsets[u] .. offsets[u + 1] - 1
+  - targets: int[edgeCount]
+  - weights: int[edgeCount] (only if the weighted flag is set)
+  - labels:  long[vertexCount + 1] byte offsets, then the UTF-8 labels
+    (only if the labels flag is set)
+
+  The converter streams an edge-list text file ("source target [weight]" per
+  line, '#' starts a comment) and never holds all the edges in memory:
+  1. Give every vertex label a dense id and count out-degrees
+  2. Re-read the file and append each edge to a temporary bucket file for
+     its range of source vertices (about 8M edges per bucket)
+  3. Sort one bucket at a time into place in memory and write it out, so
+     the graph file is written front to back
+  With numericIds the labels are taken as the ids themselves, so no label
+  table is kept at all; that is the usual format of published edge lists.
+
+  Supports:
+  - convert(edge list -> file), open(file), close()
+  - degree, edge slots, target, weight, label, forEachNeighbor
+  - bfs(source), toCSRGraph() when the graph fits in the heap
+
+  Use Cases:
+  --------------------
+  - Web, social and road graphs with billions of edges
+  - Graphs that many short-lived processes open and traverse
+  - Sharing one graph between processes through the page cache
+
+  Time Complexity:
+  --------------------
+  - convert: O(V + E), two sequential reads of the text file plus one
+    write and read of the bucket files
+  - open: O(1), independent of the graph size
+  - degree, edge lookup: O(1) (plus a page fault on first touch)
+
+  Space Complexity:
+  --------------------
+  - File: 8(V + 1) + 4E bytes, plus 4E for weights, plus the labels
+  - Heap while converting: 4 bytes per vertex (its degree), 8 bytes per edge
+    of one bucket, plus the label map unless numericIds is used
+  - Temporary disk while converting: 8 (12 weighted) bytes per edge
+  - Heap while open: nothing per vertex or edge
+
+  Approach:
+  --------------------
+  Think of a huge printed atlas kept on the shelf: you do not copy it before
+  you start reading, you open it at the index page and the pages you look at
+  are the only ones that ever leave the shelf.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+public class MappedCSRGraph implements Closeable {
+
+    private static final int MAGIC = 0x43535247; // "CSRG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int FLAG_WEIGHTED = 1, FLAG_LABELS = 2;
+
+    // Header offsets
+    private static final int H_MAGIC = 0, H_VERSION = 4, H_FLAGS = 8, H_VERTICES = 16, H_EDGES = 24,
+            H_OFFSETS = 32, H_TARGETS = 40, H_WEIGHTS = 48, H_LABELS = 56;
+
+    /*
+      MAPPED FILE
+      A single MappedByteBuffer is limited to 2 GB, so the file is mapped in
+      1 GB chunks. Every int and long sits at an aligned position, so no value
+      ever straddles two chunks.
+     */
+    private static final class MappedFile {
+        private static final int CHUNK_SHIFT = 30;
+        private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+        private final MappedByteBuffer[] chunks;
+
+        MappedFile(FileChannel channel, long size) throws IOException {
+            chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << CHUNK_SHIFT, size - start));
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        int getInt(long pos) {
+            return chunks[(int) (pos >>> CHUNK_SHIFT)].getInt((int) (pos & CHUNK_MASK));
+        }
+
+        long getLong(long pos) {
+            return chunks[(int) (pos >>> CHUNK_SHIFT)].getLong((int) (pos & CHUNK_MASK));
+        }
+
+        // Labels are not aligned, so bytes are copied one chunk at a time
+        void getBytes(long pos, byte[] dst) {
+            for (int done = 0; done < dst.length; ) {
+                ByteBuffer chunk = chunks[(int) ((pos + done) >>> CHUNK_SHIFT)];
+                int at = (int) ((pos + done) & CHUNK_MASK), len = Math.min(dst.length - done, chunk.capacity() - at);
+                chunk.get(at, dst, done, len);
+                done += len;
+            }
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedFile file;
+    private final int n;
+    private final long m;
+    private final long offsetsPos, targetsPos, weightsPos, labelsPos;
+
+    private MappedCSRGraph(FileChannel channel, MappedFile file) {
+        this.channel = channel;
+        this.file = file;
+        this.n = (int) file.getLong(H_VERTICES);
+        this.m = file.getLong(H_EDGES);
+        this.offsetsPos = file.getLong(H_OFFSETS);
+        this.targetsPos = file.getLong(H_TARGETS);
+        this.weightsPos = file.getLong(H_WEIGHTS);
+        this.labelsPos = file.getLong(H_LABELS);
+    }
+
+    // Maps the file; nothing beyond the header is read until it is used
+    public static MappedCSRGraph open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Not a CSR graph file: " + path);
+            MappedFile file = new MappedFile(channel, size);
+            if (file.getInt(H_MAGIC) != MAGIC) throw new IOException("Not a CSR graph file: " + path);
+            if (file.getInt(H_VERSION) != VERSION) throw new IOException("Unsupported version " + file.getInt(H_VERSION));
+            MappedCSRGraph graph = new MappedCSRGraph(channel, file);
+            if (graph.hasLabels() && graph.labelsPos + 8L * (graph.n + 1) > size) {
+                throw new IOException("Truncated CSR graph file: " + path);
+            }
+            if (graph.fileSize(graph.hasWeights(), graph.hasLabels() ? graph.labelBytes() : -1) != size) {
+                throw new IOException("Truncated CSR graph file: " + path);
+            }
+            return graph;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private long labelBytes() {
+        return file.getLong(labelsPos + 8L * n);
+    }
+
+    private long fileSize(boolean weighted, long labelBytes) {
+        long size = targetsPos + align(4 * m);
+        if (weighted) size += align(4 * m);
+        if (labelBytes >= 0) size += 8L * (n + 1) + labelBytes;
+        return size;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    public long edgeCount() {
+        return m;
+    }
+
+    public boolean hasWeights() {
+        return weightsPos != 0;
+    }
+
+    public boolean hasLabels() {
+        return labelsPos != 0;
+    }
+
+    // Edge slots of u are edgeStart(u) .. edgeEnd(u) - 1
+    public long edgeStart(int u) {
+        return file.getLong(offsetsPos + 8L * u);
+    }
+
+    public long edgeEnd(int u) {
+        return file.getLong(offsetsPos + 8L * (u + 1));
+    }
+
+    public int degree(int u) {
+        return (int) (edgeEnd(u) - edgeStart(u));
+    }
+
+    public int target(long edge) {
+        return file.getInt(targetsPos + 4 * edge);
+    }
+
+    // Weight of an edge slot; 1 for an unweighted graph
+    public int weight(long edge) {
+        return weightsPos == 0 ? 1 : file.getInt(weightsPos + 4 * edge);
+    }
+
+    public String label(int u) {
+        if (labelsPos == 0) return String.valueOf(u);
+        long start = file.getLong(labelsPos + 8L * u), end = file.getLong(labelsPos + 8L * (u + 1));
+        byte[] bytes = new byte[(int) (end - start)];
+        file.getBytes(labelsPos + 8L * (n + 1) + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public void forEachNeighbor(int u, IntConsumer action) {
+        for (long e = edgeStart(u), end = edgeEnd(u); e < end; e++) action.accept(target(e));
+    }
+
+    // BFS levels from source, -1 for unreachable vertices
+    public int[] bfs(int source) {
+        int[] level = new int[n];
+        Arrays.fill(level, -1);
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        level[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            for (long e = edgeStart(u), end = edgeEnd(u); e < end; e++) {
+                int v = target(e);
+                if (level[v] < 0) {
+                    level[v] = level[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return level;
+    }
+
+    // Copies the graph into the heap (labels are left behind)
+    public CSRGraph toCSRGraph() {
+        if (m > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many edges for an in-heap CSRGraph: " + m);
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u <= n; u++) offsets[u] = (int) file.getLong(offsetsPos + 8L * u);
+        int[] targets = new int[(int) m];
+        for (int e = 0; e < m; e++) targets[e] = target(e);
+        int[] weights = null;
+        if (hasWeights()) {
+            weights = new int[(int) m];
+            for (int e = 0; e < m; e++) weights[e] = weight(e);
+        }
+        return CSRGraph.wrap(offsets, targets, weights);
+    }
+
+    /*
+      Java cannot unmap a MappedByteBuffer explicitly; the mapping goes away
+      once the graph is garbage collected. Do not use the graph after close.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /*
+      EDGE LIST READER
+      Splits a text file into lines of up to three whitespace-separated
+      tokens without creating a String per line.
+     */
+    private static final class EdgeListReader implements Closeable {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16];
+        private int pos, limit;
+        private byte[] line = new byte[256];
+        private int length;
+        private final int[] starts = new int[3], ends = new int[3];
+        int tokens;
+        long lineNumber;
+
+        EdgeListReader(Path path) throws IOException {
+            in = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+        }
+
+        // Reads the next line that is not blank or a comment; false at end of file
+        boolean next() throws IOException {
+            while (true) {
+                length = 0;
+                int b;
+                while ((b = read()) >= 0 && b != '\n') {
+                    if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                    line[length++] = (byte) b;
+                }
+                if (b < 0 && length == 0) return false;
+                lineNumber++;
+                split();
+                if (tokens > 0) return true;
+            }
+        }
+
+        private int read() throws IOException {
+            if (pos == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[pos++] & 0xFF;
+        }
+
+        private void split() throws IOException {
+            tokens = 0;
+            int i = 0;
+            while (i < length && line[i] != '#') {
+                if (isSpace(line[i])) {
+                    i++;
+                    continue;
+                }
+                if (tokens == 3) throw new IOException("Line " + lineNumber + ": more than three fields");
+                starts[tokens] = i;
+                while (i < length && !isSpace(line[i]) && line[i] != '#') i++;
+                ends[tokens++] = i;
+            }
+        }
+
+        // Bytes of multi-byte UTF-8 characters are negative, so they are never whitespace
+        private static boolean isSpace(byte b) {
+            return b >= 0 && b <= ' ';
+        }
+
+        String text(int token) {
+            return new String(line, starts[token], ends[token] - starts[token], StandardCharsets.UTF_8);
+        }
+
+        int number(int token) throws IOException {
+            int i = starts[token], end = ends[token];
+            boolean negative = line[i] == '-';
+            if (negative) i++;
+            if (i == end) throw new IOException("Line " + lineNumber + ": not a number: " + text(token));
+            long value = 0;
+            for (; i < end; i++) {
+                int digit = line[i] - '0';
+                if (digit < 0 || digit > 9) throw new IOException("Line " + lineNumber + ": not a number: " + text(token));
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE + 1L) throw new IOException("Line " + lineNumber + ": number too large: " + text(token));
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) throw new IOException("Line " + lineNumber + ": number too large: " + text(token));
+            return (int) value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // Vertex ids of the converter: either the numbers themselves or a label table
+    private static final class VertexIds {
+        private final boolean numeric;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> labels = new ArrayList<>();
+        private int count;
+
+        VertexIds(boolean numeric) {
+            this.numeric = numeric;
+        }
+
+        int idOf(EdgeListReader reader, int token) throws IOException {
+            if (numeric) {
+                int id = reader.number(token);
+                if (id < 0 || id == Integer.MAX_VALUE) throw new IOException("Line " + reader.lineNumber + ": bad vertex id " + id);
+                count = Math.max(count, id + 1);
+                return id;
+            }
+            String label = reader.text(token);
+            Integer id = ids.get(label);
+            if (id == null) {
+                id = labels.size();
+                ids.put(label, id);
+                labels.add(label);
+                count++;
+            }
+            return id;
+        }
+
+        // Pass 2 only sees labels that pass 1 already registered
+        int existingId(EdgeListReader reader, int token) throws IOException {
+            return numeric ? reader.number(token) : ids.get(reader.text(token));
+        }
+    }
+
+    /*
+      SECTION WRITER
+      The converter writes every section front to back through a small
+      buffer instead of through a writable mapping: random writes into a
+      mapped file larger than RAM make the OS write the same pages back to
+      disk again and again.
+     */
+    private static final class SectionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        SectionWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < 4) flush();
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            if (buffer.remaining() < 8) flush();
+            buffer.putLong(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (int done = 0; done < bytes.length; ) {
+                if (!buffer.hasRemaining()) flush();
+                int len = Math.min(bytes.length - done, buffer.remaining());
+                buffer.put(bytes, done, len);
+                done += len;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) position += channel.write(buffer, position);
+            buffer.clear();
+        }
+    }
+
+    private static final int BUCKET_EDGES = 1 << 23; // edges sorted in memory at a time by the converter
+
+    private static void countEdge(int[] degree, int u, EdgeListReader reader) throws IOException {
+        if (degree[u] == Integer.MAX_VALUE) throw new IOException("Line " + reader.lineNumber + ": vertex " + u + " has too many edges");
+        degree[u]++;
+    }
+
+    /*
+      Converts an edge-list text file into a graph file. Every line is
+      "source target" or "source target weight" (all lines the same). With
+      undirected, each line adds both directions. With numericIds, vertices
+      are the non-negative integers in the file, otherwise any token is a
+      label and ids are handed out in order of first appearance.
+     */
+    public static void convert(Path edgeList, Path out, boolean undirected, boolean numericIds) throws IOException {
+        // Pass 1: vertex ids and out-degrees
+        VertexIds ids = new VertexIds(numericIds);
+        int[] degree = new int[1024];
+        int fields = 0;
+        long m = 0;
+        try (EdgeListReader reader = new EdgeListReader(edgeList)) {
+            while (reader.next()) {
+                if (reader.tokens < 2) throw new IOException("Line " + reader.lineNumber + ": expected source and target");
+                if (fields == 0) fields = reader.tokens;
+                if (reader.tokens != fields) throw new IOException("Line " + reader.lineNumber + ": expected " + fields + " fields");
+                int u = ids.idOf(reader, 0), v = ids.idOf(reader, 1);
+                if (fields == 3) reader.number(2);
+                int needed = Math.max(u, v) + 1;
+                if (needed > degree.length) {
+                    degree = Arrays.copyOf(degree, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, degree.length * 3L / 2)));
+                }
+                countEdge(degree, u, reader);
+                m++;
+                if (undirected && u != v) {
+                    countEdge(degree, v, reader);
+                    m++;
+                }
+            }
+        }
+
+        int n = ids.count;
+        boolean weighted = fields == 3, labeled = !numericIds;
+        long offsetsPos = HEADER_BYTES;
+        long targetsPos = offsetsPos + 8L * (n + 1);
+        long weightsPos = weighted ? targetsPos + align(4 * m) : 0;
+        long labelsPos = labeled ? targetsPos + align(4 * m) * (weighted ? 2 : 1) : 0;
+
+        // Split the vertices into ranges of about BUCKET_EDGES out-edges each
+        List<Integer> starts = new ArrayList<>();
+        long largest = 0, inBucket = 0;
+        for (int u = 0; u < n; u++) {
+            if (u == 0 || (inBucket > 0 && inBucket + degree[u] > BUCKET_EDGES)) {
+                starts.add(u);
+                inBucket = 0;
+            }
+            inBucket += degree[u];
+            largest = Math.max(largest, inBucket);
+        }
+        if (largest > Integer.MAX_VALUE - 8) throw new IOException("A vertex has too many edges to sort in memory");
+        int[] bucketStart = new int[starts.size() + 1];
+        for (int b = 0; b < starts.size(); b++) bucketStart[b] = starts.get(b);
+        bucketStart[starts.size()] = n;
+
+        Path dir = out.toAbsolutePath().getParent();
+        List<Path> bucketFiles = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            SectionWriter header = new SectionWriter(channel, 0);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt((weighted ? FLAG_WEIGHTED : 0) | (labeled ? FLAG_LABELS : 0));
+            header.putInt(0);
+            for (long value : new long[] { n, m, offsetsPos, targetsPos, weightsPos, labelsPos }) header.putLong(value);
+            header.flush();
+
+            SectionWriter offsets = new SectionWriter(channel, offsetsPos);
+            long edge = 0;
+            for (int u = 0; u < n; u++) {
+                offsets.putLong(edge);
+                edge += degree[u];
+            }
+            offsets.putLong(edge);
+            offsets.flush();
+
+            // Pass 2: append every edge, unsorted, to the bucket file of its source range
+            DataOutputStream[] buckets = new DataOutputStream[bucketStart.length - 1];
+            try {
+                for (int b = 0; b < buckets.length; b++) {
+                    bucketFiles.add(Files.createTempFile(dir, "csr-bucket", ".tmp"));
+                    buckets[b] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(bucketFiles.get(b)), 1 << 16));
+                }
+                try (EdgeListReader reader = new EdgeListReader(edgeList)) {
+                    while (reader.next()) {
+                        int u = ids.existingId(reader, 0), v = ids.existingId(reader, 1);
+                        int w = weighted ? reader.number(2) : 0;
+                        writeRecord(buckets, bucketStart, u, v, w, weighted);
+                        if (undirected && u != v) writeRecord(buckets, bucketStart, v, u, w, weighted);
+                    }
+                }
+            } finally {
+                for (DataOutputStream bucket : buckets) {
+                    if (bucket != null) bucket.close();
+                }
+            }
+
+            // Pass 3: sort one bucket at a time in memory, then write it out sequentially
+            SectionWriter targetWriter = new SectionWriter(channel, targetsPos);
+            SectionWriter weightWriter = weighted ? new SectionWriter(channel, weightsPos) : null;
+            int[] targets = new int[(int) largest];
+            int[] weights = weighted ? new int[(int) largest] : null;
+            for (int b = 0; b < bucketFiles.size(); b++) {
+                int count = 0;
+                for (int u = bucketStart[b]; u < bucketStart[b + 1]; u++) { // degree[u] becomes the next free slot of u
+                    int d = degree[u];
+                    degree[u] = count;
+                    count += d;
+                }
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(bucketFiles.get(b)), 1 << 16))) {
+                    for (int i = 0; i < count; i++) {
+                        int slot = degree[in.readInt()]++;
+                        targets[slot] = in.readInt();
+                        if (weighted) weights[slot] = in.readInt();
+                    }
+                }
+                Files.delete(bucketFiles.get(b));
+                for (int i = 0; i < count; i++) targetWriter.putInt(targets[i]);
+                if (weighted) {
+                    for (int i = 0; i < count; i++) weightWriter.putInt(weights[i]);
+                }
+            }
+            targetWriter.flush();
+            if (weighted) weightWriter.flush();
+
+            long size = labelsPos != 0 ? labelsPos : targetsPos + align(4 * m) * (weighted ? 2 : 1);
+            if (labeled) {
+                SectionWriter labels = new SectionWriter(channel, labelsPos);
+                List<byte[]> bytes = new ArrayList<>(n);
+                long at = 0;
+                for (String label : ids.labels) {
+                    byte[] utf8 = label.getBytes(StandardCharsets.UTF_8);
+                    bytes.add(utf8);
+                    labels.putLong(at);
+                    at += utf8.length;
+                }
+                labels.putLong(at);
+                for (byte[] utf8 : bytes) labels.putBytes(utf8);
+                labels.flush();
+                size += 8L * (n + 1) + at;
+            }
+            if (channel.size() < size) channel.write(ByteBuffer.allocate(1), size - 1); // padding after the last section
+            channel.force(true);
+        } finally {
+            for (Path file : bucketFiles) Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream[] buckets, int[] bucketStart, int u, int v, int w, boolean weighted)
+            throws IOException {
+        int b = Arrays.binarySearch(bucketStart, 0, buckets.length, u);
+        DataOutputStream bucket = buckets[b >= 0 ? b : -b - 2];
+        bucket.writeInt(u);
+        bucket.writeInt(v);
+        if (weighted) bucket.writeInt(w);
+    }
+
+    // QUICK BENCHMARK: text -> objects vs streaming conversion, open time, BFS throughput
+    private static final int OBJECT_GRAPH_LIMIT = 5_000_000; // larger edge lists do not fit as objects
+
+    private static void writeRandomEdgeList(Path path, int n, long m, Random random) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("# source target weight\n");
+            for (long i = 0; i < m; i++) {
+                writer.write(random.nextInt(n) + " " + random.nextInt(n) + " " + (1 + random.nextInt(100)) + "\n");
+            }
+        }
+    }
+
+    private static Graph loadObjectGraph(Path path) throws IOException {
+        Graph graph = new Graph(true);
+        Map<String, Node> nodes = new HashMap<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.startsWith("#")) continue;
+            String[] parts = line.split("\\s+");
+            Node from = nodes.computeIfAbsent(parts[0], Node::new), to = nodes.computeIfAbsent(parts[1], Node::new);
+            graph.addEdge(from, to, Integer.parseInt(parts[2]));
+        }
+        return graph;
+    }
+
+    private static int[] bfs(CSRGraph graph, int source) {
+        int[] offsets = graph.offsets(), targets = graph.targets();
+        int n = graph.vertexCount();
+        int[] level = new int[n];
+        Arrays.fill(level, -1);
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        level[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                if (level[targets[e]] < 0) {
+                    level[targets[e]] = level[u] + 1;
+                    queue[tail++] = targets[e];
+                }
+            }
+        }
+        return level;
+    }
+
+    private static double millis(long start) {
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    // Opens an existing graph file and runs BFS; run after dropping the page cache for a cold start
+    private static void benchmarkOpen(Path path) throws IOException {
+        long start = System.nanoTime();
+        try (MappedCSRGraph graph = open(path)) {
+            System.out.printf("  %-28s %10.2f ms (%d vertices, %d edges, %.1f MB file)%n", "open (mapped)", millis(start),
+                    graph.vertexCount(), graph.edgeCount(), Files.size(path) / 1e6);
+            for (int round = 0; round < 2; round++) { // the first run pages in whatever is not cached yet
+                start = System.nanoTime();
+                int[] level = graph.bfs(0);
+                double ms = millis(start);
+                long reached = Arrays.stream(level).filter(l -> l >= 0).count();
+                System.out.printf("  %-28s %10.0f ms, %.1f M edges/s, %d vertices reached%n",
+                        round == 0 ? "BFS on mapped file (1st run)" : "BFS on mapped file (2nd run)", ms, graph.edgeCount() / ms / 1e3, reached);
+            }
+        }
+    }
+
+    private static void benchmark(int n, long m) throws IOException {
+        Path text = Files.createTempFile("edges", ".txt"), binary = Files.createTempFile("graph", ".csr");
+        try {
+            writeRandomEdgeList(text, n, m, new Random(42));
+            System.out.printf("Edge list: %d vertices, %d edges, %.1f MB of text%n", n, m, Files.size(text) / 1e6);
+
+            if (m <= OBJECT_GRAPH_LIMIT) {
+                long start = System.nanoTime();
+                Graph graph = loadObjectGraph(text);
+                System.out.printf("  %-28s %10.0f ms (%d nodes)%n", "text -> Graph objects", millis(start), graph.getNodes().size());
+            }
+
+            long start = System.nanoTime();
+            convert(text, binary, false, true);
+            System.out.printf("  %-28s %10.0f ms%n", "convert (streaming)", millis(start));
+            benchmarkOpen(binary);
+
+            if (m <= Integer.MAX_VALUE - 8 && m <= 200_000_000) {
+                try (MappedCSRGraph mapped = open(binary)) {
+                    CSRGraph heap = mapped.toCSRGraph();
+                    bfs(heap, 0); // warm-up
+                    start = System.nanoTime();
+                    bfs(heap, 0);
+                    double ms = millis(start);
+                    System.out.printf("  %-28s %10.0f ms, %.1f M edges/s%n", "BFS on in-heap CSRGraph", ms, m / ms / 1e3);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) throws IOException {
+        // Arguments: "open <file.csr>" to time an existing file, or edges [vertices]
+        if (args.length == 2 && args[0].equals("open")) {
+            benchmarkOpen(Paths.get(args[1]));
+            return;
+        }
+
+        Path text = Files.createTempFile("cities", ".txt"), binary = Files.createTempFile("cities", ".csr");
+        try {
+            Files.write(text, List.of("# from to km", "Paris Lyon 465", "Lyon Marseille 315",
+                    "Paris Lille 225", "Lille Brussels 110", "Brussels Amsterdam 210"));
+            convert(text, binary, true, false);
+            try (MappedCSRGraph graph = open(binary)) {
+                for (int u = 0; u < graph.vertexCount(); u++) {
+                    System.out.print(graph.label(u) + " ->");
+                    for (long e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                        System.out.print(" " + graph.label(graph.target(e)) + "(" + graph.weight(e) + ")");
+                    }
+                    System.out.println();
+                }
+                int[] hops = graph.bfs(0);
+                System.out.println("Hops from " + graph.label(0) + " to " + graph.label(graph.vertexCount() - 1) + ": "
+                        + hops[graph.vertexCount() - 1]);
+            }
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(binary);
+        }
+
+        long m = args.length > 0 ? Long.parseLong(args[0]) : 4_000_000;
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : (int) Math.max(1, m / 8);
+        benchmark(n, m);
+    }
+}
@@ -0,0 +1,444 @@
+/*
+  Description:
+  --------------------
+  A parallel, level-synchronous Breadth-First Search over a CSRGraph that
+  picks the cheaper direction for every level (Beamer's direction-optimizing
+  BFS):
+
+  - Top-down: every frontier vertex scans its out-edges and claims the
+    unvisited targets. Cheap while the frontier is small.
+  - Bottom-up: every unvisited vertex scans its in-edges until it finds one
+    from the frontier, then stops. Once the frontier holds a large part of
+    the graph (the middle levels of a small-world graph), most vertices find
+    a parent after a few edges, and the huge out-lists of the frontier are
+    never scanned.
+
+  The search switches to bottom-up when the edges out of the frontier (m_f)
+  exceed the edges still to check from unvisited vertices (m_u) divided by
+  ALPHA, and back to top-down when the frontier shrinks below n / BETA
+  vertices.
+
+  Details:
+  - visited is a bitmap of longs. Top-down claims a vertex with a CAS on its
+    word, so exactly one thread writes its parent and depth.
+  - Bottom-up tasks own whole 64-vertex words, so they update visited and
+    the next frontier without atomics.
+  - Every level is one fork/join invocation on the given pool; the join is
+    the barrier between levels.
+
+  Supports:
+  - bfs(graph, source, pool): parent[] and depth[] (-1 if unreachable)
+  - Passing the graph itself as the reverse graph for undirected graphs
+  - Top-down only mode, for comparison
+
+  Use Cases:
+  --------------------
+  - Hop distances and BFS trees on social, web and road graphs
+  - The inner step of betweenness, diameter estimation and graph500-style
+    benchmarks
+
+  Time Complexity:
+  --------------------
+  - O(V + E) work for top-down only; bottom-up levels usually check far
+    fewer edges than E on small-world graphs
+  - O(D) barriers for a graph of diameter D
+
+  Space Complexity:
+  --------------------
+  - parent and depth (8 bytes per vertex), two frontier queues (8 bytes per
+    vertex) and three bitmaps (3 bits per vertex)
+
+  Approach:
+  --------------------
+  Think of spreading news in a town. At first the few people who know it
+  call all their friends. Once half the town knows, it is quicker for each
+  person who has not heard yet to ask around until one friend has, than for
+  thousands of people to call everyone they know.
+ */
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class ParallelBFS {
+
+    // Beamer's switching thresholds
+    private static final int ALPHA = 14, BETA = 24;
+    // Frontier vertices handled by one top-down task
+    private static final int TOP_DOWN_CHUNK = 1 << 9;
+    // Vertices handled by one bottom-up task, a multiple of 64
+    private static final int BOTTOM_UP_CHUNK = 1 << 13;
+    // Vertices a top-down task collects before copying them to the next frontier
+    private static final int LOCAL_BUFFER = 1 << 8;
+
+    public static final class Result {
+        public final int[] parent; // parent[source] == source, -1 if unreachable
+        public final int[] depth;  // hops from the source, -1 if unreachable
+        public final int topDownLevels, bottomUpLevels;
+
+        Result(int[] parent, int[] depth, int topDownLevels, int bottomUpLevels) {
+            this.parent = parent;
+            this.depth = depth;
+            this.topDownLevels = topDownLevels;
+            this.bottomUpLevels = bottomUpLevels;
+        }
+    }
+
+    private ParallelBFS() {
+    }
+
+    public static Result bfs(CSRGraph graph, int source) {
+        return bfs(graph, graph.reverse(), source, ForkJoinPool.commonPool(), true);
+    }
+
+    public static Result bfs(CSRGraph graph, int source, ForkJoinPool pool) {
+        return bfs(graph, graph.reverse(), source, pool, true);
+    }
+
+    /*
+      reverse must hold the in-edges of graph (graph.reverse()); for an
+      undirected graph stored in both directions, pass graph itself and save
+      building it. With directionOptimizing false every level is top-down.
+     */
+    public static Result bfs(CSRGraph graph, CSRGraph reverse, int source, ForkJoinPool pool, boolean directionOptimizing) {
+        int n = graph.vertexCount();
+        if (reverse.vertexCount() != n || reverse.edgeCount() != graph.edgeCount()) {
+            throw new IllegalArgumentException("reverse does not match the graph");
+        }
+        if (source < 0 || source >= n) throw new IndexOutOfBoundsException("Source " + source + " outside 0.." + (n - 1));
+        return new Search(graph, reverse, pool).run(source, directionOptimizing);
+    }
+
+    private static final class Search {
+        private final int n;
+        private final int[] offsets, targets, inOffsets, inSources;
+        private final ForkJoinPool pool;
+        private final int[] parent, depth;
+        private final AtomicLongArray visited;
+        private int[] frontier, next;
+        private long[] frontierBits, nextBits;
+        private final AtomicInteger nextSize = new AtomicInteger();
+        private final AtomicLong nextDegrees = new AtomicLong(); // m_f of the next frontier
+        private int level;
+
+        Search(CSRGraph graph, CSRGraph reverse, ForkJoinPool pool) {
+            n = graph.vertexCount();
+            offsets = graph.offsets();
+            targets = graph.targets();
+            inOffsets = reverse.offsets();
+            inSources = reverse.targets();
+            this.pool = pool;
+            parent = new int[n];
+            depth = new int[n];
+            Arrays.fill(parent, -1);
+            Arrays.fill(depth, -1);
+            visited = new AtomicLongArray((n + 63) >>> 6);
+        }
+
+        Result run(int source, boolean directionOptimizing) {
+            parent[source] = source;
+            depth[source] = 0;
+            visited.set(source >>> 6, 1L << source);
+            frontier = new int[] { source };
+            next = new int[Math.max(1, n)];
+            int frontierSize = 1;
+            long edgesOut = offsets[source + 1] - offsets[source];     // m_f
+            long edgesUnvisited = offsets[n] - edgesOut;               // m_u
+            boolean bottomUp = false;
+            int topDownLevels = 0, bottomUpLevels = 0;
+
+            while (frontierSize > 0) {
+                if (directionOptimizing && !bottomUp && edgesOut > edgesUnvisited / ALPHA) {
+                    toBits(frontierSize);
+                    bottomUp = true;
+                } else if (bottomUp && frontierSize < n / BETA) {
+                    toQueue();
+                    bottomUp = false;
+                }
+
+                nextSize.set(0);
+                nextDegrees.set(0);
+                if (bottomUp) {
+                    Arrays.fill(nextBits, 0);
+                    pool.invoke(new BottomUpTask(0, n));
+                    long[] swap = frontierBits;
+                    frontierBits = nextBits;
+                    nextBits = swap;
+                    bottomUpLevels++;
+                } else {
+                    pool.invoke(new TopDownTask(0, frontierSize));
+                    int[] swap = frontier;
+                    frontier = next;
+                    next = swap.length == n ? swap : new int[Math.max(1, n)];
+                    topDownLevels++;
+                }
+                frontierSize = nextSize.get();
+                edgesOut = nextDegrees.get();
+                edgesUnvisited -= edgesOut;
+                level++;
+            }
+            return new Result(parent, depth, topDownLevels, bottomUpLevels);
+        }
+
+        // Queue frontier -> bitmap frontier, before the first bottom-up level
+        private void toBits(int frontierSize) {
+            if (frontierBits == null) {
+                frontierBits = new long[(n + 63) >>> 6];
+                nextBits = new long[(n + 63) >>> 6];
+            } else {
+                Arrays.fill(frontierBits, 0);
+            }
+            for (int i = 0; i < frontierSize; i++) frontierBits[frontier[i] >>> 6] |= 1L << frontier[i];
+        }
+
+        // Bitmap frontier -> queue frontier, when switching back to top-down
+        private void toQueue() {
+            if (frontier.length < n) frontier = new int[n];
+            int size = 0;
+            for (int word = 0; word < frontierBits.length; word++) {
+                for (long bits = frontierBits[word]; bits != 0; bits &= bits - 1) {
+                    frontier[size++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+        }
+
+        /*
+          TOP-DOWN LEVEL
+          Splits the frontier queue; each leaf claims targets with a CAS and
+          collects them in a small local buffer that is appended to the next
+          frontier in one block.
+         */
+        private final class TopDownTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int from, to;
+
+            TopDownTask(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > TOP_DOWN_CHUNK) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new TopDownTask(from, mid), new TopDownTask(mid, to));
+                    return;
+                }
+                int[] buffer = new int[LOCAL_BUFFER];
+                int count = 0;
+                long degrees = 0;
+                int nextDepth = level + 1;
+                for (int i = from; i < to; i++) {
+                    int u = frontier[i];
+                    for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                        int v = targets[e];
+                        if (!claim(v)) continue;
+                        parent[v] = u;
+                        depth[v] = nextDepth;
+                        degrees += offsets[v + 1] - offsets[v];
+                        buffer[count++] = v;
+                        if (count == LOCAL_BUFFER) {
+                            flush(buffer, count);
+                            count = 0;
+                        }
+                    }
+                }
+                flush(buffer, count);
+                nextDegrees.addAndGet(degrees);
+            }
+
+            // Sets v's visited bit; true only for the one thread that set it
+            private boolean claim(int v) {
+                int word = v >>> 6;
+                long bit = 1L << v;
+                while (true) {
+                    long old = visited.get(word);
+                    if ((old & bit) != 0) return false;
+                    if (visited.compareAndSet(word, old, old | bit)) return true;
+                }
+            }
+
+            private void flush(int[] buffer, int count) {
+                if (count == 0) return;
+                int at = nextSize.getAndAdd(count);
+                System.arraycopy(buffer, 0, next, at, count);
+            }
+        }
+
+        /*
+          BOTTOM-UP LEVEL
+          Splits the vertex range on 64-vertex word boundaries; each leaf owns
+          its words of visited and nextBits.
+         */
+        private final class BottomUpTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int from, to;
+
+            BottomUpTask(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > BOTTOM_UP_CHUNK) {
+                    int mid = from + ((((to - from) >>> 1) + 63) & ~63); // from stays a multiple of 64
+                    invokeAll(new BottomUpTask(from, mid), new BottomUpTask(mid, to));
+                    return;
+                }
+                int count = 0;
+                long degrees = 0;
+                int nextDepth = level + 1;
+                for (int word = from >>> 6; word << 6 < to; word++) {
+                    long seen = visited.get(word);
+                    if (seen == -1L) continue;
+                    long found = 0;
+                    int base = word << 6, end = Math.min(base + 64, n);
+                    for (int v = base; v < end; v++) {
+                        if ((seen & (1L << v)) != 0) continue;
+                        for (int e = inOffsets[v], stop = inOffsets[v + 1]; e < stop; e++) {
+                            int u = inSources[e];
+                            if ((frontierBits[u >>> 6] & (1L << u)) != 0) {
+                                parent[v] = u;
+                                depth[v] = nextDepth;
+                                found |= 1L << v;
+                                count++;
+                                degrees += offsets[v + 1] - offsets[v];
+                                break;
+                            }
+                        }
+                    }
+                    if (found != 0) {
+                        visited.set(word, seen | found);
+                        nextBits[word] = found;
+                    }
+                }
+                nextSize.addAndGet(count);
+                nextDegrees.addAndGet(degrees);
+            }
+        }
+    }
+
+    // QUICK BENCHMARK: TEPS on R-MAT graphs for 1..cores threads
+    private static int[] sequentialDepths(CSRGraph graph, int source) {
+        int[] offsets = graph.offsets(), targets = graph.targets();
+        int[] depth = new int[graph.vertexCount()];
+        Arrays.fill(depth, -1);
+        int[] queue = new int[graph.vertexCount()];
+        int head = 0, tail = 0;
+        depth[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                if (depth[targets[e]] < 0) {
+                    depth[targets[e]] = depth[u] + 1;
+                    queue[tail++] = targets[e];
+                }
+            }
+        }
+        return depth;
+    }
+
+    // Depths must match a plain BFS and every parent must be a neighbor one level up (undirected graph)
+    private static void verify(CSRGraph graph, int source, Result result, int[] expected) {
+        if (!Arrays.equals(result.depth, expected)) throw new IllegalStateException("Depths differ from sequential BFS");
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            int p = result.parent[v];
+            if (v == source || p < 0) continue;
+            boolean isEdge = false;
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v) && !isEdge; e++) isEdge = graph.target(e) == p;
+            if (!isEdge || result.depth[p] != result.depth[v] - 1) throw new IllegalStateException("Bad parent of " + v);
+        }
+    }
+
+    // Undirected edges inside the component of the source, as graph500 counts them
+    private static long componentEdges(CSRGraph graph, int[] depth) {
+        long edges = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            if (depth[v] >= 0) edges += graph.degree(v);
+        }
+        return edges / 2;
+    }
+
+    private static void benchmark(int scale, int edgeFactor, int searches) {
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        CSRGraph graph = GraphGenerators.rmat(scale, edgeFactor, true, random);
+        System.out.printf("R-MAT scale %d, edge factor %d: %d vertices, %d directed edges (generated in %.0f ms)%n",
+                scale, edgeFactor, graph.vertexCount(), graph.edgeCount(), (System.nanoTime() - start) / 1e6);
+
+        int[] sources = new int[searches];
+        for (int i = 0; i < searches; i++) {
+            do sources[i] = random.nextInt(graph.vertexCount()); while (graph.degree(sources[i]) == 0);
+        }
+        int[][] expected = new int[searches][];
+        long[] edges = new long[searches];
+        long sequentialTime = 0;
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            sequentialTime = 0;
+            for (int i = 0; i < searches; i++) {
+                start = System.nanoTime();
+                expected[i] = sequentialDepths(graph, sources[i]);
+                sequentialTime += System.nanoTime() - start;
+                edges[i] = componentEdges(graph, expected[i]);
+            }
+        }
+        long totalEdges = Arrays.stream(edges).sum();
+        System.out.printf("  %-36s %8.1f M TEPS%n", "sequential queue BFS", totalEdges * 1e3 / sequentialTime);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            for (boolean optimizing : new boolean[] { false, true }) {
+                long time = 0;
+                int bottomUp = 0, levels = 0;
+                for (int round = 0; round < 2; round++) {
+                    time = 0;
+                    bottomUp = 0;
+                    levels = 0;
+                    for (int i = 0; i < searches; i++) {
+                        start = System.nanoTime();
+                        Result result = bfs(graph, graph, sources[i], pool, optimizing);
+                        time += System.nanoTime() - start;
+                        if (round == 0) verify(graph, sources[i], result, expected[i]);
+                        bottomUp += result.bottomUpLevels;
+                        levels += result.topDownLevels + result.bottomUpLevels;
+                    }
+                }
+                System.out.printf("  %2d threads, %-24s %8.1f M TEPS (%d of %d levels bottom-up)%n", threads,
+                        optimizing ? "direction-optimizing" : "top-down only", totalEdges * 1e3 / time, bottomUp, levels);
+            }
+            pool.shutdown();
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        // 0 -> 1 -> 3, 0 -> 2 -> 3 -> 4, and 5 is not reachable
+        CSRGraph graph = new CSRGraph.Builder(6)
+                .addEdge(0, 1).addEdge(0, 2).addEdge(1, 3).addEdge(2, 3).addEdge(3, 4).addEdge(5, 0)
+                .build();
+        Result result = bfs(graph, 0);
+        System.out.println("depth:  " + Arrays.toString(result.depth));
+        System.out.println("parent: " + Arrays.toString(result.parent));
+
+        ArrayDeque<Integer> path = new ArrayDeque<>();
+        for (int v = 4; v != 0; v = result.parent[v]) path.push(v);
+        path.push(0);
+        System.out.println("Path 0 -> 4: " + path);
+
+        // Arguments: R-MAT scale, edge factor, number of searches, e.g. 24 16 16
+        int scale = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int edgeFactor = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int searches = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        benchmark(scale, edgeFactor, searches);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+  Description:
+  --------------------
+  Connected components of a large graph in parallel, with the Afforest
+  algorithm (Sutton, Ben-Nun and Barak), a refinement of Shiloach-Vishkin
+  hooking and pointer jumping.
+
+  Every vertex starts as its own tree in a parent array comp[]. Linking an
+  edge (u, v) hooks the root with the higher id under the lower one with a
+  CAS, so trees stay acyclic without locks, and compressing makes every
+  vertex point straight at its root. Afforest adds two observations:
+  - Linking only the first couple of edges of every vertex already merges
+    almost all of a real graph's giant component.
+  - After that, a small random sample finds the giant component, and every
+    vertex already in it can skip the rest of its edges: linking them could
+    only connect it to itself. On power-law graphs this skips most of E.
+
+  Every root is the smallest vertex of its tree, so in the end
+  componentId[v] is the smallest vertex id in v's component.
+
+  Supports:
+  - components(graph, pool): Result with componentId, count, largest
+    component and a histogram of component sizes
+  - Weakly connected components of a directed graph (undirected = false
+    turns off the skip, which is only valid when every edge is stored in
+    both directions)
+
+  Use Cases:
+  --------------------
+  - Finding the giant component of social and web graphs
+  - Preprocessing for BFS, PageRank and partitioning
+  - Image segmentation on pixel-adjacency graphs
+
+  Time Complexity:
+  --------------------
+  - O(E * alpha) work in practice for linking, O(V) per compression
+  - Afforest usually reads far fewer than E edges on graphs with a giant
+    component
+
+  Space Complexity:
+  --------------------
+  - comp[] (4 bytes per vertex) plus the result
+
+  Approach:
+  --------------------
+  Think of people at a party forming groups by having everyone hold hands
+  with one or two neighbors first. Once most of the room is one big chain,
+  those people stop shaking hands with each other and only the few
+  stragglers still go looking for a group.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public final class ParallelConnectedComponents {
+
+    // Edges per vertex linked before looking for the giant component
+    private static final int NEIGHBOR_ROUNDS = 2;
+    // Vertices sampled to find the giant component
+    private static final int SAMPLES = 1024;
+    // Vertices handled by one leaf task
+    private static final int CHUNK = 1 << 12;
+
+    public static final class Result {
+        public final int[] componentId; // smallest vertex id of the component
+        public final int count;
+
+        Result(int[] componentId, int count) {
+            this.componentId = componentId;
+            this.count = count;
+        }
+
+        // size[c] for every representative c (0 for other vertices)
+        public int[] sizes() {
+            int[] sizes = new int[componentId.length];
+            for (int c : componentId) sizes[c]++;
+            return sizes;
+        }
+
+        public int largestSize() {
+            int largest = 0;
+            for (int size : sizes()) largest = Math.max(largest, size);
+            return largest;
+        }
+
+        // histogram[k] = number of components with 2^k <= size < 2^(k+1)
+        public int[] sizeHistogram() {
+            int[] histogram = new int[32];
+            int top = 0;
+            for (int size : sizes()) {
+                if (size == 0) continue;
+                int k = 31 - Integer.numberOfLeadingZeros(size);
+                histogram[k]++;
+                top = Math.max(top, k + 1);
+            }
+            return Arrays.copyOf(histogram, top);
+        }
+    }
+
+    private ParallelConnectedComponents() {
+    }
+
+    // For an undirected graph stored in both directions
+    public static Result components(CSRGraph graph) {
+        return components(graph, ForkJoinPool.commonPool(), true);
+    }
+
+    public static Result components(CSRGraph graph, ForkJoinPool pool) {
+        return components(graph, pool, true);
+    }
+
+    /*
+      With undirected false the graph may be any directed graph and the
+      result is its weakly connected components: every edge is linked.
+     */
+    public static Result components(CSRGraph graph, ForkJoinPool pool, boolean undirected) {
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets(), targets = graph.targets();
+        AtomicIntegerArray comp = new AtomicIntegerArray(n);
+        pool.invoke(new RangeTask(0, n, (from, to) -> {
+            for (int v = from; v < to; v++) comp.set(v, v);
+        }));
+
+        // Link the first NEIGHBOR_ROUNDS edges of every vertex, one round at a time
+        for (int round = 0; round < NEIGHBOR_ROUNDS; round++) {
+            int r = round;
+            pool.invoke(new RangeTask(0, n, (from, to) -> {
+                for (int u = from; u < to; u++) {
+                    int e = offsets[u] + r;
+                    if (e < offsets[u + 1]) link(comp, u, targets[e]);
+                }
+            }));
+            pool.invoke(new RangeTask(0, n, (from, to) -> compress(comp, from, to)));
+        }
+
+        // Everything in the giant component can skip its remaining edges
+        int giant = undirected ? mostFrequent(comp, n) : -1;
+        pool.invoke(new RangeTask(0, n, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                if (comp.get(u) == giant) continue;
+                for (int e = offsets[u] + NEIGHBOR_ROUNDS, end = offsets[u + 1]; e < end; e++) link(comp, u, targets[e]);
+            }
+        }));
+        pool.invoke(new RangeTask(0, n, (from, to) -> compress(comp, from, to)));
+
+        int[] componentId = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            componentId[v] = comp.get(v);
+            if (componentId[v] == v) count++;
+        }
+        return new Result(componentId, count);
+    }
+
+    // Hooks the larger of the two roots under the smaller one
+    private static void link(AtomicIntegerArray comp, int u, int v) {
+        int p1 = comp.get(u), p2 = comp.get(v);
+        while (p1 != p2) {
+            int high = Math.max(p1, p2), low = Math.min(p1, p2);
+            int parentOfHigh = comp.get(high);
+            if (parentOfHigh == low) return;
+            if (parentOfHigh == high && comp.compareAndSet(high, high, low)) return;
+            // high was not a root (or lost a race): climb one step on both sides and retry
+            p1 = comp.get(comp.get(high));
+            p2 = comp.get(low);
+        }
+    }
+
+    // Pointer jumping: every vertex in [from, to) ends up pointing at its root
+    private static void compress(AtomicIntegerArray comp, int from, int to) {
+        for (int v = from; v < to; v++) {
+            int p = comp.get(v);
+            while (p != comp.get(p)) {
+                p = comp.get(p);
+                comp.set(v, p);
+            }
+        }
+    }
+
+    private static int mostFrequent(AtomicIntegerArray comp, int n) {
+        if (n == 0) return -1;
+        Random random = new Random(n);
+        int[] sample = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) sample[i] = comp.get(random.nextInt(n));
+        Arrays.sort(sample);
+        int best = sample[0], bestRun = 0;
+        for (int i = 0, run = 0; i < SAMPLES; i++) {
+            run = i > 0 && sample[i] == sample[i - 1] ? run + 1 : 1;
+            if (run > bestRun) {
+                bestRun = run;
+                best = sample[i];
+            }
+        }
+        return best;
+    }
+
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+
+    // Runs body over [from, to) in CHUNK-sized leaves
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final RangeBody body;
+
+        RangeTask(int from, int to, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeTask(from, mid, body), new RangeTask(mid, to, body));
+            } else {
+                body.run(from, to);
+            }
+        }
+    }
+
+    // QUICK BENCHMARK: Afforest against sequential BFS components on R-MAT graphs, 1..cores threads
+    private static Result sequentialComponents(CSRGraph graph) {
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets(), targets = graph.targets();
+        int[] componentId = new int[n];
+        Arrays.fill(componentId, -1);
+        int[] queue = new int[n];
+        int count = 0;
+        for (int s = 0; s < n; s++) {
+            if (componentId[s] >= 0) continue;
+            count++;
+            int head = 0, tail = 0;
+            componentId[s] = s; // s is the smallest id of its component, as in Afforest
+            queue[tail++] = s;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (componentId[v] < 0) {
+                        componentId[v] = s;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+        return new Result(componentId, count);
+    }
+
+    private static void benchmark(int scale, int edgeFactor) {
+        long start = System.nanoTime();
+        CSRGraph graph = GraphGenerators.rmat(scale, edgeFactor, true, new Random(42));
+        System.out.printf("R-MAT scale %d, edge factor %d: %d vertices, %d directed edges (generated in %.0f ms)%n",
+                scale, edgeFactor, graph.vertexCount(), graph.edgeCount(), (System.nanoTime() - start) / 1e6);
+
+        Result expected = null;
+        long time = 0;
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            start = System.nanoTime();
+            expected = sequentialComponents(graph);
+            time = System.nanoTime() - start;
+        }
+        System.out.printf("  %-28s %7.0f ms%n", "sequential BFS", time / 1e6);
+        System.out.printf("  %d components, largest %d vertices, size histogram (powers of two) %s%n",
+                expected.count, expected.largestSize(), Arrays.toString(expected.sizeHistogram()));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            // undirected = false links every edge, i.e. Afforest without the giant-component skip
+            for (boolean undirected : new boolean[] { false, true }) {
+                for (int round = 0; round < 2; round++) {
+                    start = System.nanoTime();
+                    Result result = components(graph, pool, undirected);
+                    time = System.nanoTime() - start;
+                    if (!Arrays.equals(result.componentId, expected.componentId) || result.count != expected.count) {
+                        throw new IllegalStateException("Afforest disagrees with BFS");
+                    }
+                }
+                System.out.printf("  %2d threads, %-16s %7.0f ms%n", threads,
+                        undirected ? "Afforest" : "no giant skip", time / 1e6);
+            }
+            pool.shutdown();
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        // {0, 1, 2, 3}, {4, 5} and {6}, stored in both directions
+        CSRGraph.Builder builder = new CSRGraph.Builder(7);
+        int[][] edges = { { 0, 1 }, { 1, 2 }, { 3, 2 }, { 4, 5 } };
+        for (int[] e : edges) builder.addEdge(e[0], e[1]).addEdge(e[1], e[0]);
+        Result result = components(builder.build());
+        System.out.println("componentId: " + Arrays.toString(result.componentId));
+        System.out.println(result.count + " components, largest " + result.largestSize()
+                + ", size histogram " + Arrays.toString(result.sizeHistogram()));
+
+        // A directed graph: 0 -> 1 <- 2 is one weak component
+        CSRGraph directed = new CSRGraph.Builder(4).addEdge(0, 1).addEdge(2, 1).build();
+        System.out.println("Weak components: " + Arrays.toString(components(directed, ForkJoinPool.commonPool(), false).componentId));
+
+        // Arguments: R-MAT scale and edge factor, e.g. 22 12 for about 100M directed edges
+        int scale = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int edgeFactor = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        benchmark(scale, edgeFactor);
+    }
+}
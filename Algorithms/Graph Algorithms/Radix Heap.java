@@ -0,0 +1,286 @@
+/*
+  Description:
+  --------------------
+  A Radix Heap is a priority queue for monotone integer keys: every key that
+  is pushed is at least the last key popped. Dijkstra with non-negative
+  integer weights has exactly this property.
+
+  Instead of comparing keys, entries are grouped by how far they are from the
+  last popped key: bucket i holds the keys whose highest differing bit from
+  `last` is bit i - 1 (bucket 0 holds keys equal to last). When bucket 0 is
+  empty, the first non-empty bucket is emptied into lower buckets around its
+  smallest key. Every entry only ever moves to a lower bucket, so its total
+  work is O(log C) for keys spanning a range of C.
+
+  DialQueue is the even simpler bucket queue for small edge weights (at most
+  maxWeight): a circular array of maxWeight + 1 buckets, one per distance,
+  and a cursor that only moves forward.
+
+  Both keep entries in primitive growable arrays and accept duplicates of an
+  id; Dijkstra skips the stale ones.
+
+  Supports:
+  - push(id, key), peekKey, pop, isEmpty (IntMinQueue)
+
+  Use Cases:
+  --------------------
+  - Dijkstra on road networks and grids with integer weights
+  - Event queues where time never goes backwards
+
+  Time Complexity:
+  --------------------
+  - RadixHeap: push O(1), pop amortized O(log C)
+  - DialQueue: push O(1), pop amortized O(1) plus the cursor's walk over
+    at most maxWeight buckets per distance step
+
+  Space Complexity:
+  --------------------
+  - O(entries) plus 65 buckets (RadixHeap) or maxWeight + 1 buckets (Dial)
+
+  Approach:
+  --------------------
+  Think of sorting mail by how soon it is due: "today", "within 2 days",
+  "within 4 days", "within 8 days"... You only sort a pile in detail when
+  every closer pile is empty, and a letter never moves to a farther pile.
+ */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class RadixHeap implements IntMinQueue {
+
+    private static final int BUCKETS = 65; // bucket 0 plus one per bit of a long
+
+    private final int[][] ids = new int[BUCKETS][];
+    private final long[][] keys = new long[BUCKETS][];
+    private final int[] counts = new int[BUCKETS];
+    private long last; // last popped key; every pushed key must be >= last
+    private int size;
+
+    public RadixHeap() {
+        for (int b = 0; b < BUCKETS; b++) {
+            ids[b] = new int[4];
+            keys[b] = new long[4];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int bucketOf(long key) {
+        return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void append(int bucket, int id, long key) {
+        int count = counts[bucket];
+        if (count == ids[bucket].length) {
+            ids[bucket] = Arrays.copyOf(ids[bucket], count * 2);
+            keys[bucket] = Arrays.copyOf(keys[bucket], count * 2);
+        }
+        ids[bucket][count] = id;
+        keys[bucket][count] = key;
+        counts[bucket] = count + 1;
+    }
+
+    @Override
+    public void push(int id, long key) {
+        if (key < last) throw new IllegalArgumentException("Key " + key + " is below the last popped key " + last);
+        append(bucketOf(key), id, key);
+        size++;
+    }
+
+    // Makes sure bucket 0 holds the smallest keys
+    private void settle() {
+        if (size == 0) throw new NoSuchElementException("Queue is empty");
+        if (counts[0] > 0) return;
+
+        int b = 1;
+        while (counts[b] == 0) b++;
+
+        long[] bucketKeys = keys[b];
+        int[] bucketIds = ids[b];
+        int count = counts[b];
+        long min = bucketKeys[0];
+        for (int i = 1; i < count; i++) min = Math.min(min, bucketKeys[i]);
+
+        // Every key in bucket b now differs from the new last in a lower bit
+        last = min;
+        counts[b] = 0;
+        for (int i = 0; i < count; i++) append(bucketOf(bucketKeys[i]), bucketIds[i], bucketKeys[i]);
+    }
+
+    @Override
+    public long peekKey() {
+        settle();
+        return last;
+    }
+
+    @Override
+    public int pop() {
+        settle();
+        size--;
+        return ids[0][--counts[0]];
+    }
+
+    /*
+      DIAL'S BUCKET QUEUE
+      All queued keys lie in [cursor, cursor + maxWeight], so key % (maxWeight + 1)
+      gives each pending distance its own bucket.
+     */
+    public static final class DialQueue implements IntMinQueue {
+        private final int[][] buckets;
+        private final int[] counts;
+        private final int width;
+        private long cursor; // smallest key that may still be queued
+        private int size;
+
+        public DialQueue(int maxWeight) {
+            if (maxWeight < 0) throw new IllegalArgumentException("Negative max weight: " + maxWeight);
+            width = maxWeight + 1;
+            buckets = new int[width][];
+            counts = new int[width];
+            for (int b = 0; b < width; b++) buckets[b] = new int[4];
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public void push(int id, long key) {
+            if (key < cursor || key - cursor >= width) {
+                throw new IllegalArgumentException("Key " + key + " outside [" + cursor + ", " + (cursor + width - 1) + "]");
+            }
+            int b = (int) (key % width);
+            if (counts[b] == buckets[b].length) buckets[b] = Arrays.copyOf(buckets[b], counts[b] * 2);
+            buckets[b][counts[b]++] = id;
+            size++;
+        }
+
+        private int settle() {
+            if (size == 0) throw new NoSuchElementException("Queue is empty");
+            int b = (int) (cursor % width);
+            while (counts[b] == 0) {
+                cursor++;
+                if (++b == width) b = 0;
+            }
+            return b;
+        }
+
+        @Override
+        public long peekKey() {
+            settle();
+            return cursor;
+        }
+
+        @Override
+        public int pop() {
+            int b = settle();
+            size--;
+            return buckets[b][--counts[b]];
+        }
+    }
+
+    // QUICK BENCHMARK: Dijkstra on grid and road-like graphs
+    private static final int[][] DIRECTIONS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+
+    // side x side grid, 4 neighbours; road-like adds gaps, length-based weights and highways
+    private static int[][] gridGraph(int side, boolean roadLike, int maxWeight, Random random) {
+        int n = side * side;
+        int[] degree = new int[n];
+        int[] from = new int[5 * n], to = new int[5 * n], weight = new int[5 * n];
+        int m = 0;
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                for (int[] d : DIRECTIONS) {
+                    int nx = x + d[0], ny = y + d[1];
+                    if (nx < 0 || ny < 0 || nx >= side || ny >= side) continue;
+                    if (roadLike && random.nextInt(10) == 0) continue; // missing road segment
+                    from[m] = y * side + x;
+                    to[m] = ny * side + nx;
+                    weight[m++] = roadLike ? 10 + random.nextInt(maxWeight / 10) : 1 + random.nextInt(maxWeight);
+                }
+                if (roadLike && random.nextInt(100) == 0) { // highway to a far vertex
+                    from[m] = y * side + x;
+                    to[m] = random.nextInt(n);
+                    weight[m++] = maxWeight / 2 + random.nextInt(maxWeight / 2 + 1);
+                }
+            }
+        }
+        for (int e = 0; e < m; e++) degree[from[e]]++;
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) offsets[v + 1] = offsets[v] + degree[v];
+        int[] fill = Arrays.copyOf(offsets, n), targets = new int[m], weights = new int[m];
+        for (int e = 0; e < m; e++) {
+            int slot = fill[from[e]]++;
+            targets[slot] = to[e];
+            weights[slot] = weight[e];
+        }
+        return new int[][] { offsets, targets, weights };
+    }
+
+    private static void benchmark(String name, int[][] graph, int maxWeight) {
+        int[] offsets = graph[0], targets = graph[1], weights = graph[2];
+        int n = offsets.length - 1;
+        System.out.printf("%s: %d vertices, %d edges, weights <= %d%n", name, n, targets.length, maxWeight);
+
+        long[] expected = null;
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            String[] names = { "Binary heap (IndexedIntHeap, arity 2)", "RadixHeap", "DialQueue" };
+            long[] times = new long[3];
+            for (int q = 0; q < 3; q++) {
+                IntMinQueue queue = q == 0 ? new IndexedIntHeap(n, 2) : q == 1 ? new RadixHeap() : new DialQueue(maxWeight);
+                long start = System.nanoTime();
+                long[] dist = Dijkstra.dijkstra(offsets, targets, weights, 0, queue);
+                times[q] = System.nanoTime() - start;
+                if (expected == null) expected = dist;
+                else if (!Arrays.equals(expected, dist)) throw new IllegalStateException(names[q] + " gave other distances");
+            }
+            if (round == 1) {
+                for (int q = 0; q < 3; q++) System.out.printf("  %-38s %6.0f ms%n", names[q], times[q] / 1e6);
+            }
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        RadixHeap heap = new RadixHeap();
+        heap.push(1, 7);
+        heap.push(2, 3);
+        heap.push(3, 12);
+        heap.push(4, 3);
+        System.out.print("RadixHeap pop order: ");
+        while (!heap.isEmpty()) {
+            long key = heap.peekKey();
+            int id = heap.pop();
+            System.out.print(id + "(" + key + ") ");
+            if (id == 4) heap.push(5, 9); // pushing after a pop is fine as long as key >= 3
+        }
+        System.out.println();
+
+        DialQueue dial = new DialQueue(10);
+        dial.push(1, 4);
+        dial.push(2, 0);
+        dial.push(3, 10);
+        System.out.print("DialQueue pop order: ");
+        while (!dial.isEmpty()) {
+            long key = dial.peekKey();
+            System.out.print(dial.pop() + "(" + key + ") ");
+        }
+        System.out.println();
+
+        // Pass the grid side length as the first argument, e.g. 3000
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Random random = new Random(42);
+        benchmark("Grid", gridGraph(side, false, 10, random), 10);
+        benchmark("Road-like grid", gridGraph(side, true, 1000, random), 1000);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+  Description:
+  --------------------
+  A Disjoint Set Union (Union-Find) that many threads can update at once
+  without locks, in the style of Jayanti and Tarjan's concurrent union-find.
+
+  - parent[] is an AtomicIntegerArray; a root points to itself.
+  - union links one root under the other with a single CAS on the root's
+    slot. If another thread linked that root first, the CAS fails and
+    union retries from the new roots.
+  - Roots are linked by index: the root with the lower priority goes under
+    the other. Priorities are the ids scrambled by a fixed odd multiplier,
+    which acts like a random order and keeps trees shallow without a rank
+    array that would need its own synchronization.
+  - find does path halving: every visited vertex is CAS-ed to point at its
+    grandparent. A failed CAS only means another thread already shortened
+    the path, so it is ignored.
+  - The number of successful unions is kept in a LongAdder, so counting
+    does not become a new point of contention.
+
+  The operations are lock-free: a thread only retries when another
+  thread's CAS succeeded, so the structure as a whole always makes progress.
+
+  Sequential is the single-threaded version: plain int[] arrays, union by
+  rank and the same iterative path halving, so long chains never recurse.
+
+  Supports:
+  - find(x), union(x, y), sameSet(x, y), componentCount()
+
+  Use Cases:
+  --------------------
+  - Parallel Kruskal / Boruvka and parallel connected components
+  - Merging equivalence classes from many worker threads (clustering,
+    image labeling, deduplication)
+
+  Time Complexity:
+  --------------------
+  - Sequential: amortized O(alpha(n)) per operation
+  - Concurrent: expected O(log n) per operation in the worst case
+    (Jayanti-Tarjan), close to O(1) in practice
+
+  Space Complexity:
+  --------------------
+  - O(n): one int per element (plus one byte of rank for Sequential)
+
+  Approach:
+  --------------------
+  Think of clubs that merge by having one president agree to report to
+  another. Anyone can propose a merger at any time, but it only goes
+  through if the president is still in charge at the moment of signing;
+  otherwise you look up the new president and try again.
+ */
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentDisjointSet {
+
+    private final AtomicIntegerArray parent;
+    private final LongAdder unions = new LongAdder();
+
+    public ConcurrentDisjointSet(int size) {
+        parent = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) parent.set(i, i);
+    }
+
+    public int size() {
+        return parent.length();
+    }
+
+    // Fixed pseudo-random order of the ids (multiplying by an odd constant is a bijection)
+    private static int priority(int x) {
+        return x * 0x9E3779B9;
+    }
+
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) return x;
+            int grandparent = parent.get(p);
+            if (grandparent != p) parent.compareAndSet(x, p, grandparent); // path halving
+            x = grandparent;
+        }
+    }
+
+    // true if x and y were in different sets
+    public boolean union(int x, int y) {
+        while (true) {
+            x = find(x);
+            y = find(y);
+            if (x == y) return false;
+            if (priority(x) > priority(y)) {
+                int tmp = x;
+                x = y;
+                y = tmp;
+            }
+            if (parent.compareAndSet(x, x, y)) {
+                unions.increment();
+                return true;
+            }
+        }
+    }
+
+    public boolean sameSet(int x, int y) {
+        while (true) {
+            x = find(x);
+            y = find(y);
+            if (x == y) return true;
+            // Different roots only mean different sets if x was still a root after finding y
+            if (parent.get(x) == x) return false;
+        }
+    }
+
+    // Exact when no union is running
+    public int componentCount() {
+        return (int) (parent.length() - unions.sum());
+    }
+
+    /*
+      SEQUENTIAL VARIANT
+     */
+    public static final class Sequential {
+        private final int[] parent;
+        private final byte[] rank; // rank <= log2(n) < 32
+        private int components;
+
+        public Sequential(int size) {
+            parent = new int[size];
+            rank = new byte[size];
+            for (int i = 0; i < size; i++) parent[i] = i;
+            components = size;
+        }
+
+        public int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]]; // path halving
+                x = parent[x];
+            }
+            return x;
+        }
+
+        public boolean union(int x, int y) {
+            x = find(x);
+            y = find(y);
+            if (x == y) return false;
+            if (rank[x] < rank[y]) {
+                int tmp = x;
+                x = y;
+                y = tmp;
+            }
+            parent[y] = x;
+            if (rank[x] == rank[y]) rank[x]++;
+            components--;
+            return true;
+        }
+
+        public boolean sameSet(int x, int y) {
+            return find(x) == find(y);
+        }
+
+        public int componentCount() {
+            return components;
+        }
+    }
+
+    // QUICK BENCHMARK: concurrent unions against Sequential behind one lock
+    private static final int CHUNK = 1 << 12;
+
+    private interface Unite {
+        void union(int x, int y);
+    }
+
+    // Splits the pair list over the pool's threads
+    private static final class UnionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] xs, ys;
+        private final int from, to;
+        private final Unite unite;
+
+        UnionTask(int[] xs, int[] ys, int from, int to, Unite unite) {
+            this.xs = xs;
+            this.ys = ys;
+            this.from = from;
+            this.to = to;
+            this.unite = unite;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new UnionTask(xs, ys, from, mid, unite), new UnionTask(xs, ys, mid, to, unite));
+                return;
+            }
+            for (int i = from; i < to; i++) unite.union(xs[i], ys[i]);
+        }
+    }
+
+    private static long time(ForkJoinPool pool, int[] xs, int[] ys, Unite unite) {
+        long start = System.nanoTime();
+        pool.invoke(new UnionTask(xs, ys, 0, xs.length, unite));
+        return System.nanoTime() - start;
+    }
+
+    private static void benchmark(int n, int pairs) {
+        Random random = new Random(42);
+        int[] xs = new int[pairs], ys = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            xs[i] = random.nextInt(n);
+            ys[i] = random.nextInt(n);
+        }
+        System.out.printf("%d elements, %d random unions%n", n, pairs);
+
+        Sequential sequential = null;
+        long sequentialTime = 0;
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            sequential = new Sequential(n);
+            long start = System.nanoTime();
+            for (int i = 0; i < pairs; i++) sequential.union(xs[i], ys[i]);
+            sequentialTime = System.nanoTime() - start;
+        }
+        System.out.printf("  %-34s %7.0f ms  (%d components)%n", "Sequential, 1 thread", sequentialTime / 1e6,
+                sequential.componentCount());
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long lockedTime = 0, lockFreeTime = 0;
+            for (int round = 0; round < 2; round++) {
+                Sequential locked = new Sequential(n);
+                lockedTime = time(pool, xs, ys, (x, y) -> {
+                    synchronized (locked) {
+                        locked.union(x, y);
+                    }
+                });
+                ConcurrentDisjointSet lockFree = new ConcurrentDisjointSet(n);
+                lockFreeTime = time(pool, xs, ys, lockFree::union);
+
+                if (lockFree.componentCount() != sequential.componentCount()) throw new IllegalStateException("Wrong count");
+                for (int i = 0; i < n; i += 97) {
+                    int j = random.nextInt(n);
+                    if (lockFree.sameSet(i, j) != sequential.sameSet(i, j)) throw new IllegalStateException("Wrong sets");
+                }
+            }
+            System.out.printf("  %2d threads, %-23s %7.0f ms%n", threads, "synchronized Sequential", lockedTime / 1e6);
+            System.out.printf("  %2d threads, %-23s %7.0f ms%n", threads, "ConcurrentDisjointSet", lockFreeTime / 1e6);
+            pool.shutdown();
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentDisjointSet sets = new ConcurrentDisjointSet(8);
+        Thread a = new Thread(() -> {
+            sets.union(0, 1);
+            sets.union(1, 2);
+        });
+        Thread b = new Thread(() -> {
+            sets.union(4, 5);
+            sets.union(2, 3);
+        });
+        a.start();
+        b.start();
+        a.join();
+        b.join();
+        System.out.println("0 and 3 together: " + sets.sameSet(0, 3));
+        System.out.println("3 and 4 together: " + sets.sameSet(3, 4));
+        System.out.println("Components: " + sets.componentCount()); // {0,1,2,3} {4,5} {6} {7}
+
+        // A chain of a million unions, each linking the previous root: no recursion anywhere
+        Sequential chain = new Sequential(1_000_000);
+        for (int i = 1; i < 1_000_000; i++) chain.union(i - 1, i);
+        System.out.println("Chain components: " + chain.componentCount());
+
+        // Arguments: elements and unions, e.g. 10000000 20000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 8_000_000;
+        benchmark(n, pairs);
+    }
+}
@@ -52,10 +52,11 @@ class DisjointSet {
     }
 
     int find(int x) {
-        if (parent[x] != x) {
-            parent[x] = find(parent[x]); // path compression
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]]; // path halving, no recursion on long chains
+            x = parent[x];
         }
-        return parent[x];
+        return x;
     }
 
     void union(int x, int y) {
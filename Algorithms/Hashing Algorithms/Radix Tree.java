@@ -0,0 +1,659 @@
+/*
+  Description:
+  --------------------
+  A Radix Tree (adaptive radix tree, a compressed trie) maps byte-string keys
+  to values. Each node stands for a key prefix:
+
+  - Path compression: a chain of single-child nodes is stored as one node
+    with a prefix byte[], so a key of length L needs far fewer than L hops.
+  - Adaptive nodes: the children of a node are indexed by the next key byte,
+    and the node picks its layout by how many children it has:
+      Node4 / Node16  sorted key bytes packed in two longs + child array
+      Node48          256-entry byte index into 48 child slots
+      Node256         direct 256-entry child array
+    Nodes grow and shrink between these layouts as children come and go.
+
+  Keys are compared as unsigned bytes. String keys are encoded as UTF-8,
+  so iteration order is Unicode code point order.
+
+  Unlike a hash map, a radix tree can answer prefix questions:
+  longestPrefixMatch finds the longest stored key that is a prefix of the
+  query (routing tables), and forEachWithPrefix visits every key starting
+  with a prefix in sorted order (autocomplete).
+
+  Supports:
+  - put, get, remove for byte[] and String keys
+  - Longest-prefix match
+  - Ordered iteration over all keys with a given prefix
+
+  Use Cases:
+  --------------------
+  - URL routing and HTTP path matching
+  - Autocomplete and prefix search
+  - IP routing tables (longest-prefix match on address bytes)
+
+  Time Complexity:
+  --------------------
+  - put / get / remove: O(L) for a key of length L, independent of n
+  - Longest-prefix match: O(L)
+  - Prefix iteration: O(P + output size)
+
+  Space Complexity:
+  --------------------
+  - O(n) nodes; shared prefixes are stored only once
+
+  Approach:
+  --------------------
+  Think of a street directory: "https://shop.example.com/" is written once
+  on a signpost, and from there each next letter points down a different
+  road. A signpost with only a few roads is a small list, a busy crossroads
+  has one slot for every possible letter.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+public class RadixTree<V> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private Node<V> root;
+    private int size;
+    private V removed; // value found by the last remove
+
+    public int size() {
+        return size;
+    }
+
+    // BASIC OPERATIONS
+
+    public V get(byte[] key) {
+        Node<V> node = root;
+        int depth = 0;
+        while (node != null) {
+            if (!prefixMatches(node.prefix, key, depth)) return null;
+            depth += node.prefix.length;
+            if (depth == key.length) return node.value;
+            node = node.find(key[depth++] & 0xFF);
+        }
+        return null;
+    }
+
+    public V get(String key) {
+        return get(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void put(byte[] key, V value) {
+        if (value == null) throw new IllegalArgumentException("Null values are not supported");
+        root = put(root, key, 0, value);
+    }
+
+    public void put(String key, V value) {
+        put(key.getBytes(StandardCharsets.UTF_8), value);
+    }
+
+    // Returns the node that should take this node's place (it may have grown or split)
+    private Node<V> put(Node<V> node, byte[] key, int depth, V value) {
+        if (node == null) {
+            size++;
+            return leaf(key, depth, value);
+        }
+
+        byte[] prefix = node.prefix;
+        int m = mismatch(prefix, key, depth);
+        if (m < prefix.length) {
+            // Split: a new parent keeps the shared part of the prefix
+            Node<V> parent = new SortedNode<>(4);
+            parent.prefix = Arrays.copyOf(prefix, m);
+            node.prefix = Arrays.copyOfRange(prefix, m + 1, prefix.length);
+            parent.add(prefix[m] & 0xFF, node);
+
+            if (depth + m == key.length) parent.value = value;
+            else parent.add(key[depth + m] & 0xFF, leaf(key, depth + m + 1, value));
+            size++;
+            return parent;
+        }
+
+        depth += prefix.length;
+        if (depth == key.length) {
+            if (node.value == null) size++;
+            node.value = value;
+            return node;
+        }
+
+        int b = key[depth] & 0xFF;
+        Node<V> child = node.find(b);
+        if (child == null) return node.add(b, put(null, key, depth + 1, value));
+
+        Node<V> updated = put(child, key, depth + 1, value);
+        if (updated != child) node.replace(b, updated);
+        return node;
+    }
+
+    // Removes the key and returns its value, or null if it was not there
+    public V remove(byte[] key) {
+        removed = null;
+        root = remove(root, key, 0);
+        V value = removed;
+        removed = null;
+        return value;
+    }
+
+    public V remove(String key) {
+        return remove(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Node<V> remove(Node<V> node, byte[] key, int depth) {
+        if (node == null || !prefixMatches(node.prefix, key, depth)) return node;
+        depth += node.prefix.length;
+
+        if (depth == key.length) {
+            if (node.value == null) return node;
+            removed = node.value;
+            node.value = null;
+            size--;
+            return collapse(node);
+        }
+
+        int b = key[depth] & 0xFF;
+        Node<V> child = node.find(b);
+        if (child == null) return node;
+
+        Node<V> updated = remove(child, key, depth + 1);
+        if (updated == child) return node;
+        if (updated != null) {
+            node.replace(b, updated);
+            return node;
+        }
+        return collapse(node.remove(b));
+    }
+
+    // A node without a value needs at least two children; otherwise merge it away
+    private static <V> Node<V> collapse(Node<V> node) {
+        if (node.value != null || node.count > 1) return node;
+        if (node.count == 0) return null;
+
+        int b = node.nextKey(0);
+        Node<V> child = node.find(b);
+        byte[] merged = new byte[node.prefix.length + 1 + child.prefix.length];
+        System.arraycopy(node.prefix, 0, merged, 0, node.prefix.length);
+        merged[node.prefix.length] = (byte) b;
+        System.arraycopy(child.prefix, 0, merged, node.prefix.length + 1, child.prefix.length);
+        child.prefix = merged;
+        return child;
+    }
+
+    // PREFIX QUERIES
+
+    // Value of the longest stored key that is a prefix of key, or null
+    public V longestPrefixMatch(byte[] key) {
+        Node<V> node = root;
+        int depth = 0;
+        V best = null;
+        while (node != null) {
+            if (depth + node.prefix.length > key.length || !prefixMatches(node.prefix, key, depth)) break;
+            depth += node.prefix.length;
+            if (node.value != null) best = node.value;
+            if (depth == key.length) break;
+            node = node.find(key[depth++] & 0xFF);
+        }
+        return best;
+    }
+
+    public V longestPrefixMatch(String key) {
+        return longestPrefixMatch(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Visits every key that starts with prefix, in sorted (unsigned byte) order
+    public void forEachWithPrefix(byte[] prefix, BiConsumer<byte[], V> action) {
+        Node<V> node = root;
+        int depth = 0;
+        while (node != null) {
+            int compared = Math.min(node.prefix.length, prefix.length - depth);
+            for (int i = 0; i < compared; i++) {
+                if (node.prefix[i] != prefix[depth + i]) return;
+            }
+            if (depth + node.prefix.length >= prefix.length) {
+                // The query prefix ends inside this node: everything below matches
+                PrefixWalker<V> walker = new PrefixWalker<>(action, depth + node.prefix.length + 16);
+                System.arraycopy(prefix, 0, walker.path, 0, depth);
+                System.arraycopy(node.prefix, 0, walker.path, depth, node.prefix.length);
+                walker.walk(node, depth + node.prefix.length);
+                return;
+            }
+            depth += node.prefix.length;
+            node = node.find(prefix[depth++] & 0xFF);
+        }
+    }
+
+    public void forEachWithPrefix(String prefix, BiConsumer<String, V> action) {
+        forEachWithPrefix(prefix.getBytes(StandardCharsets.UTF_8),
+                (key, value) -> action.accept(new String(key, StandardCharsets.UTF_8), value));
+    }
+
+    // Depth-first walk that rebuilds each key in one growing buffer
+    private static final class PrefixWalker<V> {
+        private final BiConsumer<byte[], V> action;
+        private byte[] path;
+
+        PrefixWalker(BiConsumer<byte[], V> action, int capacity) {
+            this.action = action;
+            this.path = new byte[capacity];
+        }
+
+        void walk(Node<V> node, int length) {
+            if (node.value != null) action.accept(Arrays.copyOf(path, length), node.value);
+            for (int b = node.nextKey(0); b >= 0; b = node.nextKey(b + 1)) {
+                Node<V> child = node.find(b);
+                int end = length + 1 + child.prefix.length;
+                if (end > path.length) path = Arrays.copyOf(path, Math.max(end, 2 * path.length));
+                path[length] = (byte) b;
+                System.arraycopy(child.prefix, 0, path, length + 1, child.prefix.length);
+                walk(child, end);
+            }
+        }
+    }
+
+    // HELPERS
+
+    private static <V> Node<V> leaf(byte[] key, int from, V value) {
+        Node<V> leaf = new SortedNode<>(4);
+        leaf.prefix = from == key.length ? EMPTY : Arrays.copyOfRange(key, from, key.length);
+        leaf.value = value;
+        return leaf;
+    }
+
+    // Length of the common part of prefix and key[depth..]
+    private static int mismatch(byte[] prefix, byte[] key, int depth) {
+        int limit = Math.min(prefix.length, key.length - depth);
+        int i = 0;
+        while (i < limit && prefix[i] == key[depth + i]) i++;
+        return i;
+    }
+
+    private static boolean prefixMatches(byte[] prefix, byte[] key, int depth) {
+        return depth + prefix.length <= key.length && mismatch(prefix, key, depth) == prefix.length;
+    }
+
+    // Approximate heap footprint of all nodes (16-byte headers, 4-byte references)
+    public long sizeInBytes() {
+        return root == null ? 16 : bytesBelow(root);
+    }
+
+    private static <V> long bytesBelow(Node<V> node) {
+        long bytes = node.bytesInMemory() + align(16 + node.prefix.length);
+        for (int b = node.nextKey(0); b >= 0; b = node.nextKey(b + 1)) bytes += bytesBelow(node.find(b));
+        return bytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /*
+      NODES
+      Child lookups take the next key byte as an int in 0..255. add and
+      remove return the node to keep, which may have a different layout.
+     */
+    private abstract static class Node<V> {
+        byte[] prefix;
+        V value;
+        int count; // number of children
+
+        abstract Node<V> find(int b);
+
+        abstract Node<V> add(int b, Node<V> child);
+
+        abstract void replace(int b, Node<V> child);
+
+        abstract Node<V> remove(int b);
+
+        abstract int nextKey(int from); // smallest child byte >= from, or -1
+
+        abstract long bytesInMemory();
+
+        <N extends Node<V>> N copyHeader(N other) {
+            other.prefix = prefix;
+            other.value = value;
+            return other;
+        }
+
+        // Java cannot create a Node<V>[] directly, so every child array comes from here
+        @SuppressWarnings("unchecked")
+        static <V> Node<V>[] children(int n) {
+            return (Node<V>[]) new Node<?>[n];
+        }
+    }
+
+    /*
+      Node4 and Node16: up to 16 sorted key bytes packed into two longs, so a
+      lookup needs no extra array. The byte is found with a SWAR zero-byte
+      test on all 8 bytes of a word at once. Leaves never allocate children.
+     */
+    private static final class SortedNode<V> extends Node<V> {
+        private static final long ONES = 0x0101010101010101L, HIGHS = 0x8080808080808080L;
+
+        final int capacity;
+        long keysLo, keysHi; // key i is byte (i % 8) of keysLo (i < 8) or keysHi
+        Node<V>[] children;
+
+        SortedNode(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private int keyAt(int i) {
+            long word = i < 8 ? keysLo : keysHi;
+            return (int) (word >>> ((i & 7) << 3)) & 0xFF;
+        }
+
+        private void setKey(int i, int b) {
+            int shift = (i & 7) << 3;
+            if (i < 8) keysLo = keysLo & ~(0xFFL << shift) | (long) b << shift;
+            else keysHi = keysHi & ~(0xFFL << shift) | (long) b << shift;
+        }
+
+        // Position of b among the first valid bytes of word, or -1
+        private static int match(long word, int b, int valid) {
+            long x = word ^ ONES * b;
+            long found = (x - ONES) & ~x & HIGHS; // lowest set bit marks the first zero byte
+            if (valid < 8) found &= (1L << (valid << 3)) - 1;
+            return found == 0 ? -1 : Long.numberOfTrailingZeros(found) >>> 3;
+        }
+
+        private int indexOf(int b) {
+            int i = match(keysLo, b, Math.min(count, 8));
+            if (i >= 0 || count <= 8) return i;
+            int j = match(keysHi, b, count - 8);
+            return j < 0 ? -1 : j + 8;
+        }
+
+        @Override
+        Node<V> find(int b) {
+            int i = indexOf(b);
+            return i < 0 ? null : children[i];
+        }
+
+        @Override
+        Node<V> add(int b, Node<V> child) {
+            if (count == capacity) {
+                Node<V> bigger = capacity == 4 ? copyHeader(new SortedNode<V>(16)) : copyHeader(new Node48<V>());
+                for (int i = 0; i < count; i++) bigger.add(keyAt(i), children[i]);
+                return bigger.add(b, child);
+            }
+            if (children == null) children = children(capacity);
+            int i = count;
+            while (i > 0 && keyAt(i - 1) > b) {
+                setKey(i, keyAt(i - 1));
+                children[i] = children[i - 1];
+                i--;
+            }
+            setKey(i, b);
+            children[i] = child;
+            count++;
+            return this;
+        }
+
+        @Override
+        void replace(int b, Node<V> child) {
+            children[indexOf(b)] = child;
+        }
+
+        @Override
+        Node<V> remove(int b) {
+            for (int i = indexOf(b); i < count - 1; i++) {
+                setKey(i, keyAt(i + 1));
+                children[i] = children[i + 1];
+            }
+            children[--count] = null;
+
+            if (capacity == 16 && count <= 3) {
+                SortedNode<V> smaller = copyHeader(new SortedNode<V>(4));
+                for (int k = 0; k < count; k++) smaller.add(keyAt(k), children[k]);
+                return smaller;
+            }
+            return this;
+        }
+
+        @Override
+        int nextKey(int from) {
+            for (int i = 0; i < count; i++) {
+                if (keyAt(i) >= from) return keyAt(i);
+            }
+            return -1;
+        }
+
+        @Override
+        long bytesInMemory() {
+            return 48 + (children == null ? 0 : align(16 + 4L * capacity));
+        }
+    }
+
+    // Node48: index[b] is 1 + the slot of child b, 0 if there is none
+    private static final class Node48<V> extends Node<V> {
+        final byte[] index = new byte[256];
+        final Node<V>[] children = children(48);
+
+        @Override
+        Node<V> find(int b) {
+            int slot = index[b];
+            return slot == 0 ? null : children[slot - 1];
+        }
+
+        @Override
+        Node<V> add(int b, Node<V> child) {
+            if (count == 48) {
+                Node256<V> bigger = copyHeader(new Node256<V>());
+                for (int k = 0; k < 256; k++) {
+                    if (index[k] != 0) bigger.add(k, children[index[k] - 1]);
+                }
+                return bigger.add(b, child);
+            }
+            int slot = 0;
+            while (children[slot] != null) slot++;
+            children[slot] = child;
+            index[b] = (byte) (slot + 1);
+            count++;
+            return this;
+        }
+
+        @Override
+        void replace(int b, Node<V> child) {
+            children[index[b] - 1] = child;
+        }
+
+        @Override
+        Node<V> remove(int b) {
+            children[index[b] - 1] = null;
+            index[b] = 0;
+            count--;
+
+            if (count <= 12) {
+                SortedNode<V> smaller = copyHeader(new SortedNode<V>(16));
+                for (int k = 0; k < 256; k++) {
+                    if (index[k] != 0) smaller.add(k, children[index[k] - 1]);
+                }
+                return smaller;
+            }
+            return this;
+        }
+
+        @Override
+        int nextKey(int from) {
+            for (int k = from; k < 256; k++) {
+                if (index[k] != 0) return k;
+            }
+            return -1;
+        }
+
+        @Override
+        long bytesInMemory() {
+            return 32 + (16 + 256) + (16 + 4 * 48);
+        }
+    }
+
+    private static final class Node256<V> extends Node<V> {
+        final Node<V>[] children = children(256);
+
+        @Override
+        Node<V> find(int b) {
+            return children[b];
+        }
+
+        @Override
+        Node<V> add(int b, Node<V> child) {
+            children[b] = child;
+            count++;
+            return this;
+        }
+
+        @Override
+        void replace(int b, Node<V> child) {
+            children[b] = child;
+        }
+
+        @Override
+        Node<V> remove(int b) {
+            children[b] = null;
+            count--;
+
+            if (count <= 36) {
+                Node48<V> smaller = copyHeader(new Node48<V>());
+                for (int k = 0; k < 256; k++) {
+                    if (children[k] != null) smaller.add(k, children[k]);
+                }
+                return smaller;
+            }
+            return this;
+        }
+
+        @Override
+        int nextKey(int from) {
+            for (int k = from; k < 256; k++) {
+                if (children[k] != null) return k;
+            }
+            return -1;
+        }
+
+        @Override
+        long bytesInMemory() {
+            return 32 + 16 + 4 * 256;
+        }
+    }
+
+    // QUICK BENCHMARK on synthetic URLs against CustomHashMap and TreeMap
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static List<String> urls(int n, Random random) {
+        String[] hosts = { "www.example.com", "shop.example.com", "api.example.com", "docs.example.org",
+                "blog.example.net", "cdn.example.io", "mail.example.com", "news.example.org" };
+        String[] words = { "users", "orders", "items", "search", "static", "images", "v1", "v2", "cart",
+                "account", "settings", "products", "reviews", "tags", "archive", "2024", "2025" };
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            StringBuilder url = new StringBuilder("https://").append(hosts[random.nextInt(hosts.length)]);
+            for (int depth = 1 + random.nextInt(3); depth > 0; depth--) {
+                url.append('/').append(words[random.nextInt(words.length)]);
+            }
+            url.append('/').append(i); // make every URL unique
+            list.add(url.toString());
+        }
+        return list;
+    }
+
+    private static void benchmark(int n) {
+        List<String> keys = urls(n, new Random(42));
+        List<String> lookups = new ArrayList<>(keys);
+        Collections.shuffle(lookups, new Random(7));
+        byte[][] encoded = new byte[n][];
+        for (int i = 0; i < n; i++) encoded[i] = lookups.get(i).getBytes(StandardCharsets.UTF_8);
+
+        long before = usedMemory();
+        RadixTree<Integer> radix = new RadixTree<>();
+        for (int i = 0; i < n; i++) radix.put(keys.get(i), i);
+        long radixBytes = usedMemory() - before;
+
+        before = usedMemory();
+        CustomHashMap<String, Integer> hashMap = new CustomHashMap<>(n);
+        for (int i = 0; i < n; i++) hashMap.put(keys.get(i), i);
+        long hashBytes = usedMemory() - before;
+
+        before = usedMemory();
+        TreeMap<String, Integer> treeMap = new TreeMap<>();
+        for (int i = 0; i < n; i++) treeMap.put(keys.get(i), i);
+        long treeBytes = usedMemory() - before;
+
+        System.out.printf("%d URLs (the key Strings themselves take about %.1f MB):%n", n,
+                keys.stream().mapToLong(k -> 40 + align(16 + k.length())).sum() / 1e6);
+        System.out.printf("  Memory: RadixTree %.1f MB (holds its own key bytes), CustomHashMap %.1f MB,"
+                + " TreeMap %.1f MB (both share the caller's Strings)%n", radixBytes / 1e6, hashBytes / 1e6, treeBytes / 1e6);
+
+        long checksum = 0;
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            long start = System.nanoTime();
+            for (byte[] key : encoded) checksum += radix.get(key);
+            long radixTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String key : lookups) checksum += radix.get(key);
+            long radixStringTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String key : lookups) checksum -= hashMap.get(key);
+            long hashTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String key : lookups) checksum -= treeMap.get(key);
+            long treeTime = System.nanoTime() - start;
+
+            if (round == 1) {
+                System.out.printf("  Lookups: RadixTree %.2f M/s (byte[]), %.2f M/s (String), CustomHashMap %.2f M/s,"
+                                + " TreeMap %.2f M/s (checksum %d)%n", n * 1e3 / radixTime, n * 1e3 / radixStringTime,
+                        n * 1e3 / hashTime, n * 1e3 / treeTime, checksum);
+            }
+        }
+
+        int[] matches = new int[1];
+        long start = System.nanoTime();
+        radix.forEachWithPrefix("https://shop.example.com/cart/", (key, value) -> matches[0]++);
+        System.out.printf("  Prefix scan: %d keys under https://shop.example.com/cart/ in %.1f ms%n",
+                matches[0], (System.nanoTime() - start) / 1e6);
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        RadixTree<String> routes = new RadixTree<>();
+        routes.put("/", "home");
+        routes.put("/api/", "api root");
+        routes.put("/api/users", "list users");
+        routes.put("/api/users/admin", "admin user");
+        routes.put("/api/orders", "list orders");
+        routes.put("/static/", "static files");
+
+        System.out.println("get(/api/users): " + routes.get("/api/users"));
+        System.out.println("Route for /api/users/42: " + routes.longestPrefixMatch("/api/users/42"));
+        System.out.println("Route for /static/css/site.css: " + routes.longestPrefixMatch("/static/css/site.css"));
+        System.out.println("Route for /about: " + routes.longestPrefixMatch("/about"));
+
+        System.out.print("Keys starting with /api/: ");
+        routes.forEachWithPrefix("/api/", (key, value) -> System.out.print(key + " "));
+        System.out.println();
+
+        routes.remove("/api/users");
+        System.out.println("After remove, get(/api/users): " + routes.get("/api/users")
+                + ", get(/api/users/admin): " + routes.get("/api/users/admin"));
+
+        // Pass the number of URLs as the first argument, e.g. 5000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        benchmark(n);
+    }
+}
@@ -0,0 +1,261 @@
+/*
+  Description:
+  --------------------
+  An Eytzinger Index stores a sorted array in breadth-first (heap) order:
+  the middle element goes to slot 1, the middles of the two halves to slots
+  2 and 3, and so on, so the children of slot k are 2k and 2k + 1. A search
+  then walks down with k = 2k + (t[k] < x), with no branch to mispredict.
+  The first levels of the tree share a few cache lines that stay hot, and
+  the 16 nodes four levels below any node sit next to each other in memory.
+  Java has no prefetch instruction, so every step also issues a plain load of
+  that 16-node group; the CPU starts fetching it while the current compare
+  is still running, which hides most of the memory latency on big arrays.
+
+  STree is the B-tree-like variant: every node is a block of 16 sorted keys
+  (one 64-byte cache line) with 17 implicit children. The key count inside a
+  block is a fixed-length compare-and-add loop that the JIT can vectorize,
+  and a search touches only log17(n) cache lines instead of log2(n).
+
+  Both answer lowerBound (first element >= x) and upperBound (first element
+  > x) as indices into the original sorted array.
+
+  Supports:
+  - lowerBound, upperBound, contains
+  - Eytzinger (binary) layout and STree (16-key block) layout
+
+  Use Cases:
+  --------------------
+  - Huge static lookup tables that are searched far more often than built
+  - Mapping values to buckets / ranges (upper bound on split points)
+  - Replacing Arrays.binarySearch when the array no longer fits in cache
+
+  Time Complexity:
+  --------------------
+  - Build: O(n)
+  - Search: O(log n) comparisons; about log2(n) / 4 cache misses on the
+    critical path for Eytzinger thanks to the look-ahead loads, log17(n)
+    for STree
+
+  Space Complexity:
+  --------------------
+  - Keys in search order plus their original positions: 8 bytes per element
+    (the sorted input array is kept, not copied)
+
+  Approach:
+  --------------------
+  Think of a guessing game where the hints are printed in the order you will
+  need them: first hint on page 1, the two possible second hints on pages 2
+  and 3, and so on. You never flip back and forth through the book, you just
+  keep turning forward to page 2k or 2k + 1.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class EytzingerIndex {
+
+    private final int[] sorted;
+    private final int n;
+    private final int[] keys;  // 1-based, slot 0 unused
+    private final int[] ranks; // position of keys[k] in the sorted array
+    private int next;          // build cursor
+    private int prefetchSink;  // keeps the look-ahead loads from being optimized away
+
+    public EytzingerIndex(int[] sorted) {
+        // 2k + 1 must stay a valid int for every slot k <= n
+        if (sorted.length >= 1 << 30) throw new IllegalArgumentException("At most 2^30 - 1 elements: " + sorted.length);
+        checkSorted(sorted);
+        this.sorted = sorted;
+        this.n = sorted.length;
+        keys = new int[n + 1];
+        ranks = new int[n + 1];
+        build(1);
+    }
+
+    // In-order walk of the implicit tree hands out the sorted values in order
+    private void build(int k) {
+        if (k > n) return;
+        build(2 * k);
+        keys[k] = sorted[next];
+        ranks[k] = next++;
+        build(2 * k + 1);
+    }
+
+    private static void checkSorted(int[] arr) {
+        for (int i = 1; i < arr.length; i++) {
+            if (arr[i - 1] > arr[i]) throw new IllegalArgumentException("Array is not sorted at index " + i);
+        }
+    }
+
+    // Slot of the first key >= x (or > x when strict is false), 0 if there is none
+    private int descend(int x, boolean strict) {
+        int k = 1, touched = 0;
+        while (k <= n) {
+            // Load the node four levels down now, so it is in cache when we get there
+            // (clamped before shifting: k << 4 overflows once k >= 2^27)
+            touched ^= keys[k < (n >>> 4) ? k << 4 : n];
+            k = 2 * k + ((strict ? keys[k] < x : keys[k] <= x) ? 1 : 0);
+        }
+        prefetchSink = touched;
+        // The last left turn is where the answer is: drop the trailing right turns and that turn
+        return k >> Integer.numberOfTrailingZeros(~k) + 1;
+    }
+
+    // Index of the first element >= x, or n if there is none
+    public int lowerBound(int x) {
+        int k = descend(x, true);
+        return k == 0 ? n : ranks[k];
+    }
+
+    // Index of the first element > x, or n if there is none
+    public int upperBound(int x) {
+        int k = descend(x, false);
+        return k == 0 ? n : ranks[k];
+    }
+
+    public boolean contains(int x) {
+        int k = descend(x, true);
+        return k != 0 && keys[k] == x;
+    }
+
+    /*
+      S-TREE
+      Static B-tree with 16 keys per block. Block b holds keys[16b .. 16b + 15]
+      and its children are blocks 17b + 1 .. 17b + 17. Slots past the end are
+      padded with Integer.MAX_VALUE; padding comes after every real key in
+      sorted order, so it can never hide a real answer.
+     */
+    public static final class STree {
+        private static final int B = 16;
+
+        private final int[] sorted;
+        private final int n;
+        private final int blocks;
+        private final int[] keys;
+        private final int[] ranks;
+        private int next;
+
+        public STree(int[] sorted) {
+            // Rounding up to whole blocks must not overflow n + B - 1 or blocks * B
+            if (sorted.length >= 1 << 30) throw new IllegalArgumentException("At most 2^30 - 1 elements: " + sorted.length);
+            checkSorted(sorted);
+            this.sorted = sorted;
+            this.n = sorted.length;
+            blocks = (n + B - 1) / B;
+            keys = new int[blocks * B];
+            ranks = new int[blocks * B];
+            build(0);
+        }
+
+        // Past-the-end children are clamped to blocks, so block * 17 cannot overflow into a negative index
+        private int child(int block, int i) {
+            return (int) Math.min((long) block * (B + 1) + i + 1, blocks);
+        }
+
+        private void build(int block) {
+            if (block >= blocks) return;
+            for (int i = 0; i < B; i++) {
+                build(child(block, i));
+                int slot = block * B + i;
+                if (next < n) {
+                    keys[slot] = sorted[next];
+                    ranks[slot] = next++;
+                } else {
+                    keys[slot] = Integer.MAX_VALUE;
+                    ranks[slot] = n;
+                }
+            }
+            build(child(block, B));
+        }
+
+        // Slot of the first key >= x (or > x when strict is false), -1 if there is none
+        private int descend(int x, boolean strict) {
+            int block = 0, slot = -1;
+            while (block < blocks) {
+                int base = block * B, i = 0;
+                for (int j = 0; j < B; j++) i += (strict ? keys[base + j] < x : keys[base + j] <= x) ? 1 : 0;
+                if (i < B) slot = base + i;
+                block = child(block, i);
+            }
+            return slot;
+        }
+
+        public int lowerBound(int x) {
+            int slot = descend(x, true);
+            return slot < 0 ? n : ranks[slot];
+        }
+
+        public int upperBound(int x) {
+            int slot = descend(x, false);
+            return slot < 0 ? n : ranks[slot];
+        }
+
+        public boolean contains(int x) {
+            int slot = descend(x, true);
+            return slot >= 0 && keys[slot] == x && ranks[slot] < n;
+        }
+    }
+
+    // QUICK BENCHMARK: lookups per second from L1-sized to DRAM-sized arrays
+    private static void benchmark(int maxSize, int queries) {
+        Random random = new Random(42);
+        int[] sizes = { 1 << 12, 1 << 16, 1 << 20, maxSize }; // ~16 KB, 256 KB, 4 MB, DRAM
+        System.out.printf("%-10s %14s %18s %12s %12s (M lookups/s)%n",
+                "n", "BinarySearch", "Arrays.binarySearch", "Eytzinger", "STree");
+
+        for (int n : sizes) {
+            int[] arr = new int[n];
+            for (int i = 0, v = 0; i < n; i++) arr[i] = v += 1 + random.nextInt(4); // distinct, sorted
+            int[] targets = new int[queries];
+            for (int i = 0; i < queries; i++) targets[i] = random.nextInt(arr[n - 1] + 1);
+
+            EytzingerIndex eytzinger = new EytzingerIndex(arr);
+            STree stree = new STree(arr);
+            long[] checks = new long[4];
+
+            for (int round = 0; round < 2; round++) { // first round warms up the JIT
+                long start = System.nanoTime();
+                for (int t : targets) checks[0] += BinarySearch.binarySearch(arr, t) >= 0 ? 1 : 0;
+                long binaryTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int t : targets) checks[1] += Arrays.binarySearch(arr, t) >= 0 ? 1 : 0;
+                long arraysTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int t : targets) checks[2] += eytzinger.contains(t) ? 1 : 0;
+                long eytzingerTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int t : targets) checks[3] += stree.contains(t) ? 1 : 0;
+                long streeTime = System.nanoTime() - start;
+
+                if (round == 1) {
+                    System.out.printf("%-10d %14.1f %18.1f %12.1f %12.1f%n", n,
+                            queries * 1e3 / binaryTime, queries * 1e3 / arraysTime,
+                            queries * 1e3 / eytzingerTime, queries * 1e3 / streeTime);
+                }
+            }
+            if (checks[0] != checks[1] || checks[0] != checks[2] || checks[0] != checks[3]) {
+                throw new IllegalStateException("Search results differ: " + Arrays.toString(checks));
+            }
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        int[] numbers = { 5, 12, 19, 26, 33, 33, 47, 59, 62, 78, 91 };
+        EytzingerIndex index = new EytzingerIndex(numbers);
+        STree stree = new STree(numbers);
+
+        System.out.println("lowerBound(33) = " + index.lowerBound(33) + ", upperBound(33) = " + index.upperBound(33));
+        System.out.println("lowerBound(50) = " + index.lowerBound(50) + " (value " + numbers[index.lowerBound(50)] + ")");
+        System.out.println("lowerBound(100) = " + index.lowerBound(100) + " (past the end)");
+        System.out.println("STree lowerBound(33) = " + stree.lowerBound(33) + ", contains(62) = " + stree.contains(62));
+
+        // Arguments: largest array size, number of lookups, e.g. 100000000 10000000
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 24;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        benchmark(maxSize, queries);
+    }
+}
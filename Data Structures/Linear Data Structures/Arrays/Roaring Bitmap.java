@@ -0,0 +1,960 @@
+/*
+  Description:
+  --------------------
+  A Roaring Bitmap is a compressed set of 32-bit integers. Each value is
+  split into a 16-bit high part (the key) and a 16-bit low part. All values
+  that share a key go into one container, and each container picks the
+  cheapest of three layouts:
+
+  - ArrayContainer:  sorted char[] of low parts, used for up to 4096 values
+  - BitmapContainer: 65536 bits (1024 longs), used for more than 4096 values
+  - RunContainer:    (start, length - 1) pairs, used for long consecutive runs
+
+  The keys and containers are kept in two parallel sorted arrays, so finding
+  the container of a value is one binary search over at most 65536 keys.
+
+  Values are ordered as unsigned 32-bit numbers (like Integer.toUnsignedLong),
+  so negative ints come after all non-negative ones.
+
+  serialize() writes the portable Roaring format (little-endian, cookies
+  12346 / 12347), so the bytes can be read by other Roaring implementations.
+
+  Supports:
+  - add, remove, contains, addRange
+  - and, or, xor, andNot (return new bitmaps)
+  - cardinality, rank, select
+  - Iteration in ascending unsigned order
+  - runOptimize (switch containers to runs where that is smaller)
+  - Serialization to and from byte[]
+
+  Use Cases:
+  --------------------
+  - Sets of row ids / document ids in databases and search engines
+  - Fast set algebra (filters, joins) over millions of ids
+  - Replacing HashSet<Integer> when memory matters
+
+  Time Complexity:
+  --------------------
+  - add / remove / contains: O(log k) to find the container, then O(log 4096)
+    for arrays, O(1) for bitmaps, O(log runs) for run containers
+  - and / or / xor / andNot: O(k) containers, each at most 1024 word operations
+  - rank / select: O(k) plus one container
+  (k = number of containers)
+
+  Space Complexity:
+  --------------------
+  - Sparse chunks: 2 bytes per value
+  - Dense chunks: 8 KB per 65536 values (1 bit per value)
+  - Consecutive runs: 4 bytes per run
+
+  Approach:
+  --------------------
+  Think of a library that stores member cards in drawers by the first half of
+  the card number. A drawer with a few cards keeps them in a sorted list, a
+  crowded drawer uses a checklist with one box per possible number, and a
+  drawer holding "cards 1000 to 9000" just writes down that range.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+public class RoaringBitmap {
+
+    // Largest ArrayContainer; above this a bitmap (8 KB) is smaller
+    private static final int MAX_ARRAY = 4096;
+    private static final int WORDS = 1024;
+
+    // Serialization cookies of the portable format
+    private static final int COOKIE_NO_RUNS = 12346;
+    private static final int COOKIE_RUNS = 12347;
+    private static final int NO_OFFSET_THRESHOLD = 4;
+
+    private static final int AND = 0, OR = 1, XOR = 2, ANDNOT = 3;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size; // number of containers
+
+    // BASIC OPERATIONS
+
+    public void add(int value) {
+        char high = (char) (value >>> 16), low = (char) value;
+        int i = findKey(high);
+        if (i >= 0) {
+            containers[i] = containers[i].add(low);
+        } else {
+            ArrayContainer container = new ArrayContainer();
+            container.add(low);
+            insertAt(-i - 1, high, container);
+        }
+    }
+
+    public void remove(int value) {
+        int i = findKey((char) (value >>> 16));
+        if (i < 0) return;
+        Container container = containers[i].remove((char) value);
+        if (container.card == 0) removeAt(i);
+        else containers[i] = container;
+    }
+
+    public boolean contains(int value) {
+        int i = findKey((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    // Adds every value in [start, end), both read as unsigned 32-bit numbers
+    public void addRange(long start, long end) {
+        if (start < 0 || end > 1L << 32 || start > end) {
+            throw new IllegalArgumentException("Invalid range [" + start + ", " + end + ")");
+        }
+        if (start == end) return;
+
+        int firstKey = (int) (start >>> 16), lastKey = (int) ((end - 1) >>> 16);
+        for (int key = firstKey; key <= lastKey; key++) {
+            int from = key == firstKey ? (int) (start & 0xFFFF) : 0;
+            int to = key == lastKey ? (int) ((end - 1) & 0xFFFF) : 0xFFFF;
+            Container range = RunContainer.range(from, to);
+
+            int i = findKey((char) key);
+            if (i >= 0) containers[i] = op(containers[i], range, OR);
+            else insertAt(-i - 1, (char) key, range);
+        }
+    }
+
+    public long cardinality() {
+        long total = 0;
+        for (int i = 0; i < size; i++) total += containers[i].card;
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Number of values <= value (unsigned order)
+    public long rank(int value) {
+        char high = (char) (value >>> 16);
+        long total = 0;
+        for (int i = 0; i < size && keys[i] <= high; i++) {
+            total += keys[i] < high ? containers[i].card : containers[i].rank((char) value);
+        }
+        return total;
+    }
+
+    // The j-th smallest value (0-based, unsigned order)
+    public int select(long j) {
+        if (j < 0) throw new IndexOutOfBoundsException("Invalid rank: " + j);
+        for (int i = 0; i < size; i++) {
+            int card = containers[i].card;
+            if (j < card) return keys[i] << 16 | containers[i].select((int) j);
+            j -= card;
+        }
+        throw new IndexOutOfBoundsException("Rank beyond cardinality");
+    }
+
+    // Switches each container to a run container if that is smaller, and back
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) containers[i] = fromWords(containers[i].toWords(), true);
+    }
+
+    // Approximate heap footprint of the bitmap
+    public long sizeInBytes() {
+        long bytes = 48L + 2L * keys.length + 4L * containers.length;
+        for (int i = 0; i < size; i++) bytes += containers[i].bytesInMemory();
+        return bytes;
+    }
+
+    // CONTAINER LOOKUP
+
+    private int findKey(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertAt(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private void append(char key, Container container) {
+        if (container.card > 0) insertAt(size, key, container);
+    }
+
+    // SET OPERATIONS: walk both key lists like a merge
+
+    public RoaringBitmap and(RoaringBitmap other) {
+        return combine(this, other, AND);
+    }
+
+    public RoaringBitmap or(RoaringBitmap other) {
+        return combine(this, other, OR);
+    }
+
+    public RoaringBitmap xor(RoaringBitmap other) {
+        return combine(this, other, XOR);
+    }
+
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        return combine(this, other, ANDNOT);
+    }
+
+    private static RoaringBitmap combine(RoaringBitmap a, RoaringBitmap b, int op) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] == b.keys[j]) {
+                result.append(a.keys[i], op(a.containers[i], b.containers[j], op));
+                i++;
+                j++;
+            } else if (a.keys[i] < b.keys[j]) {
+                if (op != AND) result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else {
+                if (op == OR || op == XOR) result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            }
+        }
+        if (op != AND) {
+            for (; i < a.size; i++) result.append(a.keys[i], a.containers[i].copy());
+        }
+        if (op == OR || op == XOR) {
+            for (; j < b.size; j++) result.append(b.keys[j], b.containers[j].copy());
+        }
+        return result;
+    }
+
+    // One container against another; never modifies its inputs
+    private static Container op(Container a, Container b, int op) {
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+            return ArrayContainer.merge((ArrayContainer) a, (ArrayContainer) b, op);
+        }
+        // Small side is an array: probe the other container instead of expanding it
+        if (op == AND && a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, true);
+        if (op == AND && b instanceof ArrayContainer) return ((ArrayContainer) b).filter(a, true);
+        if (op == ANDNOT && a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, false);
+
+        // Otherwise work on 1024 words
+        long[] words = a.toWords();
+        long[] other = b instanceof BitmapContainer ? ((BitmapContainer) b).words : b.toWords();
+        for (int k = 0; k < WORDS; k++) {
+            switch (op) {
+                case AND:    words[k] &= other[k]; break;
+                case OR:     words[k] |= other[k]; break;
+                case XOR:    words[k] ^= other[k]; break;
+                default:     words[k] &= ~other[k]; break;
+            }
+        }
+        return fromWords(words, a instanceof RunContainer && b instanceof RunContainer);
+    }
+
+    // Picks the smallest container for 65536 bits; runs only if asked for
+    private static Container fromWords(long[] words, boolean considerRuns) {
+        int card = 0;
+        for (long w : words) card += Long.bitCount(w);
+
+        if (considerRuns) {
+            int runs = 0;
+            long previous = 0;
+            for (long w : words) {
+                runs += Long.bitCount(w & ~(w << 1 | previous >>> 63)); // bits that start a run
+                previous = w;
+            }
+            int plainBytes = card <= MAX_ARRAY ? 2 * card : 8 * WORDS;
+            if (card > 0 && 2 + 4 * runs < plainBytes) return RunContainer.fromWords(words, runs, card);
+        }
+        if (card > MAX_ARRAY) return new BitmapContainer(words, card);
+
+        char[] content = new char[Math.max(card, 4)];
+        int n = 0;
+        for (int k = 0; k < WORDS; k++) {
+            for (long w = words[k]; w != 0; w &= w - 1) {
+                content[n++] = (char) (k << 6 | Long.numberOfTrailingZeros(w));
+            }
+        }
+        return new ArrayContainer(content, card);
+    }
+
+    // ITERATION
+
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private char[] buffer = new char[64];
+            private int count, pos, next, high;
+
+            // Moves on to the next container once the current one is used up
+            private void load() {
+                while (pos == count && next < size) {
+                    Container container = containers[next];
+                    if (buffer.length < container.card) buffer = new char[1 << 16];
+                    count = container.toArray(buffer);
+                    high = keys[next] << 16;
+                    next++;
+                    pos = 0;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                load();
+                return pos < count;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return high | buffer[pos++];
+            }
+        };
+    }
+
+    public void forEach(IntConsumer action) {
+        char[] buffer = new char[1 << 16];
+        for (int i = 0; i < size; i++) {
+            int count = containers[i].toArray(buffer), high = keys[i] << 16;
+            for (int k = 0; k < count; k++) action.accept(high | buffer[k]);
+        }
+    }
+
+    // SERIALIZATION (portable Roaring format, little-endian)
+
+    public int serializedSizeInBytes() {
+        boolean hasRuns = hasRunContainers();
+        int bytes = hasRuns ? 4 + (size + 7) / 8 : 8;
+        bytes += 4 * size; // key and cardinality - 1 per container
+        if (!hasRuns || size >= NO_OFFSET_THRESHOLD) bytes += 4 * size;
+        for (int i = 0; i < size; i++) bytes += containers[i].serializedBytes();
+        return bytes;
+    }
+
+    public byte[] serialize() {
+        ByteBuffer out = ByteBuffer.allocate(serializedSizeInBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        boolean hasRuns = hasRunContainers();
+
+        if (hasRuns) {
+            out.putInt(COOKIE_RUNS | (size - 1) << 16);
+            byte[] runFlags = new byte[(size + 7) / 8];
+            for (int i = 0; i < size; i++) {
+                if (containers[i] instanceof RunContainer) runFlags[i / 8] |= 1 << (i % 8);
+            }
+            out.put(runFlags);
+        } else {
+            out.putInt(COOKIE_NO_RUNS);
+            out.putInt(size);
+        }
+
+        for (int i = 0; i < size; i++) {
+            out.putChar(keys[i]);
+            out.putChar((char) (containers[i].card - 1));
+        }
+        if (!hasRuns || size >= NO_OFFSET_THRESHOLD) {
+            int offset = out.position() + 4 * size;
+            for (int i = 0; i < size; i++) {
+                out.putInt(offset);
+                offset += containers[i].serializedBytes();
+            }
+        }
+        for (int i = 0; i < size; i++) containers[i].write(out);
+        return out.array();
+    }
+
+    public static RoaringBitmap deserialize(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int cookie = in.getInt();
+        int count;
+        byte[] runFlags = null;
+        if ((cookie & 0xFFFF) == COOKIE_RUNS) {
+            count = (cookie >>> 16) + 1;
+            runFlags = new byte[(count + 7) / 8];
+            in.get(runFlags);
+        } else if (cookie == COOKIE_NO_RUNS) {
+            count = in.getInt();
+        } else {
+            throw new IllegalArgumentException("Not a Roaring bitmap (cookie " + cookie + ")");
+        }
+
+        RoaringBitmap bitmap = new RoaringBitmap();
+        char[] readKeys = new char[count];
+        int[] cards = new int[count];
+        for (int i = 0; i < count; i++) {
+            readKeys[i] = in.getChar();
+            cards[i] = in.getChar() + 1;
+        }
+        if (runFlags == null || count >= NO_OFFSET_THRESHOLD) in.position(in.position() + 4 * count);
+
+        for (int i = 0; i < count; i++) {
+            Container container;
+            if (runFlags != null && (runFlags[i / 8] & 1 << (i % 8)) != 0) {
+                container = RunContainer.read(in);
+            } else if (cards[i] <= MAX_ARRAY) {
+                char[] content = new char[Math.max(cards[i], 4)];
+                for (int k = 0; k < cards[i]; k++) content[k] = in.getChar();
+                container = new ArrayContainer(content, cards[i]);
+            } else {
+                long[] words = new long[WORDS];
+                for (int k = 0; k < WORDS; k++) words[k] = in.getLong();
+                container = new BitmapContainer(words, cards[i]);
+            }
+            bitmap.insertAt(i, readKeys[i], container);
+        }
+        return bitmap;
+    }
+
+    private boolean hasRunContainers() {
+        for (int i = 0; i < size; i++) {
+            if (containers[i] instanceof RunContainer) return true;
+        }
+        return false;
+    }
+
+    /*
+      CONTAINERS
+      Each holds the low 16 bits of the values of one key. add and remove
+      return the container to keep, which may have a new layout.
+     */
+    private abstract static class Container {
+        int card;
+
+        abstract boolean contains(char x);
+
+        abstract Container add(char x);
+
+        abstract Container remove(char x);
+
+        abstract int rank(char x);        // values <= x
+
+        abstract char select(int j);      // j-th smallest, 0-based
+
+        abstract long[] toWords();        // fresh 1024-word copy
+
+        abstract int toArray(char[] out); // sorted values, returns the count
+
+        abstract Container copy();
+
+        abstract int serializedBytes();
+
+        abstract void write(ByteBuffer out);
+
+        abstract long bytesInMemory();
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] content;
+
+        ArrayContainer() {
+            content = new char[4];
+        }
+
+        ArrayContainer(char[] content, int card) {
+            this.content = content;
+            this.card = card;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return Arrays.binarySearch(content, 0, card, x) >= 0;
+        }
+
+        @Override
+        Container add(char x) {
+            int i = Arrays.binarySearch(content, 0, card, x);
+            if (i >= 0) return this;
+            if (card == MAX_ARRAY) {
+                long[] words = toWords();
+                words[x >>> 6] |= 1L << x;
+                return new BitmapContainer(words, card + 1);
+            }
+            i = -i - 1;
+            if (card == content.length) content = Arrays.copyOf(content, Math.min(card * 2, MAX_ARRAY));
+            System.arraycopy(content, i, content, i + 1, card - i);
+            content[i] = x;
+            card++;
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            int i = Arrays.binarySearch(content, 0, card, x);
+            if (i >= 0) {
+                System.arraycopy(content, i + 1, content, i, card - i - 1);
+                card--;
+            }
+            return this;
+        }
+
+        @Override
+        int rank(char x) {
+            int i = Arrays.binarySearch(content, 0, card, x);
+            return i >= 0 ? i + 1 : -i - 1;
+        }
+
+        @Override
+        char select(int j) {
+            return content[j];
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[WORDS];
+            for (int k = 0; k < card; k++) words[content[k] >>> 6] |= 1L << content[k];
+            return words;
+        }
+
+        @Override
+        int toArray(char[] out) {
+            System.arraycopy(content, 0, out, 0, card);
+            return card;
+        }
+
+        // Keeps the values that are (or are not) in the other container
+        Container filter(Container other, boolean keepIfPresent) {
+            char[] kept = new char[Math.max(card, 4)];
+            int n = 0;
+            for (int k = 0; k < card; k++) {
+                if (other.contains(content[k]) == keepIfPresent) kept[n++] = content[k];
+            }
+            return new ArrayContainer(kept, n);
+        }
+
+        // Classic sorted-array merge for all four operations
+        static Container merge(ArrayContainer a, ArrayContainer b, int op) {
+            char[] out = new char[Math.max(a.card + b.card, 4)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.card && j < b.card) {
+                char x = a.content[i], y = b.content[j];
+                if (x == y) {
+                    if (op == AND || op == OR) out[n++] = x;
+                    i++;
+                    j++;
+                } else if (x < y) {
+                    if (op != AND) out[n++] = x;
+                    i++;
+                } else {
+                    if (op == OR || op == XOR) out[n++] = y;
+                    j++;
+                }
+            }
+            if (op != AND) while (i < a.card) out[n++] = a.content[i++];
+            if (op == OR || op == XOR) while (j < b.card) out[n++] = b.content[j++];
+
+            if (n <= MAX_ARRAY) return new ArrayContainer(out, n);
+            long[] words = new long[WORDS];
+            for (int k = 0; k < n; k++) words[out[k] >>> 6] |= 1L << out[k];
+            return new BitmapContainer(words, n);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(content, Math.max(card, 4)), card);
+        }
+
+        @Override
+        int serializedBytes() {
+            return 2 * card;
+        }
+
+        @Override
+        void write(ByteBuffer out) {
+            for (int k = 0; k < card; k++) out.putChar(content[k]);
+        }
+
+        @Override
+        long bytesInMemory() {
+            return 32 + 2L * content.length;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+
+        BitmapContainer(long[] words, int card) {
+            this.words = words;
+            this.card = card;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return (words[x >>> 6] & 1L << x) != 0;
+        }
+
+        @Override
+        Container add(char x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) == 0) {
+                words[x >>> 6] |= bit;
+                card++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) == 0) return this;
+            words[x >>> 6] &= ~bit;
+            card--;
+            return card <= MAX_ARRAY ? fromWords(words, false) : this;
+        }
+
+        @Override
+        int rank(char x) {
+            int r = 0;
+            for (int k = 0; k < x >>> 6; k++) r += Long.bitCount(words[k]);
+            return r + Long.bitCount(words[x >>> 6] & (2L << x) - 1);
+        }
+
+        @Override
+        char select(int j) {
+            int k = 0;
+            for (int c; (c = Long.bitCount(words[k])) <= j; k++) j -= c;
+            long w = words[k];
+            for (; j > 0; j--) w &= w - 1;
+            return (char) (k << 6 | Long.numberOfTrailingZeros(w));
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        int toArray(char[] out) {
+            int n = 0;
+            for (int k = 0; k < WORDS; k++) {
+                for (long w = words[k]; w != 0; w &= w - 1) {
+                    out[n++] = (char) (k << 6 | Long.numberOfTrailingZeros(w));
+                }
+            }
+            return n;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), card);
+        }
+
+        @Override
+        int serializedBytes() {
+            return 8 * WORDS;
+        }
+
+        @Override
+        void write(ByteBuffer out) {
+            for (long w : words) out.putLong(w);
+        }
+
+        @Override
+        long bytesInMemory() {
+            return 32 + 8L * WORDS;
+        }
+    }
+
+    private static final class RunContainer extends Container {
+        char[] runs; // run i is [runs[2i], runs[2i] + runs[2i + 1]]
+        int count;   // number of runs
+
+        RunContainer(char[] runs, int count, int card) {
+            this.runs = runs;
+            this.count = count;
+            this.card = card;
+        }
+
+        static RunContainer range(int from, int to) {
+            return new RunContainer(new char[] { (char) from, (char) (to - from) }, 1, to - from + 1);
+        }
+
+        static RunContainer fromWords(long[] words, int runCount, int card) {
+            char[] runs = new char[2 * runCount];
+            int n = 0, bit = nextBit(words, 0, true);
+            while (bit >= 0) {
+                int end = nextBit(words, bit, false); // first clear bit after the run
+                if (end < 0) end = 1 << 16;
+                runs[n++] = (char) bit;
+                runs[n++] = (char) (end - 1 - bit);
+                bit = end < 1 << 16 ? nextBit(words, end, true) : -1;
+            }
+            return new RunContainer(runs, runCount, card);
+        }
+
+        // First position >= from whose bit equals value, or -1
+        private static int nextBit(long[] words, int from, boolean value) {
+            int k = from >>> 6;
+            long w = (value ? words[k] : ~words[k]) & -1L << from;
+            while (w == 0) {
+                if (++k == WORDS) return -1;
+                w = value ? words[k] : ~words[k];
+            }
+            return k << 6 | Long.numberOfTrailingZeros(w);
+        }
+
+        static RunContainer read(ByteBuffer in) {
+            int count = in.getChar();
+            char[] runs = new char[Math.max(2 * count, 2)];
+            int card = 0;
+            for (int k = 0; k < 2 * count; k += 2) {
+                runs[k] = in.getChar();
+                runs[k + 1] = in.getChar();
+                card += runs[k + 1] + 1;
+            }
+            return new RunContainer(runs, count, card);
+        }
+
+        private int start(int i) {
+            return runs[2 * i];
+        }
+
+        private int end(int i) {
+            return runs[2 * i] + runs[2 * i + 1];
+        }
+
+        // Last run starting at or before x, or -1
+        private int find(int x) {
+            int lo = 0, hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) <= x) lo = mid + 1;
+                else hi = mid - 1;
+            }
+            return hi;
+        }
+
+        private void insertRun(int i, int start, int lengthMinusOne) {
+            if (2 * count == runs.length) runs = Arrays.copyOf(runs, Math.max(4, runs.length * 2));
+            System.arraycopy(runs, 2 * i, runs, 2 * i + 2, 2 * (count - i));
+            runs[2 * i] = (char) start;
+            runs[2 * i + 1] = (char) lengthMinusOne;
+            count++;
+        }
+
+        private void removeRun(int i) {
+            System.arraycopy(runs, 2 * i + 2, runs, 2 * i, 2 * (count - i - 1));
+            count--;
+        }
+
+        // Too many short runs: a plain container is smaller
+        private Container checkSize() {
+            return 2 + 4 * count > 8 * WORDS ? RoaringBitmap.fromWords(toWords(), false) : this;
+        }
+
+        @Override
+        boolean contains(char x) {
+            int i = find(x);
+            return i >= 0 && x <= end(i);
+        }
+
+        @Override
+        Container add(char x) {
+            int i = find(x);
+            if (i >= 0 && x <= end(i)) return this;
+            card++;
+
+            boolean joinsLeft = i >= 0 && end(i) + 1 == x;
+            boolean joinsRight = i + 1 < count && start(i + 1) == x + 1;
+            if (joinsLeft && joinsRight) {
+                runs[2 * i + 1] = (char) (end(i + 1) - start(i));
+                removeRun(i + 1);
+            } else if (joinsLeft) {
+                runs[2 * i + 1]++;
+            } else if (joinsRight) {
+                runs[2 * i + 2] = x;
+                runs[2 * i + 3]++;
+            } else {
+                insertRun(i + 1, x, 0);
+            }
+            return checkSize();
+        }
+
+        @Override
+        Container remove(char x) {
+            int i = find(x);
+            if (i < 0 || x > end(i)) return this;
+            card--;
+
+            int start = start(i), end = end(i);
+            if (start == end) {
+                removeRun(i);
+            } else if (x == start) {
+                runs[2 * i] = (char) (x + 1);
+                runs[2 * i + 1]--;
+            } else if (x == end) {
+                runs[2 * i + 1]--;
+            } else {
+                runs[2 * i + 1] = (char) (x - 1 - start); // split in two
+                insertRun(i + 1, x + 1, end - x - 1);
+            }
+            return checkSize();
+        }
+
+        @Override
+        int rank(char x) {
+            int r = 0;
+            for (int i = 0; i < count && start(i) <= x; i++) r += Math.min(x, end(i)) - start(i) + 1;
+            return r;
+        }
+
+        @Override
+        char select(int j) {
+            for (int i = 0; ; i++) {
+                int length = runs[2 * i + 1] + 1;
+                if (j < length) return (char) (start(i) + j);
+                j -= length;
+            }
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < count; i++) {
+                int from = start(i), to = end(i);
+                int first = from >>> 6, last = to >>> 6;
+                long firstMask = -1L << from, lastMask = -1L >>> (63 - (to & 63));
+                if (first == last) {
+                    words[first] |= firstMask & lastMask;
+                } else {
+                    words[first] |= firstMask;
+                    for (int k = first + 1; k < last; k++) words[k] = -1L;
+                    words[last] |= lastMask;
+                }
+            }
+            return words;
+        }
+
+        @Override
+        int toArray(char[] out) {
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                for (int v = start(i), end = end(i); v <= end; v++) out[n++] = (char) v;
+            }
+            return n;
+        }
+
+        @Override
+        Container copy() {
+            return new RunContainer(Arrays.copyOf(runs, Math.max(2 * count, 2)), count, card);
+        }
+
+        @Override
+        int serializedBytes() {
+            return 2 + 4 * count;
+        }
+
+        @Override
+        void write(ByteBuffer out) {
+            out.putChar((char) count);
+            for (int k = 0; k < 2 * count; k++) out.putChar(runs[k]);
+        }
+
+        @Override
+        long bytesInMemory() {
+            return 32 + 2L * runs.length;
+        }
+    }
+
+    // QUICK BENCHMARK: memory and set-operation throughput vs BitSet and HashSet<Integer>
+    private static void benchmark(int n, int universe, int rounds) {
+        Random random = new Random(42);
+        int[][] data = new int[2][n];
+        for (int[] values : data) for (int i = 0; i < n; i++) values[i] = random.nextInt(universe);
+
+        RoaringBitmap[] roaring = new RoaringBitmap[2];
+        BitSet[] bitSets = new BitSet[2];
+        List<HashSet<Integer>> hashSets = new ArrayList<>();
+        for (int s = 0; s < 2; s++) {
+            roaring[s] = new RoaringBitmap();
+            bitSets[s] = new BitSet(universe);
+            HashSet<Integer> hashSet = new HashSet<>();
+            for (int v : data[s]) {
+                roaring[s].add(v);
+                bitSets[s].set(v);
+                hashSet.add(v);
+            }
+            hashSets.add(hashSet);
+        }
+
+        System.out.printf("%d random values in [0, %d):%n", n, universe);
+        // HashSet: about 32 bytes per HashMap.Node + 16 per Integer + a 4-byte table slot per entry
+        System.out.printf("  Memory: RoaringBitmap %.1f MB, BitSet %.1f MB, HashSet<Integer> ~%.1f MB%n",
+                roaring[0].sizeInBytes() / 1e6, bitSets[0].size() / 8 / 1e6, hashSets.get(0).size() * 56 / 1e6);
+
+        long roaringSum = 0, bitSetSum = 0, hashSetSum = 0;
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            roaringSum += roaring[0].and(roaring[1]).cardinality() + roaring[0].or(roaring[1]).cardinality();
+        }
+        long roaringTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            BitSet and = (BitSet) bitSets[0].clone();
+            and.and(bitSets[1]);
+            BitSet or = (BitSet) bitSets[0].clone();
+            or.or(bitSets[1]);
+            bitSetSum += and.cardinality() + or.cardinality();
+        }
+        long bitSetTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            HashSet<Integer> and = new HashSet<>(hashSets.get(0));
+            and.retainAll(hashSets.get(1));
+            HashSet<Integer> or = new HashSet<>(hashSets.get(0));
+            or.addAll(hashSets.get(1));
+            hashSetSum += and.size() + or.size();
+        }
+        long hashSetTime = System.nanoTime() - start;
+
+        System.out.printf("  and + or: RoaringBitmap %.2f ms, BitSet %.2f ms, HashSet<Integer> %.2f ms"
+                        + " (results agree: %b)%n", roaringTime / 1e6 / rounds, bitSetTime / 1e6 / rounds,
+                hashSetTime / 1e6 / rounds, roaringSum == bitSetSum && bitSetSum == hashSetSum);
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        RoaringBitmap a = new RoaringBitmap();
+        for (int v : new int[] { 1, 5, 9, 70_000, 1_000_000, -1 }) a.add(v);
+        a.addRange(200, 300);
+
+        RoaringBitmap b = new RoaringBitmap();
+        for (int v : new int[] { 5, 9, 250, 70_001, 1_000_000 }) b.add(v);
+
+        System.out.println("Cardinality of a: " + a.cardinality());
+        System.out.println("a contains 250: " + a.contains(250) + ", contains 300: " + a.contains(300));
+        System.out.print("a and b: ");
+        a.and(b).forEach(v -> System.out.print(Integer.toUnsignedString(v) + " "));
+        System.out.println();
+        System.out.println("a or b has " + a.or(b).cardinality() + " values, a xor b has "
+                + a.xor(b).cardinality() + ", a andNot b has " + a.andNot(b).cardinality());
+        System.out.println("rank(250) = " + a.rank(250) + ", select(3) = " + a.select(3));
+
+        byte[] bytes = a.serialize();
+        RoaringBitmap copy = RoaringBitmap.deserialize(bytes);
+        System.out.println("Serialized to " + bytes.length + " bytes, read back "
+                + copy.cardinality() + " values");
+
+        // Arguments: values per set, universe size, e.g. 10000000 100000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int universe = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        benchmark(n, universe, 10);
+        benchmark(n, 10 * universe, 10);
+    }
+}
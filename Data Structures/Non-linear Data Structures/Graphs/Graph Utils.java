@@ -54,13 +54,24 @@ public class GraphUtils {
         System.out.println();
     }
 
+    // Like bfs above but with a stack for the queue; each entry is the rest of one
+    // path node's edge list, so nodes print in the same order as a recursive DFS
     private static void dfsHelper(Node node, Set<Node> visited) {
+        Deque<Iterator<Edge>> stack = new ArrayDeque<>();
         visited.add(node);
         System.out.print(node.id + " ");
+        stack.push(node.edges.iterator());
 
-        for (Edge edge : node.edges) {
-            if (!visited.contains(edge.dest)) {
-                dfsHelper(edge.dest, visited);
+        while (!stack.isEmpty()) {
+            Iterator<Edge> edges = stack.peek();
+            if (!edges.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Node next = edges.next().dest;
+            if (visited.add(next)) {
+                System.out.print(next.id + " ");
+                stack.push(next.edges.iterator());
             }
         }
     }
@@ -117,6 +117,64 @@ public class AVLTree {
         return node;
     }
 
+    // DELETE
+    public void delete(int value) {
+        root = deleteRec(root, value);
+    }
+
+    private AVLNode deleteRec(AVLNode node, int value) {
+        if (node == null) return null;
+
+        if (value < node.value) node.left = deleteRec(node.left, value);
+        else if (value > node.value) node.right = deleteRec(node.right, value);
+        else {
+            // ZERO OR ONE CHILD: replace node by its child
+            if (node.left == null || node.right == null) {
+                return node.left != null ? node.left : node.right;
+            }
+
+            // TWO CHILDREN: copy the in-order successor, then delete it
+            AVLNode successor = node.right;
+            while (successor.left != null) successor = successor.left;
+            node.value = successor.value;
+            node.right = deleteRec(node.right, successor.value);
+        }
+
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+
+        int balance = getBalance(node);
+
+        // LEFT LEFT CASE
+        if (balance > 1 && getBalance(node.left) >= 0) return rightRotate(node);
+
+        // LEFT RIGHT CASE
+        if (balance > 1) {
+            node.left = leftRotate(node.left);
+            return rightRotate(node);
+        }
+
+        // RIGHT RIGHT CASE
+        if (balance < -1 && getBalance(node.right) <= 0) return leftRotate(node);
+
+        // RIGHT LEFT CASE
+        if (balance < -1) {
+            node.right = rightRotate(node.right);
+            return leftRotate(node);
+        }
+
+        return node;
+    }
+
+    // SEARCH
+    public boolean search(int value) {
+        AVLNode node = root;
+        while (node != null) {
+            if (value == node.value) return true;
+            node = value < node.value ? node.left : node.right;
+        }
+        return false;
+    }
+
     // IN-ORDER TRAVERSAL
     public void inOrder() {
         inOrderRec(root);
@@ -139,5 +197,9 @@ public class AVLTree {
 
         System.out.print("AVL In-order (sorted): ");
         avl.inOrder();
+
+        avl.delete(30);
+        System.out.print("After deleting 30: ");
+        avl.inOrder();
     }
 }
\ No newline at end of file
@@ -0,0 +1,493 @@
+/*
+  Description:
+  --------------------
+  A B+ Tree is a balanced search tree where every node holds many keys instead
+  of one. All key/value pairs live in the leaves, inner nodes only hold
+  separator keys, and the leaves are linked left-to-right so range scans walk
+  along the bottom level without going back up the tree.
+
+  Keys and values are stored in primitive long[] arrays inside each node, so a
+  lookup touches about log_B(n) nodes (B = fanout) instead of the log_2(n)
+  separate heap objects an AVLTree or BinarySearchTree has to visit.
+
+  Supports:
+  - Insert / update (put)
+  - Point lookup (get, containsKey)
+  - Delete with borrow / merge of underflowing nodes
+  - Range scan over linked leaves
+  - Bulk loading from sorted keys in O(n)
+
+  Use Cases:
+  --------------------
+  - Large in-memory ordered indexes (int/long ids, timestamps)
+  - Range queries ("all keys between a and b")
+  - The building block of almost every database and file-system index
+
+  Time Complexity:
+  --------------------
+  - Search, Insert, Delete: O(log n) comparisons, O(log_B n) node visits
+  - Range scan: O(log n + k) for k reported keys
+  - Bulk load: O(n)
+
+  Space Complexity:
+  --------------------
+  - O(n), two longs per key plus one array slot per child
+
+  Approach:
+  --------------------
+  Think of a library catalogue: the top drawer tells you which cabinet to
+  open, the cabinet tells you which drawer, and the drawer holds the cards in
+  order. When a drawer overflows it is split in two and the cabinet gets a new
+  label; when it runs too empty it borrows cards from a neighbour or is merged
+  with it.
+ */
+
+import java.util.Random;
+import java.util.TreeMap;
+
+public class BPlusTree {
+
+    // Receives the entries of a range scan in ascending key order
+    public interface RangeConsumer {
+        void accept(long key, long value);
+    }
+
+    private abstract static class BNode {
+        long[] keys;
+        int size; // number of keys in use
+
+        BNode(int capacity) {
+            keys = new long[capacity];
+        }
+    }
+
+    private static final class Leaf extends BNode {
+        long[] values;
+        Leaf next;
+
+        Leaf(int maxKeys) {
+            super(maxKeys + 1); // one spare slot so we can insert before splitting
+            values = new long[maxKeys + 1];
+        }
+    }
+
+    private static final class Inner extends BNode {
+        BNode[] children;
+
+        Inner(int maxKeys) {
+            super(maxKeys + 1);
+            children = new BNode[maxKeys + 2];
+        }
+    }
+
+    private final int maxKeys;
+    private final int minKeys;
+    private BNode root;
+    private int size;
+    private int height = 1;
+
+    // Separator produced by the last split, read by the parent
+    private long splitKey;
+
+    public BPlusTree(int fanout) {
+        if (fanout < 4) throw new IllegalArgumentException("Fanout must be at least 4");
+        this.maxKeys = fanout;
+        this.minKeys = fanout / 2;
+        this.root = new Leaf(maxKeys);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    // FIRST INDEX i WITH keys[i] >= key
+    private static int lowerBound(long[] keys, int size, long key) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // CHILD TO FOLLOW: keys[i] is the smallest key reachable through children[i + 1]
+    private static int childIndex(Inner inner, long key) {
+        int lo = 0, hi = inner.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (inner.keys[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private Leaf findLeaf(long key) {
+        BNode node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[childIndex(inner, key)];
+        }
+        return (Leaf) node;
+    }
+
+    // SEARCH
+    public boolean containsKey(long key) {
+        Leaf leaf = findLeaf(key);
+        int pos = lowerBound(leaf.keys, leaf.size, key);
+        return pos < leaf.size && leaf.keys[pos] == key;
+    }
+
+    public long get(long key, long defaultValue) {
+        Leaf leaf = findLeaf(key);
+        int pos = lowerBound(leaf.keys, leaf.size, key);
+        return pos < leaf.size && leaf.keys[pos] == key ? leaf.values[pos] : defaultValue;
+    }
+
+    // INSERT (or update if the key already exists)
+    public void put(long key, long value) {
+        BNode right = insertRec(root, key, value);
+        if (right != null) {
+            Inner newRoot = new Inner(maxKeys);
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.size = 1;
+            root = newRoot;
+            height++;
+        }
+    }
+
+    // Returns the new right sibling if the node split, otherwise null
+    private BNode insertRec(BNode node, long key, long value) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int pos = lowerBound(leaf.keys, leaf.size, key);
+            if (pos < leaf.size && leaf.keys[pos] == key) {
+                leaf.values[pos] = value;
+                return null;
+            }
+            System.arraycopy(leaf.keys, pos, leaf.keys, pos + 1, leaf.size - pos);
+            System.arraycopy(leaf.values, pos, leaf.values, pos + 1, leaf.size - pos);
+            leaf.keys[pos] = key;
+            leaf.values[pos] = value;
+            leaf.size++;
+            size++;
+            return leaf.size > maxKeys ? splitLeaf(leaf) : null;
+        }
+
+        Inner inner = (Inner) node;
+        int idx = childIndex(inner, key);
+        BNode right = insertRec(inner.children[idx], key, value);
+        if (right == null) return null;
+
+        System.arraycopy(inner.keys, idx, inner.keys, idx + 1, inner.size - idx);
+        System.arraycopy(inner.children, idx + 1, inner.children, idx + 2, inner.size - idx);
+        inner.keys[idx] = splitKey;
+        inner.children[idx + 1] = right;
+        inner.size++;
+        return inner.size > maxKeys ? splitInner(inner) : null;
+    }
+
+    private Leaf splitLeaf(Leaf leaf) {
+        int mid = leaf.size / 2;
+        Leaf right = new Leaf(maxKeys);
+        right.size = leaf.size - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, right.size);
+        System.arraycopy(leaf.values, mid, right.values, 0, right.size);
+        leaf.size = mid;
+
+        right.next = leaf.next;
+        leaf.next = right;
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    private Inner splitInner(Inner inner) {
+        int mid = inner.size / 2;
+        Inner right = new Inner(maxKeys);
+        right.size = inner.size - mid - 1;
+        System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.size);
+        System.arraycopy(inner.children, mid + 1, right.children, 0, right.size + 1);
+        for (int i = mid + 1; i <= inner.size; i++) inner.children[i] = null;
+        splitKey = inner.keys[mid]; // middle key moves up
+        inner.size = mid;
+        return right;
+    }
+
+    // DELETE
+    public boolean remove(long key) {
+        boolean removed = removeRec(root, key);
+        if (root instanceof Inner && root.size == 0) {
+            root = ((Inner) root).children[0];
+            height--;
+        }
+        return removed;
+    }
+
+    private boolean removeRec(BNode node, long key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int pos = lowerBound(leaf.keys, leaf.size, key);
+            if (pos == leaf.size || leaf.keys[pos] != key) return false;
+            System.arraycopy(leaf.keys, pos + 1, leaf.keys, pos, leaf.size - pos - 1);
+            System.arraycopy(leaf.values, pos + 1, leaf.values, pos, leaf.size - pos - 1);
+            leaf.size--;
+            size--;
+            return true;
+        }
+
+        Inner inner = (Inner) node;
+        int idx = childIndex(inner, key);
+        BNode child = inner.children[idx];
+        if (!removeRec(child, key)) return false;
+        if (child.size < minKeys) rebalance(inner, idx);
+        return true;
+    }
+
+    // Fix an underflowing child by borrowing from a sibling or merging with it
+    private void rebalance(Inner parent, int idx) {
+        BNode child = parent.children[idx];
+        BNode left = idx > 0 ? parent.children[idx - 1] : null;
+        BNode right = idx < parent.size ? parent.children[idx + 1] : null;
+
+        if (left != null && left.size > minKeys) {
+            borrowFromLeft(parent, idx, child, left);
+        } else if (right != null && right.size > minKeys) {
+            borrowFromRight(parent, idx, child, right);
+        } else if (left != null) {
+            merge(parent, idx - 1, left, child);
+        } else if (right != null) {
+            merge(parent, idx, child, right);
+        }
+    }
+
+    private void borrowFromLeft(Inner parent, int idx, BNode child, BNode left) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.size);
+        if (child instanceof Leaf) {
+            Leaf c = (Leaf) child, l = (Leaf) left;
+            System.arraycopy(c.values, 0, c.values, 1, c.size);
+            c.keys[0] = l.keys[l.size - 1];
+            c.values[0] = l.values[l.size - 1];
+            parent.keys[idx - 1] = c.keys[0];
+        } else {
+            Inner c = (Inner) child, l = (Inner) left;
+            System.arraycopy(c.children, 0, c.children, 1, c.size + 1);
+            c.keys[0] = parent.keys[idx - 1];
+            c.children[0] = l.children[l.size];
+            l.children[l.size] = null;
+            parent.keys[idx - 1] = l.keys[l.size - 1];
+        }
+        child.size++;
+        left.size--;
+    }
+
+    private void borrowFromRight(Inner parent, int idx, BNode child, BNode right) {
+        if (child instanceof Leaf) {
+            Leaf c = (Leaf) child, r = (Leaf) right;
+            c.keys[c.size] = r.keys[0];
+            c.values[c.size] = r.values[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.size - 1);
+            System.arraycopy(r.values, 1, r.values, 0, r.size - 1);
+            parent.keys[idx] = r.keys[0];
+        } else {
+            Inner c = (Inner) child, r = (Inner) right;
+            c.keys[c.size] = parent.keys[idx];
+            c.children[c.size + 1] = r.children[0];
+            parent.keys[idx] = r.keys[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.size - 1);
+            System.arraycopy(r.children, 1, r.children, 0, r.size);
+            r.children[r.size] = null;
+        }
+        child.size++;
+        right.size--;
+    }
+
+    // Merge children[sep + 1] into children[sep] and drop the separator key
+    private void merge(Inner parent, int sep, BNode left, BNode right) {
+        if (left instanceof Leaf) {
+            Leaf l = (Leaf) left, r = (Leaf) right;
+            System.arraycopy(r.keys, 0, l.keys, l.size, r.size);
+            System.arraycopy(r.values, 0, l.values, l.size, r.size);
+            l.size += r.size;
+            l.next = r.next;
+        } else {
+            Inner l = (Inner) left, r = (Inner) right;
+            l.keys[l.size] = parent.keys[sep];
+            System.arraycopy(r.keys, 0, l.keys, l.size + 1, r.size);
+            System.arraycopy(r.children, 0, l.children, l.size + 1, r.size + 1);
+            l.size += r.size + 1;
+        }
+
+        System.arraycopy(parent.keys, sep + 1, parent.keys, sep, parent.size - sep - 1);
+        System.arraycopy(parent.children, sep + 2, parent.children, sep + 1, parent.size - sep - 1);
+        parent.children[parent.size] = null;
+        parent.size--;
+    }
+
+    // RANGE SCAN over [from, to], returns the number of entries visited
+    public int forEachInRange(long from, long to, RangeConsumer consumer) {
+        int count = 0;
+        Leaf leaf = findLeaf(from);
+        int pos = lowerBound(leaf.keys, leaf.size, from);
+        while (leaf != null) {
+            for (; pos < leaf.size; pos++) {
+                if (leaf.keys[pos] > to) return count;
+                consumer.accept(leaf.keys[pos], leaf.values[pos]);
+                count++;
+            }
+            leaf = leaf.next;
+            pos = 0;
+        }
+        return count;
+    }
+
+    // BULK LOAD from strictly increasing keys, building the tree bottom-up
+    public static BPlusTree bulkLoad(long[] sortedKeys, long[] values, int fanout) {
+        if (sortedKeys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length");
+        }
+        BPlusTree tree = new BPlusTree(fanout);
+        int n = sortedKeys.length;
+        if (n == 0) return tree;
+        for (int i = 1; i < n; i++) {
+            if (sortedKeys[i - 1] >= sortedKeys[i]) {
+                throw new IllegalArgumentException("Keys must be strictly increasing");
+            }
+        }
+
+        // Spread keys evenly so every leaf holds at least minKeys
+        int leafCount = (n + tree.maxKeys - 1) / tree.maxKeys;
+        BNode[] level = new BNode[leafCount];
+        long[] lowKeys = new long[leafCount];
+        Leaf prev = null;
+        for (int i = 0, from = 0; i < leafCount; i++) {
+            int count = n / leafCount + (i < n % leafCount ? 1 : 0);
+            Leaf leaf = new Leaf(tree.maxKeys);
+            System.arraycopy(sortedKeys, from, leaf.keys, 0, count);
+            System.arraycopy(values, from, leaf.values, 0, count);
+            leaf.size = count;
+            if (prev != null) prev.next = leaf;
+            prev = leaf;
+            level[i] = leaf;
+            lowKeys[i] = sortedKeys[from];
+            from += count;
+        }
+
+        // Build inner levels until a single root remains
+        int maxChildren = tree.maxKeys + 1;
+        while (level.length > 1) {
+            int m = level.length;
+            int parentCount = (m + maxChildren - 1) / maxChildren;
+            BNode[] parents = new BNode[parentCount];
+            long[] parentLows = new long[parentCount];
+            for (int i = 0, from = 0; i < parentCount; i++) {
+                int count = m / parentCount + (i < m % parentCount ? 1 : 0);
+                Inner inner = new Inner(tree.maxKeys);
+                System.arraycopy(level, from, inner.children, 0, count);
+                System.arraycopy(lowKeys, from + 1, inner.keys, 0, count - 1);
+                inner.size = count - 1;
+                parents[i] = inner;
+                parentLows[i] = lowKeys[from];
+                from += count;
+            }
+            level = parents;
+            lowKeys = parentLows;
+            tree.height++;
+        }
+
+        tree.root = level[0];
+        tree.size = n;
+        return tree;
+    }
+
+    // QUICK BENCHMARK against TreeMap and AVLTree
+    private static void benchmark(int n, int fanout) {
+        Random random = new Random(42);
+        long[] keys = new long[n];
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = 2L * i;
+            values[i] = i;
+        }
+        int[] probes = new int[1_000_000];
+        for (int i = 0; i < probes.length; i++) probes[i] = random.nextInt(2 * n);
+
+        BPlusTree bpt = bulkLoad(keys, values, fanout);
+        TreeMap<Long, Long> treeMap = new TreeMap<>();
+        AVLTree avl = new AVLTree();
+        for (int i = 0; i < n; i++) {
+            treeMap.put(keys[i], values[i]);
+            avl.insert((int) keys[i]);
+        }
+
+        long found = 0;
+        long start = System.nanoTime();
+        for (int p : probes) if (bpt.containsKey(p)) found++;
+        long bptTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int p : probes) if (treeMap.containsKey((long) p)) found++;
+        long mapTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int p : probes) if (avl.search(p)) found++;
+        long avlTime = System.nanoTime() - start;
+
+        System.out.printf("Point lookups (n=%d, %d probes, found=%d):%n", n, probes.length, found);
+        System.out.printf("  BPlusTree(fanout=%d): %.1f Mops/s%n", fanout, probes.length * 1e3 / bptTime);
+        System.out.printf("  TreeMap:              %.1f Mops/s%n", probes.length * 1e3 / mapTime);
+        System.out.printf("  AVLTree:              %.1f Mops/s%n", probes.length * 1e3 / avlTime);
+
+        long[] sum = new long[1];
+        int scans = 10_000, width = 1_000;
+        start = System.nanoTime();
+        long visited = 0;
+        for (int i = 0; i < scans; i++) {
+            long from = probes[i];
+            visited += bpt.forEachInRange(from, from + 2L * width, (k, v) -> sum[0] += v);
+        }
+        bptTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < scans; i++) {
+            long from = probes[i];
+            for (long v : treeMap.subMap(from, true, from + 2L * width, true).values()) sum[0] += v;
+        }
+        mapTime = System.nanoTime() - start;
+
+        System.out.printf("Range scans (%d scans, %d entries):%n", scans, visited);
+        System.out.printf("  BPlusTree: %.1f M entries/s%n", visited * 1e3 / bptTime);
+        System.out.printf("  TreeMap:   %.1f M entries/s%n", visited * 1e3 / mapTime);
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        BPlusTree tree = new BPlusTree(4);
+        int[] values = { 50, 20, 70, 10, 30, 60, 80, 25, 35, 65, 75, 5 };
+        for (int v : values) tree.put(v, v * 100L);
+
+        System.out.println("Size: " + tree.size() + ", height: " + tree.height());
+        System.out.println("get(30) = " + tree.get(30, -1));
+        System.out.println("containsKey(40) = " + tree.containsKey(40));
+
+        System.out.print("Keys in [20, 65]: ");
+        tree.forEachInRange(20, 65, (k, v) -> System.out.print(k + " "));
+        System.out.println();
+
+        tree.remove(20);
+        tree.remove(25);
+        tree.remove(30);
+        System.out.print("After removing 20, 25, 30: ");
+        tree.forEachInRange(Long.MIN_VALUE, Long.MAX_VALUE, (k, v) -> System.out.print(k + " "));
+        System.out.println();
+
+        // Pass the number of keys as the first argument, e.g. 10000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        benchmark(n, 64);
+    }
+}
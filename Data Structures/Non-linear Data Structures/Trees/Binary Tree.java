@@ -8,6 +8,9 @@
   Supports:
   - Pre-order, In-order, Post-order traversal
   - Level-order traversal
+  - Allocation-free iterators for every order (values are returned as int,
+    never boxed)
+  - A Spliterator that splits off whole subtrees, for parallel streams
  
   Use Cases:
   --------------------
@@ -24,8 +27,25 @@
   --------------------
   Imagine a family tree: each person (node) can have at most two children.
   Traversals define different ways to visit all family members.
+
+  Iterators:
+  --------------------
+  - In-order uses Morris traversal: it temporarily points the rightmost node
+    of each left subtree back at its ancestor, so it needs no stack at all.
+    The links are removed as the walk passes them, so the iterator must be
+    run to the end and the tree must not be read by anyone else meanwhile.
+  - Pre-order and post-order keep an explicit array stack.
+  - Level-order keeps an array ring buffer instead of a LinkedList.
+  The arrays only grow (by doubling), so no memory is allocated per node.
  */
 
+import java.lang.management.ManagementFactory;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.StreamSupport;
+
 class TreeNode {
     int value;
     TreeNode left, right;
@@ -84,6 +104,291 @@ public class BinaryTree {
         }
     }
 
+    // IN-ORDER ITERATOR (Morris traversal, O(1) extra space)
+    public PrimitiveIterator.OfInt inOrderIterator(TreeNode node) {
+        return new PrimitiveIterator.OfInt() {
+            private TreeNode current = node;
+
+            @Override
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            @Override
+            public int nextInt() {
+                if (current == null) throw new NoSuchElementException();
+                while (current.left != null) {
+                    TreeNode pred = current.left;
+                    while (pred.right != null && pred.right != current) pred = pred.right;
+
+                    if (pred.right == null) {
+                        pred.right = current; // thread back to current, then go left
+                        current = current.left;
+                    } else {
+                        pred.right = null;    // left subtree done, remove the thread
+                        break;
+                    }
+                }
+                int value = current.value;
+                current = current.right;
+                return value;
+            }
+        };
+    }
+
+    // Array stack that only grows, shared by the iterators below
+    private static final class NodeStack {
+        TreeNode[] items = new TreeNode[16];
+        int size;
+
+        void push(TreeNode node) {
+            if (size == items.length) items = java.util.Arrays.copyOf(items, size * 2);
+            items[size++] = node;
+        }
+
+        TreeNode pop() {
+            TreeNode node = items[--size];
+            items[size] = null;
+            return node;
+        }
+
+        TreeNode peek() {
+            return items[size - 1];
+        }
+    }
+
+    // PRE-ORDER ITERATOR: Root → Left → Right
+    public PrimitiveIterator.OfInt preOrderIterator(TreeNode node) {
+        NodeStack stack = new NodeStack();
+        if (node != null) stack.push(node);
+
+        return new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                return stack.size > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (stack.size == 0) throw new NoSuchElementException();
+                TreeNode current = stack.pop();
+                if (current.right != null) stack.push(current.right);
+                if (current.left != null) stack.push(current.left);
+                return current.value;
+            }
+        };
+    }
+
+    // POST-ORDER ITERATOR: Left → Right → Root
+    public PrimitiveIterator.OfInt postOrderIterator(TreeNode node) {
+        NodeStack stack = new NodeStack();
+
+        return new PrimitiveIterator.OfInt() {
+            private TreeNode current = node;
+            private TreeNode lastVisited;
+
+            @Override
+            public boolean hasNext() {
+                return current != null || stack.size > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                while (true) {
+                    if (current != null) {
+                        stack.push(current);
+                        current = current.left;
+                        continue;
+                    }
+                    if (stack.size == 0) throw new NoSuchElementException();
+
+                    TreeNode top = stack.peek();
+                    if (top.right != null && top.right != lastVisited) {
+                        current = top.right; // visit the right subtree first
+                    } else {
+                        lastVisited = stack.pop();
+                        return lastVisited.value;
+                    }
+                }
+            }
+        };
+    }
+
+    // LEVEL-ORDER ITERATOR backed by an array ring buffer
+    public PrimitiveIterator.OfInt levelOrderIterator(TreeNode node) {
+        return new PrimitiveIterator.OfInt() {
+            private TreeNode[] queue = new TreeNode[16];
+            private int head, size;
+
+            {
+                if (node != null) offer(node);
+            }
+
+            private void offer(TreeNode n) {
+                if (size == queue.length) {
+                    TreeNode[] bigger = new TreeNode[size * 2];
+                    for (int i = 0; i < size; i++) bigger[i] = queue[(head + i) % queue.length];
+                    queue = bigger;
+                    head = 0;
+                }
+                queue[(head + size++) % queue.length] = n;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return size > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (size == 0) throw new NoSuchElementException();
+                TreeNode current = queue[head];
+                queue[head] = null;
+                head = (head + 1) % queue.length;
+                size--;
+                if (current.left != null) offer(current.left);
+                if (current.right != null) offer(current.right);
+                return current.value;
+            }
+        };
+    }
+
+    /*
+      SUBTREE SPLITERATOR
+      Visits its subtrees in pre-order. trySplit hands the oldest pending
+      subtree (the one closest to the root, so usually the biggest) to a new
+      spliterator. Splits do not preserve encounter order, so the spliterator
+      does not report ORDERED.
+     */
+    private static final class SubtreeSpliterator implements Spliterator.OfInt {
+        private final NodeStack stack = new NodeStack();
+        private boolean hasPending; // a node whose children were split away
+        private int pendingValue;
+        private long estimate;
+
+        SubtreeSpliterator(TreeNode root, long estimate) {
+            if (root != null) stack.push(root);
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (hasPending) {
+                hasPending = false;
+                action.accept(pendingValue);
+                return true;
+            }
+            if (stack.size == 0) return false;
+            TreeNode current = stack.pop();
+            if (current.right != null) stack.push(current.right);
+            if (current.left != null) stack.push(current.left);
+            action.accept(current.value);
+            return true;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            if (stack.size == 0) return null;
+
+            // One pending subtree: keep its root value here and expose its children
+            while (stack.size == 1 && !hasPending) {
+                TreeNode only = stack.pop();
+                hasPending = true;
+                pendingValue = only.value;
+                if (only.left != null) stack.push(only.left);
+                if (only.right != null) stack.push(only.right);
+            }
+            if (stack.size < 2) return null;
+
+            // Hand away the bottom of the stack
+            TreeNode oldest = stack.items[0];
+            System.arraycopy(stack.items, 1, stack.items, 0, stack.size - 1);
+            stack.items[--stack.size] = null;
+
+            estimate >>>= 1;
+            return new SubtreeSpliterator(oldest, estimate);
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.NONNULL;
+        }
+    }
+
+    public Spliterator.OfInt spliterator() {
+        return new SubtreeSpliterator(root, Long.MAX_VALUE);
+    }
+
+    // Bytes allocated so far by the current thread, or -1 if the JVM cannot tell
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    // Builds a complete tree over values 0..n-1 (level-order numbering)
+    private static TreeNode buildComplete(int n) {
+        TreeNode[] nodes = new TreeNode[n];
+        for (int i = 0; i < n; i++) nodes[i] = new TreeNode(i);
+        for (int i = 0; i < n; i++) {
+            if (2 * i + 1 < n) nodes[i].left = nodes[2 * i + 1];
+            if (2 * i + 2 < n) nodes[i].right = nodes[2 * i + 2];
+        }
+        return n == 0 ? null : nodes[0];
+    }
+
+    private static void time(String name, int n, PrimitiveIterator.OfInt it) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        long sum = 0;
+        while (it.hasNext()) sum += it.nextInt();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - bytes;
+        System.out.printf("  %-24s %7.1f M nodes/s, %10d bytes allocated (sum %d)%n",
+                name, n * 1e3 / elapsed, allocated, sum);
+    }
+
+    // QUICK BENCHMARK: traversal throughput and allocation
+    private static void benchmark(int n) {
+        BinaryTree tree = new BinaryTree();
+        tree.root = buildComplete(n);
+        System.out.printf("Complete tree with %d nodes:%n", n);
+
+        for (int round = 0; round < 2; round++) { // first round warms up the JIT
+            time("In-order (Morris)", n, tree.inOrderIterator(tree.root));
+            time("Pre-order (stack)", n, tree.preOrderIterator(tree.root));
+            time("Post-order (stack)", n, tree.postOrderIterator(tree.root));
+            time("Level-order (array)", n, tree.levelOrderIterator(tree.root));
+
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            java.util.Queue<TreeNode> queue = new java.util.LinkedList<>();
+            queue.add(tree.root);
+            long sum = 0;
+            while (!queue.isEmpty()) {
+                TreeNode current = queue.poll();
+                sum += current.value;
+                if (current.left != null) queue.add(current.left);
+                if (current.right != null) queue.add(current.right);
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("  %-24s %7.1f M nodes/s, %10d bytes allocated (sum %d)%n",
+                    "Level-order (LinkedList)", n * 1e3 / elapsed, allocatedBytes() - bytes, sum);
+
+            start = System.nanoTime();
+            sum = StreamSupport.intStream(tree.spliterator(), true).asLongStream().sum();
+            elapsed = System.nanoTime() - start;
+            System.out.printf("  %-24s %7.1f M nodes/s (sum %d)%n", "Parallel stream", n * 1e3 / elapsed, sum);
+        }
+    }
+
     // DEMO
     public static void main(String[] args) {
         BinaryTree tree = new BinaryTree();
@@ -110,5 +415,20 @@ public class BinaryTree {
         System.out.print("Level-order: ");
         tree.levelOrder(tree.root);
         System.out.println();
+
+        System.out.print("In-order iterator: ");
+        PrimitiveIterator.OfInt it = tree.inOrderIterator(tree.root);
+        while (it.hasNext()) System.out.print(it.nextInt() + " ");
+        System.out.println();
+
+        System.out.print("Post-order iterator: ");
+        tree.postOrderIterator(tree.root).forEachRemaining((int v) -> System.out.print(v + " "));
+        System.out.println();
+
+        System.out.println("Parallel stream sum: " + StreamSupport.intStream(tree.spliterator(), true).sum());
+
+        // Pass the number of nodes as the first argument, e.g. 10000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        benchmark(n);
     }
 }
\ No newline at end of file
@@ -0,0 +1,739 @@
+/*
+  Description:
+  --------------------
+  A Concurrent AVL Tree (after Bronson, Casper, Chafi and Olukotun, "A
+  Practical Concurrent Binary Search Tree") where searches take no locks and
+  writers lock only the few nodes they change.
+
+  Every node carries a version number. A rotation marks the node that moves
+  down as "shrinking" while it runs and bumps its version afterwards, because
+  that node's subtree then covers a smaller key range. A search reads the
+  version before following a child pointer and re-checks it afterwards
+  (hand-over-hand validation). If the node shrank in between, only that step is
+  retried from the parent, not the whole search.
+
+  Writers lock nodes with their monitors:
+  - insert locks the parent of the new leaf
+  - delete locks the node and its parent
+  - a rotation locks the parent, the node and the child that moves up (plus
+    the grandchild for a double rotation)
+  So writers in different parts of the tree run in parallel.
+
+  Deleting a node with two children only clears its "present" flag. The node
+  stays behind as a routing node and is unlinked once it has at most one
+  child. Heights are repaired after the write has released its locks (relaxed
+  balance), so the tree can be briefly out of balance while writers race, and
+  is a proper AVL tree again once they finish.
+
+  Supports:
+  - Insert
+  - Delete
+  - Search (lock-free; waits only for a rotation of a node on its path)
+  - In-order traversal (weakly consistent while writers run)
+
+  Use Cases:
+  --------------------
+  - Ordered sets shared by many threads (caches, routing tables)
+  - Replacing a ReentrantReadWriteLock around a tree, which lets only one
+    writer in at a time and makes every reader write to a shared counter
+
+  Time Complexity:
+  --------------------
+  - Search: O(log n), retried only for the step a rotation overlapped
+  - Insert, Delete: O(log n), holding at most four node locks at a time
+
+  Space Complexity:
+  --------------------
+  - O(n), plus routing nodes left by deletes (each has two children, so fewer
+    than the number of present keys)
+
+  Approach:
+  --------------------
+  Think of walking through a building whose corridors are sometimes being
+  rebuilt: before taking a door you note the sign on it, and after stepping
+  through you glance back. If the sign changed, the builders were there, so you
+  step back one room and look again. The builders only close the rooms they are
+  working on, never the whole building.
+ */
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ConcurrentAVLTree {
+
+    private static final class Node {
+        final int value;
+        volatile int height;
+        volatile long version;
+        volatile boolean present; // false for routing nodes left by a delete
+        volatile Node parent, left, right;
+
+        Node(int value, Node parent) {
+            this.value = value;
+            this.parent = parent;
+            height = 1;
+            present = true;
+        }
+
+        // dir is a comparison result: negative goes left, positive goes right
+        Node child(int dir) {
+            return dir < 0 ? left : right;
+        }
+
+        void setChild(int dir, Node node) {
+            if (dir < 0) left = node;
+            else right = node;
+        }
+    }
+
+    // VERSION BITS: unlinked, shrinking, then a change counter
+    private static final long UNLINKED = 1, SHRINKING = 2;
+    private static final int SPINS = 100;
+
+    // Results of a search or update step; for updates FOUND means "was present"
+    private static final int NOT_FOUND = 0, FOUND = 1, RETRY = 2;
+
+    // Results of nodeCondition besides a new height
+    private static final int UNLINK_REQUIRED = -1, REBALANCE_REQUIRED = -2, NOTHING_REQUIRED = -3;
+
+    // The root is rootHolder.right, so rotations at the root need no special case
+    private final Node rootHolder = new Node(Integer.MIN_VALUE, null);
+    private final LongAdder size = new LongAdder();
+
+    public ConcurrentAVLTree() {
+        rootHolder.present = false;
+    }
+
+    private static boolean isShrinkingOrUnlinked(long version) {
+        return (version & (SHRINKING | UNLINKED)) != 0;
+    }
+
+    private static boolean isUnlinked(long version) {
+        return (version & UNLINKED) != 0;
+    }
+
+    private static long beginShrink(long version) {
+        return version | SHRINKING;
+    }
+
+    // Clearing SHRINKING by adding it carries into the change counter
+    private static long endShrink(long version) {
+        return (version | SHRINKING) + SHRINKING;
+    }
+
+    // The shrinking thread holds the node's monitor, so block on it after a short spin
+    private static void waitUntilShrinkCompleted(Node node, long version) {
+        if ((version & SHRINKING) == 0) return;
+        for (int i = 0; i < SPINS; i++) {
+            if (node.version != version) return;
+            Thread.onSpinWait();
+        }
+        synchronized (node) {
+            assert node.version != version;
+        }
+    }
+
+    // GET HEIGHT
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    // SEARCH
+    public boolean search(int value) {
+        while (true) {
+            Node root = rootHolder.right;
+            if (root == null) return false;
+            int cmp = Integer.compare(value, root.value);
+            if (cmp == 0) return root.present;
+            long version = root.version;
+            if (isShrinkingOrUnlinked(version)) {
+                waitUntilShrinkCompleted(root, version);
+            } else if (root == rootHolder.right) {
+                int result = attemptSearch(value, root, cmp, version);
+                if (result != RETRY) return result == FOUND;
+            }
+        }
+    }
+
+    // One step down from node; RETRY sends the caller back to node's parent
+    private int attemptSearch(int value, Node node, int dir, long nodeVersion) {
+        while (true) {
+            Node child = node.child(dir);
+            if (child == null) {
+                return node.version != nodeVersion ? RETRY : NOT_FOUND;
+            }
+            int cmp = Integer.compare(value, child.value);
+            if (cmp == 0) return child.present ? FOUND : NOT_FOUND;
+
+            long childVersion = child.version;
+            if (isShrinkingOrUnlinked(childVersion)) {
+                waitUntilShrinkCompleted(child, childVersion);
+                if (node.version != nodeVersion) return RETRY;
+            } else if (child != node.child(dir)) {
+                if (node.version != nodeVersion) return RETRY;
+            } else {
+                // The step into node is still valid, so the step into child is too
+                if (node.version != nodeVersion) return RETRY;
+                int result = attemptSearch(value, child, cmp, childVersion);
+                if (result != RETRY) return result;
+            }
+        }
+    }
+
+    // INSERT: returns false if the value was already present
+    public boolean insert(int value) {
+        return !update(value, true);
+    }
+
+    // DELETE: returns false if the value was absent
+    public boolean delete(int value) {
+        return update(value, false);
+    }
+
+    // Sets whether value is present and returns whether it was present before
+    private boolean update(int value, boolean present) {
+        while (true) {
+            Node root = rootHolder.right;
+            if (root == null) {
+                if (!present) return false;
+                if (attemptInsertIntoEmpty(value)) return false;
+            } else {
+                long version = root.version;
+                if (isShrinkingOrUnlinked(version)) {
+                    waitUntilShrinkCompleted(root, version);
+                } else if (root == rootHolder.right) {
+                    int result = attemptUpdate(value, present, rootHolder, root, version);
+                    if (result != RETRY) return result == FOUND;
+                }
+            }
+        }
+    }
+
+    private boolean attemptInsertIntoEmpty(int value) {
+        synchronized (rootHolder) {
+            if (rootHolder.right != null) return false;
+            rootHolder.right = new Node(value, rootHolder);
+            rootHolder.height = 2;
+        }
+        size.increment();
+        return true;
+    }
+
+    private int attemptUpdate(int value, boolean present, Node parent, Node node, long nodeVersion) {
+        int cmp = Integer.compare(value, node.value);
+        if (cmp == 0) return attemptNodeUpdate(present, parent, node);
+
+        while (true) {
+            Node child = node.child(cmp);
+            if (node.version != nodeVersion) return RETRY;
+
+            if (child == null) {
+                if (!present) return NOT_FOUND;
+                Node damaged;
+                synchronized (node) {
+                    // Holding node's lock, no rotation can move it any more
+                    if (node.version != nodeVersion) return RETRY;
+                    if (node.child(cmp) != null) continue; // lost a race with another insert
+                    node.setChild(cmp, new Node(value, node));
+                    damaged = fixHeight(node);
+                }
+                size.increment();
+                fixHeightAndRebalance(damaged);
+                return NOT_FOUND;
+            }
+
+            long childVersion = child.version;
+            if (isShrinkingOrUnlinked(childVersion)) {
+                waitUntilShrinkCompleted(child, childVersion);
+            } else if (child == node.child(cmp)) {
+                if (node.version != nodeVersion) return RETRY;
+                int result = attemptUpdate(value, present, node, child, childVersion);
+                if (result != RETRY) return result;
+            }
+        }
+    }
+
+    private int attemptNodeUpdate(boolean present, Node parent, Node node) {
+        if (!present) {
+            if (!node.present) return NOT_FOUND;
+
+            if (node.left == null || node.right == null) {
+                // The node can be unlinked, which needs its parent locked first
+                Node damaged;
+                synchronized (parent) {
+                    if (isUnlinked(parent.version) || node.parent != parent) return RETRY;
+                    synchronized (node) {
+                        if (!node.present) return NOT_FOUND;
+                        if (!attemptUnlink(parent, node)) return RETRY;
+                    }
+                    damaged = fixHeight(parent);
+                }
+                size.decrement();
+                fixHeightAndRebalance(damaged);
+                return FOUND;
+            }
+        }
+
+        synchronized (node) {
+            if (isUnlinked(node.version)) return RETRY;
+            boolean previous = node.present;
+            if (previous == present) return previous ? FOUND : NOT_FOUND;
+            // A child was removed meanwhile, so this delete must unlink instead
+            if (!present && (node.left == null || node.right == null)) return RETRY;
+            node.present = present;
+            if (present) size.increment();
+            else size.decrement();
+            return previous ? FOUND : NOT_FOUND;
+        }
+    }
+
+    // UNLINK a node with at most one child (parent and node locked)
+    private static boolean attemptUnlink(Node parent, Node node) {
+        Node parentLeft = parent.left;
+        if (parentLeft != node && parent.right != node) return false;
+        Node left = node.left, right = node.right;
+        if (left != null && right != null) return false;
+
+        Node splice = left != null ? left : right;
+        if (parentLeft == node) parent.left = splice;
+        else parent.right = splice;
+        if (splice != null) splice.parent = parent;
+
+        node.version = UNLINKED;
+        node.present = false;
+        return true;
+    }
+
+    // What node needs: UNLINK_REQUIRED, REBALANCE_REQUIRED, NOTHING_REQUIRED or a new height
+    private static int nodeCondition(Node node) {
+        Node left = node.left, right = node.right;
+        if ((left == null || right == null) && !node.present) return UNLINK_REQUIRED;
+
+        int h = node.height, hL = height(left), hR = height(right);
+        int balance = hL - hR;
+        if (balance < -1 || balance > 1) return REBALANCE_REQUIRED;
+        int newHeight = 1 + Math.max(hL, hR);
+        return h != newHeight ? newHeight : NOTHING_REQUIRED;
+    }
+
+    // Walk up from a damaged node, fixing heights and rotating where needed
+    private void fixHeightAndRebalance(Node node) {
+        // A rotation or unlink may hand back a node below its parent while the
+        // parent's height is still stale, so once the repairs below are done the
+        // walk climbs from that parent to the root (reads only, no locks)
+        Node resume = null;
+        boolean climbing = false;
+        while (true) {
+            if (node != null && node.parent != null) {
+                int condition = nodeCondition(node);
+                if (condition == NOTHING_REQUIRED || isUnlinked(node.version)) {
+                    if (climbing) {
+                        node = node.parent;
+                        continue;
+                    }
+                } else if (condition != UNLINK_REQUIRED && condition != REBALANCE_REQUIRED) {
+                    synchronized (node) {
+                        node = fixHeight(node);
+                    }
+                    continue;
+                } else {
+                    Node parent = node.parent;
+                    synchronized (parent) {
+                        if (!isUnlinked(parent.version) && node.parent == parent) {
+                            synchronized (node) {
+                                node = rebalance(parent, node);
+                            }
+                        }
+                    }
+                    resume = parent;
+                    continue;
+                }
+            }
+            if (resume == null) return;
+            node = resume;
+            resume = null;
+            climbing = true;
+        }
+    }
+
+    // Fix the height of a locked node; returns the next damaged node, or null
+    private static Node fixHeight(Node node) {
+        int condition = nodeCondition(node);
+        switch (condition) {
+            case REBALANCE_REQUIRED:
+            case UNLINK_REQUIRED:
+                return node;
+            case NOTHING_REQUIRED:
+                return null;
+            default:
+                node.height = condition;
+                return node.parent;
+        }
+    }
+
+    // REBALANCE (parent and node locked); returns the next damaged node, or null
+    private static Node rebalance(Node parent, Node node) {
+        Node left = node.left, right = node.right;
+        if ((left == null || right == null) && !node.present) {
+            return attemptUnlink(parent, node) ? fixHeight(parent) : node;
+        }
+
+        int h = node.height, hL = height(left), hR = height(right);
+        int newHeight = 1 + Math.max(hL, hR);
+        int balance = hL - hR;
+
+        if (balance > 1) return rebalanceToRight(parent, node, left, hR);
+        if (balance < -1) return rebalanceToLeft(parent, node, right, hL);
+        if (newHeight != h) {
+            node.height = newHeight;
+            return fixHeight(parent);
+        }
+        return null;
+    }
+
+    // The left side is too tall: rotate right, first rotating left if left.right is taller
+    private static Node rebalanceToRight(Node parent, Node node, Node left, int hR) {
+        synchronized (left) {
+            if (left.height - hR <= 1) return node; // changed meanwhile, look again
+
+            Node leftRight = left.right;
+            int hLL = height(left.left);
+            int hLR = height(leftRight);
+            if (hLL >= hLR) return rightRotate(parent, node, left, hR, hLL, leftRight, hLR); // LEFT LEFT CASE
+
+            synchronized (leftRight) {
+                hLR = leftRight.height;
+                if (hLL >= hLR) return rightRotate(parent, node, left, hR, hLL, leftRight, hLR);
+
+                int hLRL = height(leftRight.left);
+                int balance = hLL - hLRL;
+                if (balance >= -1 && balance <= 1) {
+                    return leftRightRotate(parent, node, left, hR, hLL, leftRight, hLRL); // LEFT RIGHT CASE
+                }
+            }
+            // A double rotation would leave left unbalanced (only while another writer is
+            // still repairing leftRight), so fix left on its own first
+            return rebalanceToLeft(node, left, leftRight, hLL);
+        }
+    }
+
+    // Mirror image of rebalanceToRight
+    private static Node rebalanceToLeft(Node parent, Node node, Node right, int hL) {
+        synchronized (right) {
+            if (hL - right.height >= -1) return node;
+
+            Node rightLeft = right.left;
+            int hRL = height(rightLeft);
+            int hRR = height(right.right);
+            if (hRR >= hRL) return leftRotate(parent, node, hL, right, rightLeft, hRL, hRR); // RIGHT RIGHT CASE
+
+            synchronized (rightLeft) {
+                hRL = rightLeft.height;
+                if (hRR >= hRL) return leftRotate(parent, node, hL, right, rightLeft, hRL, hRR);
+
+                int hRLR = height(rightLeft.right);
+                int balance = hRR - hRLR;
+                if (balance >= -1 && balance <= 1) {
+                    return rightLeftRotate(parent, node, hL, right, rightLeft, hRR, hRLR); // RIGHT LEFT CASE
+                }
+            }
+            return rebalanceToRight(node, right, rightLeft, hRR);
+        }
+    }
+
+    // RIGHT ROTATE (parent, node and left locked); node moves down, so it shrinks
+    private static Node rightRotate(Node parent, Node node, Node left, int hR, int hLL, Node leftRight, int hLR) {
+        long version = node.version;
+        Node parentLeft = parent.left;
+        node.version = beginShrink(version);
+
+        node.left = leftRight;
+        if (leftRight != null) leftRight.parent = node;
+        left.right = node;
+        node.parent = left;
+        if (parentLeft == node) parent.left = left;
+        else parent.right = left;
+        left.parent = parent;
+
+        int hNode = 1 + Math.max(hLR, hR);
+        node.height = hNode;
+        left.height = 1 + Math.max(hLL, hNode);
+        node.version = endShrink(version);
+
+        // Hand back the deepest node that still needs work, if any
+        int balanceNode = hLR - hR;
+        if (balanceNode < -1 || balanceNode > 1) return node;
+        if ((leftRight == null || hR == 0) && !node.present) return node;
+        int balanceLeft = hLL - hNode;
+        if (balanceLeft < -1 || balanceLeft > 1) return left;
+        if (hLL == 0 && !left.present) return left;
+        return fixHeight(parent);
+    }
+
+    // LEFT ROTATE (parent, node and right locked)
+    private static Node leftRotate(Node parent, Node node, int hL, Node right, Node rightLeft, int hRL, int hRR) {
+        long version = node.version;
+        Node parentLeft = parent.left;
+        node.version = beginShrink(version);
+
+        node.right = rightLeft;
+        if (rightLeft != null) rightLeft.parent = node;
+        right.left = node;
+        node.parent = right;
+        if (parentLeft == node) parent.left = right;
+        else parent.right = right;
+        right.parent = parent;
+
+        int hNode = 1 + Math.max(hL, hRL);
+        node.height = hNode;
+        right.height = 1 + Math.max(hNode, hRR);
+        node.version = endShrink(version);
+
+        int balanceNode = hRL - hL;
+        if (balanceNode < -1 || balanceNode > 1) return node;
+        if ((rightLeft == null || hL == 0) && !node.present) return node;
+        int balanceRight = hRR - hNode;
+        if (balanceRight < -1 || balanceRight > 1) return right;
+        if (hRR == 0 && !right.present) return right;
+        return fixHeight(parent);
+    }
+
+    // LEFT RIGHT ROTATE (parent, node, left and leftRight locked); node and left both shrink
+    private static Node leftRightRotate(Node parent, Node node, Node left, int hR, int hLL, Node leftRight, int hLRL) {
+        long nodeVersion = node.version;
+        long leftVersion = left.version;
+        Node parentLeft = parent.left;
+        Node leftRightLeft = leftRight.left;
+        Node leftRightRight = leftRight.right;
+        int hLRR = height(leftRightRight);
+        node.version = beginShrink(nodeVersion);
+        left.version = beginShrink(leftVersion);
+
+        node.left = leftRightRight;
+        if (leftRightRight != null) leftRightRight.parent = node;
+        left.right = leftRightLeft;
+        if (leftRightLeft != null) leftRightLeft.parent = left;
+        leftRight.left = left;
+        left.parent = leftRight;
+        leftRight.right = node;
+        node.parent = leftRight;
+        if (parentLeft == node) parent.left = leftRight;
+        else parent.right = leftRight;
+        leftRight.parent = parent;
+
+        int hNode = 1 + Math.max(hLRR, hR);
+        node.height = hNode;
+        int hLeft = 1 + Math.max(hLL, hLRL);
+        left.height = hLeft;
+        leftRight.height = 1 + Math.max(hLeft, hNode);
+        node.version = endShrink(nodeVersion);
+        left.version = endShrink(leftVersion);
+
+        // A routing node left with one child is unlinked now, while it is still locked
+        if ((leftRightLeft == null || hLL == 0) && !left.present) {
+            attemptUnlink(leftRight, left);
+            hLeft = Math.max(hLL, hLRL);
+            leftRight.height = 1 + Math.max(hLeft, hNode);
+        }
+
+        int balanceNode = hLRR - hR;
+        if (balanceNode < -1 || balanceNode > 1) return node;
+        if ((leftRightRight == null || hR == 0) && !node.present) return node;
+        int balanceTop = hLeft - hNode;
+        if (balanceTop < -1 || balanceTop > 1) return leftRight;
+        if (hLeft == 0 && !leftRight.present) return leftRight;
+        return fixHeight(parent);
+    }
+
+    // RIGHT LEFT ROTATE (parent, node, right and rightLeft locked)
+    private static Node rightLeftRotate(Node parent, Node node, int hL, Node right, Node rightLeft, int hRR, int hRLR) {
+        long nodeVersion = node.version;
+        long rightVersion = right.version;
+        Node parentLeft = parent.left;
+        Node rightLeftLeft = rightLeft.left;
+        Node rightLeftRight = rightLeft.right;
+        int hRLL = height(rightLeftLeft);
+        node.version = beginShrink(nodeVersion);
+        right.version = beginShrink(rightVersion);
+
+        node.right = rightLeftLeft;
+        if (rightLeftLeft != null) rightLeftLeft.parent = node;
+        right.left = rightLeftRight;
+        if (rightLeftRight != null) rightLeftRight.parent = right;
+        rightLeft.right = right;
+        right.parent = rightLeft;
+        rightLeft.left = node;
+        node.parent = rightLeft;
+        if (parentLeft == node) parent.left = rightLeft;
+        else parent.right = rightLeft;
+        rightLeft.parent = parent;
+
+        int hNode = 1 + Math.max(hL, hRLL);
+        node.height = hNode;
+        int hRight = 1 + Math.max(hRLR, hRR);
+        right.height = hRight;
+        rightLeft.height = 1 + Math.max(hNode, hRight);
+        node.version = endShrink(nodeVersion);
+        right.version = endShrink(rightVersion);
+
+        if ((rightLeftRight == null || hRR == 0) && !right.present) {
+            attemptUnlink(rightLeft, right);
+            hRight = Math.max(hRLR, hRR);
+            rightLeft.height = 1 + Math.max(hNode, hRight);
+        }
+
+        int balanceNode = hRLL - hL;
+        if (balanceNode < -1 || balanceNode > 1) return node;
+        if ((rightLeftLeft == null || hL == 0) && !node.present) return node;
+        int balanceTop = hRight - hNode;
+        if (balanceTop < -1 || balanceTop > 1) return rightLeft;
+        if (hRight == 0 && !rightLeft.present) return rightLeft;
+        return fixHeight(parent);
+    }
+
+    // Exact once writers are done; a close estimate while they run
+    public int size() {
+        return size.intValue();
+    }
+
+    // IN-ORDER TRAVERSAL (not a snapshot: concurrent writes may or may not show up)
+    public void inOrder() {
+        inOrderRec(rootHolder.right);
+        System.out.println();
+    }
+
+    private void inOrderRec(Node node) {
+        if (node == null) return;
+        inOrderRec(node.left);
+        if (node.present) System.out.print(node.value + " ");
+        inOrderRec(node.right);
+    }
+
+    // Common view of both trees for the benchmark
+    private interface IntSet {
+        boolean search(int value);
+
+        void insert(int value);
+
+        void delete(int value);
+    }
+
+    // Baseline: the plain AVLTree behind a ReentrantReadWriteLock
+    private static IntSet lockedAVLTree() {
+        AVLTree tree = new AVLTree();
+        ReentrantReadWriteLock rw = new ReentrantReadWriteLock();
+        return new IntSet() {
+            public boolean search(int value) {
+                rw.readLock().lock();
+                try {
+                    return tree.search(value);
+                } finally {
+                    rw.readLock().unlock();
+                }
+            }
+
+            public void insert(int value) {
+                rw.writeLock().lock();
+                try {
+                    tree.insert(value);
+                } finally {
+                    rw.writeLock().unlock();
+                }
+            }
+
+            public void delete(int value) {
+                rw.writeLock().lock();
+                try {
+                    tree.delete(value);
+                } finally {
+                    rw.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    private static IntSet concurrentAVLTree() {
+        ConcurrentAVLTree tree = new ConcurrentAVLTree();
+        return new IntSet() {
+            public boolean search(int value) {
+                return tree.search(value);
+            }
+
+            public void insert(int value) {
+                tree.insert(value);
+            }
+
+            public void delete(int value) {
+                tree.delete(value);
+            }
+        };
+    }
+
+    // Runs a mixed workload and returns operations per second
+    private static double run(IntSet set, int keyRange, int threads, int readPercent, long millis)
+            throws InterruptedException {
+        Random random = new Random(42);
+        for (int i = 0; i < keyRange / 2; i++) set.insert(random.nextInt(keyRange));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong ops = new AtomicLong();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            workers[t] = new Thread(() -> {
+                Random r = new Random(seed);
+                long local = 0;
+                while (running.get()) {
+                    int key = r.nextInt(keyRange);
+                    int op = r.nextInt(100);
+                    if (op < readPercent) set.search(key);
+                    else if ((op & 1) == 0) set.insert(key);
+                    else set.delete(key);
+                    local++;
+                }
+                ops.addAndGet(local);
+            });
+            workers[t].start();
+        }
+        Thread.sleep(millis);
+        running.set(false);
+        for (Thread w : workers) w.join();
+        return ops.get() * 1000.0 / millis;
+    }
+
+    // QUICK BENCHMARK: lookup scaling at 90/10 and 50/50 read/write
+    private static void benchmark(int keyRange, int maxThreads) throws InterruptedException {
+        for (int readPercent : new int[] { 90, 50 }) {
+            System.out.printf("%d%% reads, %d keys:%n", readPercent, keyRange);
+            System.out.println("  threads   RW-locked AVLTree   ConcurrentAVLTree   (M ops/s)");
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                double locked = run(lockedAVLTree(), keyRange, threads, readPercent, 1000);
+                double concurrent = run(concurrentAVLTree(), keyRange, threads, readPercent, 1000);
+                System.out.printf("  %7d   %17.2f   %17.2f%n", threads, locked / 1e6, concurrent / 1e6);
+            }
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentAVLTree avl = new ConcurrentAVLTree();
+
+        int[] values = { 10, 20, 30, 40, 50, 25 };
+        for (int v : values) avl.insert(v);
+
+        System.out.print("AVL In-order (sorted): ");
+        avl.inOrder();
+
+        avl.delete(30);
+        System.out.println("Searching 30 after delete: " + avl.search(30));
+        System.out.println("Searching 25: " + avl.search(25));
+
+        // Arguments: key range, maximum thread count (doubled from 1), e.g. 1000000 64
+        int keyRange = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        benchmark(keyRange, maxThreads);
+    }
+}
@@ -0,0 +1,687 @@
+/*
+  Description:
+  --------------------
+  A disk-resident B+ Tree keeps its nodes in fixed-size pages of a file instead
+  of on the heap, so the index can be far larger than memory. Pages are read
+  through a small, bounded buffer pool: only the pages currently in use (plus
+  a cache of recently used ones) are held in RAM.
+
+  File layout (all pages have the same size, e.g. 4 KiB):
+  - Page 0: header (magic, page size, root page, page count, size, height)
+  - Leaf page:  [type][count][next leaf] keys[] values[]
+  - Inner page: [type][count]            keys[] children[]
+
+  Buffer pool:
+  - Each frame has a pin count; pinned frames are never evicted
+  - Eviction uses the CLOCK algorithm (a cheap approximation of LRU)
+  - Dirty frames are only written back during a checkpoint
+
+  Crash consistency:
+  - A checkpoint first writes every dirty page to a journal file, followed by
+    a checksum, and forces it to disk
+  - Only then are the pages written in place, after which the journal is cleared
+  - On open, a complete journal is replayed; a torn one is ignored, because the
+    main file was not touched yet
+  - Checkpoints only happen between operations, so the file always holds the
+    state after some whole number of inserts
+
+  Supports:
+  - Insert / update (put)
+  - Point lookup (get, containsKey)
+  - Range scan over linked leaves
+  - flush() to make all previous inserts durable
+
+  Use Cases:
+  --------------------
+  - Ordered indexes that do not fit in the Java heap
+  - Embedded key/value stores and database storage engines
+
+  Time Complexity:
+  --------------------
+  - Search, Insert: O(log n) comparisons, O(log_B n) page reads
+  - Range scan: O(log_B n + k / B) page reads for k reported keys
+
+  Space Complexity:
+  --------------------
+  - O(n) on disk, O(pool pages * page size) in memory
+
+  Approach:
+  --------------------
+  Think of a warehouse with a small counter: the shelves (disk) hold every
+  box, but only a few boxes fit on the counter (buffer pool). Boxes someone is
+  working on are held down (pinned); when space runs out, the clerk walks the
+  counter in a circle and puts back the first box nobody touched recently.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+public class DiskBPlusTree implements Closeable {
+
+    // Receives the entries of a range scan in ascending key order
+    public interface RangeConsumer {
+        void accept(long key, long value);
+    }
+
+    private static final int MAGIC = 0x42505431; // "BPT1"
+    private static final int NO_PAGE = -1;
+
+    // Header page offsets
+    private static final int H_MAGIC = 0, H_PAGE_SIZE = 4, H_ROOT = 8, H_PAGE_COUNT = 12, H_SIZE = 16, H_HEIGHT = 24;
+
+    // Node page offsets
+    private static final int N_TYPE = 0, N_COUNT = 4, N_NEXT = 8, N_DATA = 16;
+    private static final byte LEAF = 0, INNER = 1;
+
+    /*
+      BUFFER POOL
+      Caches a bounded number of pages in memory and writes dirty pages back
+      through the journal.
+     */
+    private static final class BufferPool {
+        private final FileChannel file;
+        private final Path journalPath;
+        private final int pageSize;
+
+        private final ByteBuffer[] frames;
+        private final int[] pageIds;
+        private final int[] pinCount;
+        private final boolean[] dirty;
+        private final boolean[] referenced;
+        private final Map<Integer, Integer> pageTable = new HashMap<>();
+        private int clockHand;
+        private int dirtyCount;
+
+        long hits, misses;
+
+        BufferPool(FileChannel file, Path journalPath, int pageSize, int capacity) {
+            this.file = file;
+            this.journalPath = journalPath;
+            this.pageSize = pageSize;
+            frames = new ByteBuffer[capacity];
+            pageIds = new int[capacity];
+            pinCount = new int[capacity];
+            dirty = new boolean[capacity];
+            referenced = new boolean[capacity];
+            for (int i = 0; i < capacity; i++) {
+                frames[i] = ByteBuffer.allocate(pageSize);
+                pageIds[i] = NO_PAGE;
+            }
+        }
+
+        int capacity() {
+            return frames.length;
+        }
+
+        int dirtyCount() {
+            return dirtyCount;
+        }
+
+        ByteBuffer page(int frame) {
+            return frames[frame];
+        }
+
+        // Pin an existing page, reading it from disk on a miss
+        int pin(int pageId) throws IOException {
+            Integer cached = pageTable.get(pageId);
+            if (cached != null) {
+                hits++;
+                pinCount[cached]++;
+                referenced[cached] = true;
+                return cached;
+            }
+            misses++;
+            int frame = evict();
+            ByteBuffer buf = frames[frame];
+            buf.clear();
+            long position = (long) pageId * pageSize;
+            while (buf.hasRemaining()) {
+                if (file.read(buf, position + buf.position()) < 0) {
+                    throw new IOException("Unexpected end of file reading page " + pageId);
+                }
+            }
+            install(frame, pageId);
+            return frame;
+        }
+
+        // Pin a freshly allocated page that does not exist on disk yet
+        int pinNew(int pageId) {
+            int frame = evict();
+            ByteBuffer buf = frames[frame];
+            buf.clear();
+            for (int i = 0; i < pageSize; i += 8) buf.putLong(i, 0L);
+            install(frame, pageId);
+            markDirty(frame);
+            return frame;
+        }
+
+        void unpin(int frame, boolean modified) {
+            if (modified) markDirty(frame);
+            pinCount[frame]--;
+        }
+
+        private void install(int frame, int pageId) {
+            pageIds[frame] = pageId;
+            pageTable.put(pageId, frame);
+            pinCount[frame] = 1;
+            referenced[frame] = true;
+        }
+
+        private void markDirty(int frame) {
+            if (!dirty[frame]) {
+                dirty[frame] = true;
+                dirtyCount++;
+            }
+        }
+
+        // CLOCK: give every referenced frame a second chance. Dirty frames are
+        // never evicted directly; they are written by the next checkpoint.
+        private int evict() {
+            for (int scanned = 0; scanned < 2 * frames.length; scanned++) {
+                int frame = clockHand;
+                clockHand = (clockHand + 1) % frames.length;
+                if (pinCount[frame] > 0 || dirty[frame]) continue;
+                if (referenced[frame]) {
+                    referenced[frame] = false;
+                    continue;
+                }
+                if (pageIds[frame] != NO_PAGE) pageTable.remove(pageIds[frame]);
+                pageIds[frame] = NO_PAGE;
+                return frame;
+            }
+            throw new IllegalStateException("Buffer pool exhausted: all frames are pinned or dirty");
+        }
+
+        // CHECKPOINT: journal all dirty pages, then write them in place
+        void checkpoint() throws IOException {
+            if (dirtyCount == 0) return;
+
+            CRC32 crc = new CRC32();
+            ByteBuffer record = ByteBuffer.allocate(4 + pageSize);
+            try (FileChannel journal = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int f = 0; f < frames.length; f++) {
+                    if (!dirty[f]) continue;
+                    record.clear();
+                    record.putInt(pageIds[f]);
+                    record.put(frames[f].duplicate().clear());
+                    record.flip();
+                    crc.update(record.duplicate());
+                    writeFully(journal, record);
+                }
+                ByteBuffer trailer = ByteBuffer.allocate(16);
+                trailer.putInt(NO_PAGE).putInt(dirtyCount).putLong(crc.getValue()).flip();
+                writeFully(journal, trailer);
+                journal.force(true);
+            }
+
+            for (int f = 0; f < frames.length; f++) {
+                if (!dirty[f]) continue;
+                ByteBuffer buf = frames[f].duplicate().clear();
+                long position = (long) pageIds[f] * pageSize;
+                while (buf.hasRemaining()) file.write(buf, position + buf.position());
+                dirty[f] = false;
+            }
+            dirtyCount = 0;
+            file.force(true);
+            Files.deleteIfExists(journalPath);
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+    }
+
+    private final Path path;
+    private final FileChannel file;
+    private final int pageSize;
+    private final int leafCapacity;
+    private final int innerCapacity;
+    private final BufferPool pool;
+    private int headerFrame; // page 0 stays pinned for the life of the tree
+
+    private int rootPage;
+    private int pageCount;
+    private long size;
+    private int height;
+
+    // Scratch space for splitting a full node
+    private final long[] tmpKeys;
+    private final long[] tmpValues;
+    private final int[] tmpChildren;
+    private long splitKey;
+
+    private DiskBPlusTree(Path path, FileChannel file, int pageSize, int poolPages) {
+        this.path = path;
+        this.file = file;
+        this.pageSize = pageSize;
+        this.leafCapacity = (pageSize - N_DATA) / 16;
+        this.innerCapacity = (pageSize - N_DATA - 4) / 12;
+        this.pool = new BufferPool(file, journalPath(path), pageSize, poolPages);
+        this.tmpKeys = new long[Math.max(leafCapacity, innerCapacity) + 1];
+        this.tmpValues = new long[leafCapacity + 1];
+        this.tmpChildren = new int[innerCapacity + 2];
+    }
+
+    private static Path journalPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".journal");
+    }
+
+    // OPEN an existing tree or create a new one
+    public static DiskBPlusTree open(Path path, int pageSize, int poolPages) throws IOException {
+        if (pageSize < 256 || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("Page size must be a power of two >= 256");
+        }
+        if (poolPages < 32) throw new IllegalArgumentException("Buffer pool needs at least 32 pages");
+
+        FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            recover(file, journalPath(path), pageSize);
+
+            DiskBPlusTree tree = new DiskBPlusTree(path, file, pageSize, poolPages);
+            if (file.size() == 0) {
+                int header = tree.pool.pinNew(0);
+                tree.headerFrame = header;
+                int root = tree.pool.pinNew(1);
+                ByteBuffer leaf = tree.pool.page(root);
+                leaf.put(N_TYPE, LEAF);
+                leaf.putInt(N_NEXT, NO_PAGE);
+                tree.pool.unpin(root, true);
+                tree.rootPage = 1;
+                tree.pageCount = 2;
+                tree.height = 1;
+                tree.writeHeader(header);
+                tree.pool.checkpoint();
+            } else {
+                int header = tree.pool.pin(0);
+                tree.headerFrame = header;
+                ByteBuffer buf = tree.pool.page(header);
+                if (buf.getInt(H_MAGIC) != MAGIC) throw new IOException("Not a B+ tree file: " + path);
+                if (buf.getInt(H_PAGE_SIZE) != pageSize) {
+                    throw new IOException("File was created with page size " + buf.getInt(H_PAGE_SIZE));
+                }
+                tree.rootPage = buf.getInt(H_ROOT);
+                tree.pageCount = buf.getInt(H_PAGE_COUNT);
+                tree.size = buf.getLong(H_SIZE);
+                tree.height = buf.getInt(H_HEIGHT);
+            }
+            return tree;
+        } catch (IOException | RuntimeException e) {
+            // Close only the channel: close() would flush a half-opened tree
+            file.close();
+            throw e;
+        }
+    }
+
+    // Replay a complete journal left behind by an interrupted checkpoint
+    private static void recover(FileChannel file, Path journalPath, int pageSize) throws IOException {
+        if (!Files.exists(journalPath)) return;
+
+        byte[] journal = Files.readAllBytes(journalPath);
+        int recordSize = 4 + pageSize;
+        ByteBuffer buf = ByteBuffer.wrap(journal);
+        boolean complete = false;
+        if (journal.length >= 16 && (journal.length - 16) % recordSize == 0) {
+            int records = (journal.length - 16) / recordSize;
+            CRC32 crc = new CRC32();
+            crc.update(journal, 0, records * recordSize);
+            buf.position(records * recordSize);
+            complete = buf.getInt() == NO_PAGE && buf.getInt() == records && buf.getLong() == crc.getValue();
+        }
+
+        if (complete) {
+            for (int offset = 0; offset < journal.length - 16; offset += recordSize) {
+                int pageId = buf.getInt(offset);
+                ByteBuffer page = ByteBuffer.wrap(journal, offset + 4, pageSize);
+                long position = (long) pageId * pageSize;
+                while (page.hasRemaining()) file.write(page, position + page.position() - offset - 4);
+            }
+            file.force(true);
+        }
+        Files.delete(journalPath);
+    }
+
+    private void writeHeader(int frame) {
+        ByteBuffer buf = pool.page(frame);
+        buf.putInt(H_MAGIC, MAGIC);
+        buf.putInt(H_PAGE_SIZE, pageSize);
+        buf.putInt(H_ROOT, rootPage);
+        buf.putInt(H_PAGE_COUNT, pageCount);
+        buf.putLong(H_SIZE, size);
+        buf.putInt(H_HEIGHT, height);
+        pool.markDirty(frame);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public long poolHits() {
+        return pool.hits;
+    }
+
+    public long poolMisses() {
+        return pool.misses;
+    }
+
+    // PAGE ACCESSORS
+    private static boolean isLeaf(ByteBuffer page) {
+        return page.get(N_TYPE) == LEAF;
+    }
+
+    private static long key(ByteBuffer page, int i) {
+        return page.getLong(N_DATA + 8 * i);
+    }
+
+    private long leafValue(ByteBuffer page, int i) {
+        return page.getLong(N_DATA + 8 * leafCapacity + 8 * i);
+    }
+
+    private int child(ByteBuffer page, int i) {
+        return page.getInt(N_DATA + 8 * innerCapacity + 4 * i);
+    }
+
+    // FIRST INDEX i WITH key(i) >= key
+    private static int lowerBound(ByteBuffer page, int count, long key) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key(page, mid) < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // CHILD TO FOLLOW: key(i) is the smallest key reachable through child(i + 1)
+    private static int childIndex(ByteBuffer page, long key) {
+        int lo = 0, hi = page.getInt(N_COUNT);
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key(page, mid) <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Pin the leaf that may contain key; the caller must unpin it
+    private int findLeaf(long key) throws IOException {
+        int frame = pool.pin(rootPage);
+        ByteBuffer page = pool.page(frame);
+        while (!isLeaf(page)) {
+            int next = child(page, childIndex(page, key));
+            pool.unpin(frame, false);
+            frame = pool.pin(next);
+            page = pool.page(frame);
+        }
+        return frame;
+    }
+
+    // SEARCH
+    public boolean containsKey(long key) throws IOException {
+        int frame = findLeaf(key);
+        ByteBuffer page = pool.page(frame);
+        int count = page.getInt(N_COUNT);
+        int pos = lowerBound(page, count, key);
+        boolean found = pos < count && key(page, pos) == key;
+        pool.unpin(frame, false);
+        return found;
+    }
+
+    public long get(long key, long defaultValue) throws IOException {
+        int frame = findLeaf(key);
+        ByteBuffer page = pool.page(frame);
+        int count = page.getInt(N_COUNT);
+        int pos = lowerBound(page, count, key);
+        long result = pos < count && key(page, pos) == key ? leafValue(page, pos) : defaultValue;
+        pool.unpin(frame, false);
+        return result;
+    }
+
+    // RANGE SCAN over [from, to], returns the number of entries visited
+    public long forEachInRange(long from, long to, RangeConsumer consumer) throws IOException {
+        long visited = 0;
+        int frame = findLeaf(from);
+        ByteBuffer page = pool.page(frame);
+        int pos = lowerBound(page, page.getInt(N_COUNT), from);
+        while (true) {
+            int count = page.getInt(N_COUNT);
+            for (; pos < count; pos++) {
+                long k = key(page, pos);
+                if (k > to) {
+                    pool.unpin(frame, false);
+                    return visited;
+                }
+                consumer.accept(k, leafValue(page, pos));
+                visited++;
+            }
+            int next = page.getInt(N_NEXT);
+            pool.unpin(frame, false);
+            if (next == NO_PAGE) return visited;
+            frame = pool.pin(next);
+            page = pool.page(frame);
+            pos = 0;
+        }
+    }
+
+    // INSERT (or update if the key already exists)
+    public void put(long key, long value) throws IOException {
+        // An insert dirties at most two pages per level plus a new root, so make
+        // sure that many clean frames exist before starting. This keeps every
+        // checkpoint on an operation boundary.
+        int reserve = 2 * height + 4;
+        if (pool.dirtyCount() > pool.capacity() - reserve) pool.checkpoint();
+
+        int right = insertRec(rootPage, key, value);
+        if (right != NO_PAGE) {
+            int newRoot = pageCount++;
+            int frame = pool.pinNew(newRoot);
+            ByteBuffer page = pool.page(frame);
+            page.put(N_TYPE, INNER);
+            page.putInt(N_COUNT, 1);
+            page.putLong(N_DATA, splitKey);
+            page.putInt(N_DATA + 8 * innerCapacity, rootPage);
+            page.putInt(N_DATA + 8 * innerCapacity + 4, right);
+            pool.unpin(frame, true);
+            rootPage = newRoot;
+            height++;
+        }
+        writeHeader(headerFrame);
+    }
+
+    // Returns the page id of the new right sibling if the node split, otherwise NO_PAGE
+    private int insertRec(int pageId, long key, long value) throws IOException {
+        int frame = pool.pin(pageId);
+        ByteBuffer page = pool.page(frame);
+        int count = page.getInt(N_COUNT);
+
+        if (isLeaf(page)) {
+            int pos = lowerBound(page, count, key);
+            if (pos < count && key(page, pos) == key) {
+                page.putLong(N_DATA + 8 * leafCapacity + 8 * pos, value);
+                pool.unpin(frame, true);
+                return NO_PAGE;
+            }
+            size++;
+            if (count < leafCapacity) {
+                for (int i = count; i > pos; i--) {
+                    page.putLong(N_DATA + 8 * i, key(page, i - 1));
+                    page.putLong(N_DATA + 8 * leafCapacity + 8 * i, leafValue(page, i - 1));
+                }
+                page.putLong(N_DATA + 8 * pos, key);
+                page.putLong(N_DATA + 8 * leafCapacity + 8 * pos, value);
+                page.putInt(N_COUNT, count + 1);
+                pool.unpin(frame, true);
+                return NO_PAGE;
+            }
+            int right = splitLeaf(page, count, pos, key, value);
+            pool.unpin(frame, true);
+            return right;
+        }
+
+        int idx = childIndex(page, key);
+        int right = insertRec(child(page, idx), key, value);
+        if (right == NO_PAGE) {
+            pool.unpin(frame, false);
+            return NO_PAGE;
+        }
+        if (count < innerCapacity) {
+            for (int i = count; i > idx; i--) page.putLong(N_DATA + 8 * i, key(page, i - 1));
+            for (int i = count + 1; i > idx + 1; i--) {
+                page.putInt(N_DATA + 8 * innerCapacity + 4 * i, child(page, i - 1));
+            }
+            page.putLong(N_DATA + 8 * idx, splitKey);
+            page.putInt(N_DATA + 8 * innerCapacity + 4 * (idx + 1), right);
+            page.putInt(N_COUNT, count + 1);
+            pool.unpin(frame, true);
+            return NO_PAGE;
+        }
+        int newRight = splitInner(page, count, idx, splitKey, right);
+        pool.unpin(frame, true);
+        return newRight;
+    }
+
+    private int splitLeaf(ByteBuffer page, int count, int pos, long key, long value) {
+        for (int i = 0, j = 0; i <= count; i++) {
+            if (i == pos) {
+                tmpKeys[i] = key;
+                tmpValues[i] = value;
+            } else {
+                tmpKeys[i] = key(page, j);
+                tmpValues[i] = leafValue(page, j);
+                j++;
+            }
+        }
+        int total = count + 1, mid = total / 2;
+
+        int rightId = pageCount++;
+        int rightFrame = pool.pinNew(rightId);
+        ByteBuffer right = pool.page(rightFrame);
+        right.put(N_TYPE, LEAF);
+        right.putInt(N_COUNT, total - mid);
+        right.putInt(N_NEXT, page.getInt(N_NEXT));
+        for (int i = mid; i < total; i++) {
+            right.putLong(N_DATA + 8 * (i - mid), tmpKeys[i]);
+            right.putLong(N_DATA + 8 * leafCapacity + 8 * (i - mid), tmpValues[i]);
+        }
+        pool.unpin(rightFrame, true);
+
+        for (int i = 0; i < mid; i++) {
+            page.putLong(N_DATA + 8 * i, tmpKeys[i]);
+            page.putLong(N_DATA + 8 * leafCapacity + 8 * i, tmpValues[i]);
+        }
+        page.putInt(N_COUNT, mid);
+        page.putInt(N_NEXT, rightId);
+        splitKey = tmpKeys[mid];
+        return rightId;
+    }
+
+    private int splitInner(ByteBuffer page, int count, int idx, long newKey, int newChild) {
+        for (int i = 0, j = 0; i <= count; i++) tmpKeys[i] = i == idx ? newKey : key(page, j++);
+        for (int i = 0, j = 0; i <= count + 1; i++) tmpChildren[i] = i == idx + 1 ? newChild : child(page, j++);
+        int total = count + 1, mid = total / 2;
+
+        int rightId = pageCount++;
+        int rightFrame = pool.pinNew(rightId);
+        ByteBuffer right = pool.page(rightFrame);
+        right.put(N_TYPE, INNER);
+        right.putInt(N_COUNT, total - mid - 1);
+        for (int i = mid + 1; i < total; i++) right.putLong(N_DATA + 8 * (i - mid - 1), tmpKeys[i]);
+        for (int i = mid + 1; i <= total; i++) {
+            right.putInt(N_DATA + 8 * innerCapacity + 4 * (i - mid - 1), tmpChildren[i]);
+        }
+        pool.unpin(rightFrame, true);
+
+        for (int i = 0; i < mid; i++) page.putLong(N_DATA + 8 * i, tmpKeys[i]);
+        for (int i = 0; i <= mid; i++) page.putInt(N_DATA + 8 * innerCapacity + 4 * i, tmpChildren[i]);
+        page.putInt(N_COUNT, mid);
+        splitKey = tmpKeys[mid]; // middle key moves up
+        return rightId;
+    }
+
+    // Make every insert so far durable
+    public void flush() throws IOException {
+        pool.checkpoint();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        file.close();
+    }
+
+    // QUICK BENCHMARK: random lookups with a working set ~10x the buffer pool
+    private static void benchmark(int n) throws IOException {
+        Path path = Files.createTempFile("bptree", ".db");
+        int pageSize = 4096;
+        try (DiskBPlusTree tree = open(path, pageSize, 256)) {
+            Random random = new Random(42);
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                long k = random.nextInt(Integer.MAX_VALUE);
+                tree.put(k, i);
+            }
+            long insertTime = System.nanoTime() - start;
+            tree.flush();
+
+            long fileBytes = Files.size(path);
+            System.out.printf("Inserted %d keys in %.2f s (file %.1f MiB, pool %.1f MiB, %.1fx)%n",
+                    n, insertTime / 1e9, fileBytes / 1048576.0, 256.0 * pageSize / 1048576.0,
+                    fileBytes / (256.0 * pageSize));
+
+            long hitsBefore = tree.poolHits(), missesBefore = tree.poolMisses();
+            int lookups = 1_000_000;
+            long found = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                if (tree.containsKey(random.nextInt(Integer.MAX_VALUE))) found++;
+            }
+            long lookupTime = System.nanoTime() - start;
+            long hits = tree.poolHits() - hitsBefore, misses = tree.poolMisses() - missesBefore;
+            System.out.printf("%d lookups: %.0f lookups/s, pool hit rate %.1f%% (found=%d)%n",
+                    lookups, lookups * 1e9 / lookupTime, 100.0 * hits / (hits + misses), found);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) throws IOException {
+        Path path = Files.createTempFile("bptree-demo", ".db");
+        try {
+            try (DiskBPlusTree tree = open(path, 4096, 32)) {
+                for (int i = 0; i < 10_000; i++) tree.put(i * 2L, i);
+                System.out.println("Inserted " + tree.size() + " keys, height " + tree.height());
+            }
+
+            // Reopen from disk
+            try (DiskBPlusTree tree = open(path, 4096, 32)) {
+                System.out.println("After reopen, size = " + tree.size());
+                System.out.println("get(1234) = " + tree.get(1234, -1));
+                System.out.println("containsKey(1235) = " + tree.containsKey(1235));
+                System.out.print("Keys in [100, 120]: ");
+                tree.forEachInRange(100, 120, (k, v) -> System.out.print(k + " "));
+                System.out.println();
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+
+        // Pass the number of keys as the first argument, e.g. 5000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        benchmark(n);
+    }
+}
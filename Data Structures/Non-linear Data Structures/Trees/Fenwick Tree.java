@@ -0,0 +1,90 @@
+/*
+  Description:
+  --------------------
+  A Fenwick Tree (Binary Indexed Tree) answers prefix sums and applies point
+  updates in O(log n) using a single array of n + 1 slots. Slot i stores the
+  sum of the last (i & -i) elements ending at position i, where (i & -i) is
+  the lowest set bit of i.
+
+  It exposes the same query/update API as SegmentTree, with 64-bit sums, and
+  uses a quarter of the memory of a 4n segment tree.
+
+  Supports:
+  - Build in O(n)
+  - Prefix sum and range sum query
+  - Point update (set a value) and point add
+
+  Use Cases:
+  --------------------
+  - Running totals and frequency tables that change over time
+  - Counting inversions, order statistics on small value ranges
+  - Any range-sum problem where memory matters
+
+  Time Complexity:
+  --------------------
+  - Build: O(n)
+  - Query: O(log n)
+  - Update: O(log n)
+
+  Space Complexity:
+  --------------------
+  - O(n), exactly n + 1 longs
+
+  Approach:
+  --------------------
+  Think of a set of piggy banks where bank i holds the savings of the last
+  "lowest bit of i" days. To get the total up to day i, empty banks while
+  stripping the lowest bit from i; to add to day i, drop coins in every bank
+  you reach by adding the lowest bit to i.
+ */
+
+public class FenwickTree {
+
+    private final long[] tree; // 1-based
+    private final int n;
+
+    public FenwickTree(int[] arr) {
+        n = arr.length;
+        tree = new long[n + 1];
+        for (int i = 1; i <= n; i++) tree[i] = arr[i - 1];
+
+        // O(n) build: push each partial sum up to its parent once
+        for (int i = 1; i <= n; i++) {
+            int parent = i + (i & -i);
+            if (parent <= n) tree[parent] += tree[i];
+        }
+    }
+
+    // Sum of arr[0..index]
+    public long prefixSum(int index) {
+        long sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    // Sum of arr[l..r]
+    public long query(int l, int r) {
+        return prefixSum(r) - (l == 0 ? 0 : prefixSum(l - 1));
+    }
+
+    // arr[index] += delta
+    public void add(int index, long delta) {
+        for (int i = index + 1; i <= n; i += i & -i) tree[i] += delta;
+    }
+
+    // arr[index] = value
+    public void update(int index, long value) {
+        add(index, value - query(index, index));
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        int[] arr = { 1, 3, 5, 7, 9, 11 };
+        FenwickTree ft = new FenwickTree(arr);
+
+        System.out.println("Sum of values in range [1, 3]: " + ft.query(1, 3));
+        ft.update(1, 10);
+        System.out.println("After update, sum of values in range [1, 3]: " + ft.query(1, 3));
+        System.out.println("Prefix sum up to index 5: " + ft.prefixSum(5));
+    }
+}
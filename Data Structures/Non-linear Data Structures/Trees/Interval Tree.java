@@ -0,0 +1,357 @@
+/*
+  Description:
+  --------------------
+  An Interval Tree stores ranges [start, end) and answers "which stored ranges
+  overlap this one?" without scanning all of them. It is a balanced BST (here
+  an AVL tree) keyed on start, where every node is augmented with the largest
+  end found anywhere in its subtree (maxEnd).
+
+  The augmentation lets a query skip whole subtrees:
+  - If a subtree's maxEnd <= queryStart, nothing in it can reach the query.
+  - If a node's start >= queryEnd, nothing to its right can overlap either.
+
+  A StaticIntervalTree is included for read-only data: intervals are sorted by
+  start into flat int arrays and the tree is implicit (the middle element of
+  every range is its root), so it needs no node objects at all.
+
+  Supports:
+  - Insert, Delete (intervals are identified by start, end and id)
+  - Stabbing query: all intervals containing a point
+  - Overlap query: all intervals overlapping [start, end)
+  - Bulk-built static variant
+
+  Use Cases:
+  --------------------
+  - Booking and calendar systems ("is this room free from 2pm to 4pm?")
+  - Genome annotation lookups
+  - Window / event queries over time ranges
+
+  Time Complexity:
+  --------------------
+  - Insert, Delete: O(log n)
+  - Query: O(log n + k) typical for k results, O(min(n, k log n)) worst case
+  - Static build: O(n log n) for sorting, O(n) for the augmentation
+
+  Space Complexity:
+  --------------------
+  - O(n)
+
+  Approach:
+  --------------------
+  Think of a calendar sorted by meeting start time, where each page also
+  notes the latest finishing time of any meeting on it or after it in its
+  section. To find meetings that clash with 2pm-4pm you skip every section
+  whose latest finish is before 2pm and stop reading once meetings start
+  after 4pm.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class IntervalTree {
+
+    // Receives every interval reported by a query
+    public interface IntervalConsumer {
+        void accept(int start, int end, int id);
+    }
+
+    private static final class Node {
+        int start, end, id;
+        int maxEnd, height;
+        Node left, right;
+
+        Node(int start, int end, int id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.maxEnd = end;
+            this.height = 1;
+        }
+    }
+
+    private Node root;
+    private int size;
+    private boolean changed;
+
+    public int size() {
+        return size;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int maxEnd(Node node) {
+        return node == null ? Integer.MIN_VALUE : node.maxEnd;
+    }
+
+    // Keep height and maxEnd correct after a child changes
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.maxEnd = Math.max(node.end, Math.max(maxEnd(node.left), maxEnd(node.right)));
+    }
+
+    // Order by start, then end, then id, so equal ranges can coexist
+    private static int compare(int start, int end, int id, Node node) {
+        if (start != node.start) return Integer.compare(start, node.start);
+        if (end != node.end) return Integer.compare(end, node.end);
+        return Integer.compare(id, node.id);
+    }
+
+    private static Node rightRotate(Node y) {
+        Node x = y.left;
+        y.left = x.right;
+        x.right = y;
+        update(y);
+        update(x);
+        return x;
+    }
+
+    private static Node leftRotate(Node x) {
+        Node y = x.right;
+        x.right = y.left;
+        y.left = x;
+        update(x);
+        update(y);
+        return y;
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) node.left = leftRotate(node.left);
+            return rightRotate(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) node.right = rightRotate(node.right);
+            return leftRotate(node);
+        }
+        return node;
+    }
+
+    // INSERT [start, end) tagged with id; returns false for an exact duplicate
+    public boolean insert(int start, int end, int id) {
+        if (start >= end) throw new IllegalArgumentException("Empty interval [" + start + ", " + end + ")");
+        changed = false;
+        root = insertRec(root, start, end, id);
+        if (changed) size++;
+        return changed;
+    }
+
+    private Node insertRec(Node node, int start, int end, int id) {
+        if (node == null) {
+            changed = true;
+            return new Node(start, end, id);
+        }
+
+        int cmp = compare(start, end, id, node);
+        if (cmp < 0) node.left = insertRec(node.left, start, end, id);
+        else if (cmp > 0) node.right = insertRec(node.right, start, end, id);
+        else return node;
+
+        return rebalance(node);
+    }
+
+    // DELETE the interval with exactly this start, end and id
+    public boolean delete(int start, int end, int id) {
+        changed = false;
+        root = deleteRec(root, start, end, id);
+        if (changed) size--;
+        return changed;
+    }
+
+    private Node deleteRec(Node node, int start, int end, int id) {
+        if (node == null) return null;
+
+        int cmp = compare(start, end, id, node);
+        if (cmp < 0) node.left = deleteRec(node.left, start, end, id);
+        else if (cmp > 0) node.right = deleteRec(node.right, start, end, id);
+        else {
+            changed = true;
+            if (node.left == null || node.right == null) {
+                return node.left != null ? node.left : node.right;
+            }
+            Node successor = node.right;
+            while (successor.left != null) successor = successor.left;
+            node.start = successor.start;
+            node.end = successor.end;
+            node.id = successor.id;
+            node.right = deleteRec(node.right, successor.start, successor.end, successor.id);
+        }
+
+        return rebalance(node);
+    }
+
+    // OVERLAP QUERY: report every interval with start < queryEnd and end > queryStart
+    public int forEachOverlapping(int queryStart, int queryEnd, IntervalConsumer consumer) {
+        return overlapRec(root, queryStart, queryEnd, consumer);
+    }
+
+    private int overlapRec(Node node, int queryStart, int queryEnd, IntervalConsumer consumer) {
+        if (node == null || node.maxEnd <= queryStart) return 0; // nothing here reaches the query
+
+        int count = overlapRec(node.left, queryStart, queryEnd, consumer);
+        if (node.start < queryEnd) {
+            if (node.end > queryStart) {
+                consumer.accept(node.start, node.end, node.id);
+                count++;
+            }
+            count += overlapRec(node.right, queryStart, queryEnd, consumer);
+        }
+        return count;
+    }
+
+    // STABBING QUERY: report every interval containing point
+    public int forEachContaining(int point, IntervalConsumer consumer) {
+        return point == Integer.MAX_VALUE ? 0 : forEachOverlapping(point, point + 1, consumer);
+    }
+
+    /*
+      STATIC INTERVAL TREE
+      Read-only variant built in bulk. Intervals are sorted by start; the
+      middle element of every index range acts as that range's root, and
+      maxEnd[mid] holds the largest end within the range.
+     */
+    public static final class StaticIntervalTree {
+        private final int[] starts, ends, ids, maxEnd;
+
+        public StaticIntervalTree(int[] starts, int[] ends, int[] ids) {
+            int n = starts.length;
+            if (ends.length != n || ids.length != n) {
+                throw new IllegalArgumentException("Arrays must have the same length");
+            }
+
+            // Sort indices by start: pack (start, index) into one long
+            long[] order = new long[n];
+            for (int i = 0; i < n; i++) order[i] = ((long) starts[i] << 32) | i;
+            Arrays.sort(order);
+
+            this.starts = new int[n];
+            this.ends = new int[n];
+            this.ids = new int[n];
+            this.maxEnd = new int[n];
+            for (int i = 0; i < n; i++) {
+                int src = (int) order[i];
+                this.starts[i] = starts[src];
+                this.ends[i] = ends[src];
+                this.ids[i] = ids[src];
+            }
+            build(0, n);
+        }
+
+        public int size() {
+            return starts.length;
+        }
+
+        private int build(int lo, int hi) {
+            if (lo >= hi) return Integer.MIN_VALUE;
+            int mid = (lo + hi) >>> 1;
+            int max = Math.max(ends[mid], Math.max(build(lo, mid), build(mid + 1, hi)));
+            maxEnd[mid] = max;
+            return max;
+        }
+
+        public int forEachOverlapping(int queryStart, int queryEnd, IntervalConsumer consumer) {
+            return query(0, starts.length, queryStart, queryEnd, consumer);
+        }
+
+        public int forEachContaining(int point, IntervalConsumer consumer) {
+            return point == Integer.MAX_VALUE ? 0 : query(0, starts.length, point, point + 1, consumer);
+        }
+
+        private int query(int lo, int hi, int queryStart, int queryEnd, IntervalConsumer consumer) {
+            if (lo >= hi) return 0;
+            int mid = (lo + hi) >>> 1;
+            if (maxEnd[mid] <= queryStart) return 0;
+
+            int count = query(lo, mid, queryStart, queryEnd, consumer);
+            if (starts[mid] < queryEnd) {
+                if (ends[mid] > queryStart) {
+                    consumer.accept(starts[mid], ends[mid], ids[mid]);
+                    count++;
+                }
+                count += query(mid + 1, hi, queryStart, queryEnd, consumer);
+            }
+            return count;
+        }
+    }
+
+    // QUICK BENCHMARK: overlap queries against a linear scan
+    private static void benchmark(int n) {
+        Random random = new Random(42);
+        int horizon = 100_000_000;
+        int[] starts = new int[n], ends = new int[n], ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = random.nextInt(horizon);
+            ends[i] = starts[i] + 1 + random.nextInt(1_000);
+            ids[i] = i;
+        }
+
+        long start = System.nanoTime();
+        StaticIntervalTree staticTree = new StaticIntervalTree(starts, ends, ids);
+        long buildStatic = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        IntervalTree tree = new IntervalTree();
+        for (int i = 0; i < n; i++) tree.insert(starts[i], ends[i], ids[i]);
+        long buildDynamic = System.nanoTime() - start;
+
+        int queries = 10_000;
+        int[] qs = new int[queries];
+        for (int i = 0; i < queries; i++) qs[i] = random.nextInt(horizon);
+        IntervalConsumer ignore = (s, e, id) -> { };
+
+        start = System.nanoTime();
+        long found = 0;
+        for (int q : qs) found += tree.forEachOverlapping(q, q + 500, ignore);
+        long dynamicTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int q : qs) found += staticTree.forEachOverlapping(q, q + 500, ignore);
+        long staticTime = System.nanoTime() - start;
+
+        int scanQueries = 100;
+        start = System.nanoTime();
+        for (int i = 0; i < scanQueries; i++) {
+            int q = qs[i];
+            for (int j = 0; j < n; j++) if (starts[j] < q + 500 && ends[j] > q) found++;
+        }
+        long scanTime = System.nanoTime() - start;
+
+        System.out.printf("n=%d intervals (found=%d)%n", n, found);
+        System.out.printf("  Build: IntervalTree %.0f ms, StaticIntervalTree %.0f ms%n",
+                buildDynamic / 1e6, buildStatic / 1e6);
+        System.out.printf("  IntervalTree:       %.1f us/query%n", dynamicTime / 1e3 / queries);
+        System.out.printf("  StaticIntervalTree: %.1f us/query%n", staticTime / 1e3 / queries);
+        System.out.printf("  Linear scan:        %.1f us/query%n", scanTime / 1e3 / scanQueries);
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        IntervalTree bookings = new IntervalTree();
+        bookings.insert(9, 11, 1);
+        bookings.insert(10, 12, 2);
+        bookings.insert(13, 15, 3);
+        bookings.insert(14, 17, 4);
+        bookings.insert(16, 18, 5);
+
+        System.out.print("Bookings overlapping [11, 14): ");
+        bookings.forEachOverlapping(11, 14, (s, e, id) -> System.out.print("#" + id + "[" + s + "," + e + ") "));
+        System.out.println();
+
+        System.out.print("Bookings active at 16: ");
+        bookings.forEachContaining(16, (s, e, id) -> System.out.print("#" + id + " "));
+        System.out.println();
+
+        bookings.delete(14, 17, 4);
+        System.out.print("After cancelling #4, active at 16: ");
+        bookings.forEachContaining(16, (s, e, id) -> System.out.print("#" + id + " "));
+        System.out.println();
+
+        // Pass the number of intervals as the first argument, e.g. 10000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        benchmark(n);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+  Description:
+  --------------------
+  An Iterative (bottom-up) Segment Tree stores the tree in exactly 2n slots
+  with no recursion. The leaves live at positions n..2n-1 and every inner
+  node i is the sum of nodes 2i and 2i + 1. Queries and updates walk up from
+  the leaves with simple loops instead of recursive calls over 4n slots.
+
+  It exposes the same query/update API as SegmentTree, with 64-bit sums so
+  large counters do not overflow.
+
+  Supports:
+  - Build tree
+  - Range query (sum)
+  - Update value
+
+  Use Cases:
+  --------------------
+  - Range sum queries over very large arrays
+  - Hot loops where recursion overhead matters
+  - Any associative operation (min, max, xor) with the same layout
+
+  Time Complexity:
+  --------------------
+  - Build: O(n)
+  - Query: O(log n)
+  - Update: O(log n)
+
+  Space Complexity:
+  --------------------
+  - O(n), exactly 2n longs
+
+  Approach:
+  --------------------
+  Picture the array as the bottom row of a pyramid. To sum [l, r], start with
+  a pointer on each end of the bottom row: whenever a pointer sits on a block
+  that its neighbour does not share a parent with, take that block and step
+  inward, then move both pointers up a row until they meet.
+ */
+
+import java.util.Random;
+
+public class IterativeSegmentTree {
+
+    private final long[] tree;
+    private final int n;
+
+    public IterativeSegmentTree(int[] arr) {
+        n = arr.length;
+        tree = new long[2 * n];
+        for (int i = 0; i < n; i++) tree[n + i] = arr[i];
+        for (int i = n - 1; i > 0; i--) tree[i] = tree[2 * i] + tree[2 * i + 1];
+    }
+
+    // Sum of arr[l..r]
+    public long query(int l, int r) {
+        long sum = 0;
+        for (l += n, r += n + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) sum += tree[l++];
+            if ((r & 1) == 1) sum += tree[--r];
+        }
+        return sum;
+    }
+
+    // arr[index] = value
+    public void update(int index, long value) {
+        int i = index + n;
+        tree[i] = value;
+        for (i >>= 1; i > 0; i >>= 1) tree[i] = tree[2 * i] + tree[2 * i + 1];
+    }
+
+    // QUICK BENCHMARK against the recursive SegmentTree and the FenwickTree
+    private static void benchmark(int n, int ops) {
+        Random random = new Random(42);
+        int[] arr = new int[n];
+        for (int i = 0; i < n; i++) arr[i] = random.nextInt(1000);
+        int[] ls = new int[ops], rs = new int[ops];
+        for (int i = 0; i < ops; i++) {
+            int a = random.nextInt(n), b = random.nextInt(n);
+            ls[i] = Math.min(a, b);
+            rs[i] = Math.max(a, b);
+        }
+
+        System.out.printf("n=%d, %d queries + %d updates%n", n, ops, ops);
+        System.out.printf("  Memory: SegmentTree %d MB (4n ints), IterativeSegmentTree %d MB (2n longs),"
+                + " FenwickTree %d MB (n+1 longs)%n", 16L * n >> 20, 16L * n >> 20, 8L * (n + 1) >> 20);
+
+        long checksum = 0;
+        SegmentTree recursive = new SegmentTree(arr);
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) checksum += recursive.query(ls[i], rs[i]);
+        long queryTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ops; i++) recursive.update(ls[i], rs[i] & 1023);
+        long updateTime = System.nanoTime() - start;
+        System.out.printf("  SegmentTree:          %6.2f M queries/s, %6.2f M updates/s%n",
+                ops * 1e3 / queryTime, ops * 1e3 / updateTime);
+
+        IterativeSegmentTree iterative = new IterativeSegmentTree(arr);
+        start = System.nanoTime();
+        for (int i = 0; i < ops; i++) checksum += iterative.query(ls[i], rs[i]);
+        queryTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ops; i++) iterative.update(ls[i], rs[i] & 1023);
+        updateTime = System.nanoTime() - start;
+        System.out.printf("  IterativeSegmentTree: %6.2f M queries/s, %6.2f M updates/s%n",
+                ops * 1e3 / queryTime, ops * 1e3 / updateTime);
+
+        FenwickTree fenwick = new FenwickTree(arr);
+        start = System.nanoTime();
+        for (int i = 0; i < ops; i++) checksum += fenwick.query(ls[i], rs[i]);
+        queryTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ops; i++) fenwick.update(ls[i], rs[i] & 1023);
+        updateTime = System.nanoTime() - start;
+        System.out.printf("  FenwickTree:          %6.2f M queries/s, %6.2f M updates/s%n",
+                ops * 1e3 / queryTime, ops * 1e3 / updateTime);
+        System.out.println("  (checksum " + checksum + ")");
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        int[] arr = { 1, 3, 5, 7, 9, 11 };
+        IterativeSegmentTree st = new IterativeSegmentTree(arr);
+
+        System.out.println("Sum of values in range [1, 3]: " + st.query(1, 3));
+        st.update(1, 10);
+        System.out.println("After update, sum of values in range [1, 3]: " + st.query(1, 3));
+
+        // Arguments: array size, number of operations, e.g. 100000000 10000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        benchmark(n, ops);
+    }
+}
@@ -0,0 +1,389 @@
+/*
+  Description:
+  --------------------
+  A Lazy Segment Tree extends the classic Segment Tree with range updates.
+  Instead of touching every element in [l, r], an update stops at the
+  O(log n) nodes that exactly cover the range and leaves a "pending" tag
+  there. The tag is pushed down to the children only when a later query or
+  update needs to look inside that node.
+
+  The tree is generic over a Monoid on long values: an associative combine
+  with an identity (sum, min, max, gcd, or your own). The monoid also says
+  how a whole segment's aggregate changes under the range updates:
+  - assign: every element in the range becomes v (any Monoid)
+  - add:    every element in the range increases by v (only a RangeAddMonoid,
+            through LazySegmentTree.WithAdd)
+
+  Range add only exists on WithAdd, so a tree over a monoid that cannot
+  support it (GCD) has no add method to call.
+
+  Supports:
+  - Build tree
+  - Range query for any monoid
+  - Range assign and range add in O(log n)
+  - Descent: first index whose prefix aggregate satisfies a condition
+    (e.g. first index where the prefix sum reaches x)
+
+  Use Cases:
+  --------------------
+  - Counters and balances updated over whole ranges (long, no overflow at int range)
+  - Range min / max with bulk adjustments (scheduling, resource levels)
+  - Finding the k-th unit or the first position reaching a threshold
+
+  Time Complexity:
+  --------------------
+  - Build: O(n)
+  - Query, Range assign, Range add: O(log n)
+  - Prefix descent: O(log n)
+
+  Space Complexity:
+  --------------------
+  - O(n), four arrays of 4n slots
+
+  Approach:
+  --------------------
+  Think of a manager who receives "give everyone in departments 3-7 a raise".
+  Instead of visiting every employee, the manager leaves a sticky note on each
+  department head's desk. The note is only passed down to the team when
+  someone actually asks about an individual in that department.
+ */
+
+import java.util.Random;
+import java.util.function.LongPredicate;
+
+public class LazySegmentTree {
+
+    // Associative operation on long values, plus how it reacts to range assign
+    public interface Monoid {
+        long identity();
+
+        long combine(long a, long b);
+
+        // Aggregate of `length` elements that are all equal to value
+        long repeat(long value, int length);
+    }
+
+    // A monoid whose aggregate can also be shifted by a range add
+    public interface RangeAddMonoid extends Monoid {
+        // Aggregate after adding delta to each of `length` elements
+        long add(long aggregate, long delta, int length);
+    }
+
+    public static final RangeAddMonoid SUM = new RangeAddMonoid() {
+        public long identity() {
+            return 0;
+        }
+
+        public long combine(long a, long b) {
+            return a + b;
+        }
+
+        public long repeat(long value, int length) {
+            return value * length;
+        }
+
+        public long add(long aggregate, long delta, int length) {
+            return aggregate + delta * length;
+        }
+    };
+
+    public static final RangeAddMonoid MIN = new RangeAddMonoid() {
+        public long identity() {
+            return Long.MAX_VALUE;
+        }
+
+        public long combine(long a, long b) {
+            return Math.min(a, b);
+        }
+
+        public long repeat(long value, int length) {
+            return value;
+        }
+
+        public long add(long aggregate, long delta, int length) {
+            return aggregate + delta;
+        }
+    };
+
+    public static final RangeAddMonoid MAX = new RangeAddMonoid() {
+        public long identity() {
+            return Long.MIN_VALUE;
+        }
+
+        public long combine(long a, long b) {
+            return Math.max(a, b);
+        }
+
+        public long repeat(long value, int length) {
+            return value;
+        }
+
+        public long add(long aggregate, long delta, int length) {
+            return aggregate + delta;
+        }
+    };
+
+    // gcd(a + d, b + d) cannot be derived from gcd(a, b), so GCD only supports assign
+    public static final Monoid GCD = new Monoid() {
+        public long identity() {
+            return 0;
+        }
+
+        public long combine(long a, long b) {
+            a = Math.abs(a);
+            b = Math.abs(b);
+            while (b != 0) {
+                long t = a % b;
+                a = b;
+                b = t;
+            }
+            return a;
+        }
+
+        public long repeat(long value, int length) {
+            return Math.abs(value);
+        }
+    };
+
+    private final Monoid monoid;
+    private final RangeAddMonoid adder; // null unless built as WithAdd
+    private final int n;
+    private final long[] tree;
+    private final long[] pendingAdd;
+    private final long[] pendingAssign;
+    private final boolean[] hasAssign;
+
+    public LazySegmentTree(long[] arr, Monoid monoid) {
+        this(arr, monoid, null);
+    }
+
+    private LazySegmentTree(long[] arr, Monoid monoid, RangeAddMonoid adder) {
+        this.monoid = monoid;
+        this.adder = adder;
+        this.n = arr.length;
+        int slots = Math.max(4 * n, 1);
+        tree = new long[slots];
+        pendingAdd = new long[slots];
+        pendingAssign = new long[slots];
+        hasAssign = new boolean[slots];
+        if (n > 0) build(arr, 0, n - 1, 1);
+    }
+
+    private void build(long[] arr, int start, int end, int node) {
+        if (start == end) {
+            tree[node] = arr[start];
+            return;
+        }
+
+        int mid = (start + end) / 2;
+        build(arr, start, mid, 2 * node);
+        build(arr, mid + 1, end, 2 * node + 1);
+        tree[node] = monoid.combine(tree[2 * node], tree[2 * node + 1]);
+    }
+
+    // APPLY a tag to a node that covers `length` elements
+    private void applyAssign(int node, int length, long value) {
+        tree[node] = monoid.repeat(value, length);
+        pendingAssign[node] = value;
+        hasAssign[node] = true;
+        pendingAdd[node] = 0;
+    }
+
+    private void applyAdd(int node, int length, long delta) {
+        tree[node] = adder.add(tree[node], delta, length);
+        if (hasAssign[node]) pendingAssign[node] += delta; // assign then add = assign (v + delta)
+        else pendingAdd[node] += delta;
+    }
+
+    // PUSH pending tags to the two children (pendingAdd stays 0 unless this is a WithAdd)
+    private void push(int node, int start, int mid, int end) {
+        if (hasAssign[node]) {
+            applyAssign(2 * node, mid - start + 1, pendingAssign[node]);
+            applyAssign(2 * node + 1, end - mid, pendingAssign[node]);
+            hasAssign[node] = false;
+        }
+        if (pendingAdd[node] != 0) {
+            applyAdd(2 * node, mid - start + 1, pendingAdd[node]);
+            applyAdd(2 * node + 1, end - mid, pendingAdd[node]);
+            pendingAdd[node] = 0;
+        }
+    }
+
+    public long query(int l, int r) {
+        checkRange(l, r);
+        return queryRec(1, 0, n - 1, l, r);
+    }
+
+    private long queryRec(int node, int start, int end, int l, int r) {
+        if (r < start || l > end) return monoid.identity(); // no overlap
+        if (l <= start && end <= r) return tree[node];      // total overlap
+
+        int mid = (start + end) / 2;
+        push(node, start, mid, end);
+        long left = queryRec(2 * node, start, mid, l, r);
+        long right = queryRec(2 * node + 1, mid + 1, end, l, r);
+        return monoid.combine(left, right);
+    }
+
+    // RANGE ASSIGN: arr[l..r] = value
+    public void assign(int l, int r, long value) {
+        checkRange(l, r);
+        assignRec(1, 0, n - 1, l, r, value);
+    }
+
+    private void assignRec(int node, int start, int end, int l, int r, long value) {
+        if (r < start || l > end) return;
+        if (l <= start && end <= r) {
+            applyAssign(node, end - start + 1, value);
+            return;
+        }
+
+        int mid = (start + end) / 2;
+        push(node, start, mid, end);
+        assignRec(2 * node, start, mid, l, r, value);
+        assignRec(2 * node + 1, mid + 1, end, l, r, value);
+        tree[node] = monoid.combine(tree[2 * node], tree[2 * node + 1]);
+    }
+
+    // RANGE ADD, exposed only by WithAdd so that adder is never null here
+    private void addRange(int l, int r, long delta) {
+        checkRange(l, r);
+        addRec(1, 0, n - 1, l, r, delta);
+    }
+
+    private void addRec(int node, int start, int end, int l, int r, long delta) {
+        if (r < start || l > end) return;
+        if (l <= start && end <= r) {
+            applyAdd(node, end - start + 1, delta);
+            return;
+        }
+
+        int mid = (start + end) / 2;
+        push(node, start, mid, end);
+        addRec(2 * node, start, mid, l, r, delta);
+        addRec(2 * node + 1, mid + 1, end, l, r, delta);
+        tree[node] = monoid.combine(tree[2 * node], tree[2 * node + 1]);
+    }
+
+    public void update(int index, long value) {
+        assign(index, index, value);
+    }
+
+    /*
+      PREFIX DESCENT
+      Returns the smallest r such that condition(combine(arr[0..r])) is true,
+      or -1 if there is none. The condition must be monotone: once true for
+      some prefix it stays true for every longer prefix (e.g. prefix sum >= x
+      with non-negative values, or prefix min <= x).
+     */
+    public int firstPrefixWhere(LongPredicate condition) {
+        if (n == 0 || !condition.test(tree[1])) return -1;
+
+        int node = 1, start = 0, end = n - 1;
+        long acc = monoid.identity();
+        while (start != end) {
+            int mid = (start + end) / 2;
+            push(node, start, mid, end);
+            long withLeft = monoid.combine(acc, tree[2 * node]);
+            if (condition.test(withLeft)) {
+                node = 2 * node;
+                end = mid;
+            } else {
+                acc = withLeft;
+                node = 2 * node + 1;
+                start = mid + 1;
+            }
+        }
+        return start;
+    }
+
+    // First index where the prefix sum reaches x (SUM monoid, non-negative values)
+    public int lowerBoundPrefixSum(long x) {
+        return firstPrefixWhere(sum -> sum >= x);
+    }
+
+    private void checkRange(int l, int r) {
+        if (l < 0 || r >= n || l > r) {
+            throw new IndexOutOfBoundsException("Invalid range [" + l + ", " + r + "] for size " + n);
+        }
+    }
+
+    // A lazy segment tree that also supports range add; needs a RangeAddMonoid
+    public static final class WithAdd extends LazySegmentTree {
+        public WithAdd(long[] arr, RangeAddMonoid monoid) {
+            super(arr, monoid, monoid);
+        }
+
+        // RANGE ADD: arr[l..r] += delta
+        public void add(int l, int r, long delta) {
+            super.addRange(l, r, delta); // private in the outer class, so reached through super
+        }
+    }
+
+    // QUICK BENCHMARK: mixed range adds and range sums against the point-update SegmentTree
+    private static void benchmark(int n, int ops, int maxWidth) {
+        Random random = new Random(42);
+        int[] values = new int[n];
+        long[] longs = new long[n];
+        for (int i = 0; i < n; i++) longs[i] = values[i] = random.nextInt(100);
+
+        int[] ls = new int[ops], rs = new int[ops];
+        for (int i = 0; i < ops; i++) {
+            ls[i] = random.nextInt(n);
+            rs[i] = Math.min(n - 1, ls[i] + random.nextInt(maxWidth));
+        }
+
+        LazySegmentTree.WithAdd lazy = new LazySegmentTree.WithAdd(longs, SUM);
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            if ((i & 1) == 0) lazy.add(ls[i], rs[i], 1);
+            else checksum += lazy.query(ls[i], rs[i]);
+        }
+        long lazyTime = System.nanoTime() - start;
+
+        // The point-update tree has to apply a range add one element at a time
+        SegmentTree point = new SegmentTree(values);
+        long pointChecksum = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            if ((i & 1) == 0) {
+                for (int j = ls[i]; j <= rs[i]; j++) point.update(j, ++values[j]);
+            } else {
+                pointChecksum += point.query(ls[i], rs[i]);
+            }
+        }
+        long pointTime = System.nanoTime() - start;
+
+        System.out.printf("n=%d, %d ops (50%% range add, 50%% range sum), widths up to %d%n", n, ops, maxWidth);
+        System.out.printf("  LazySegmentTree: %.2f M ops/s (checksum %d)%n", ops * 1e3 / lazyTime, checksum);
+        System.out.printf("  SegmentTree:     %.2f M ops/s (checksum %d)%n", ops * 1e3 / pointTime, pointChecksum);
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        long[] arr = { 1, 3, 5, 7, 9, 11 };
+
+        LazySegmentTree.WithAdd sums = new LazySegmentTree.WithAdd(arr, SUM);
+        System.out.println("Sum of values in range [1, 3]: " + sums.query(1, 3));
+        sums.add(0, 5, 10);
+        System.out.println("After adding 10 to all, sum of [1, 3]: " + sums.query(1, 3));
+        sums.assign(2, 4, 0);
+        System.out.println("After setting [2, 4] to 0, sum of [0, 5]: " + sums.query(0, 5));
+        System.out.println("First index where prefix sum >= 25: " + sums.lowerBoundPrefixSum(25));
+
+        LazySegmentTree.WithAdd mins = new LazySegmentTree.WithAdd(arr, MIN);
+        mins.add(0, 2, 10);
+        System.out.println("Min of [0, 5] after adding 10 to [0, 2]: " + mins.query(0, 5));
+
+        // GCD is a plain Monoid, so gcds.add(...) would not compile
+        LazySegmentTree gcds = new LazySegmentTree(new long[] { 12, 18, 24, 36 }, GCD);
+        gcds.assign(1, 2, 30);
+        System.out.println("GCD of [0, 3] after setting [1, 2] to 30: " + gcds.query(0, 3));
+
+        // Arguments: array size, operation count, e.g. 1000000 10000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        benchmark(n, ops, 1_000);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+  Description:
+  --------------------
+  A Parallel Segment Tree is a read-only (frozen) range-sum tree that is
+  built in parallel and answers many queries at once.
+
+  - Build: the two halves of every segment are independent, so the recursive
+    build is split into fork/join tasks until segments get small.
+  - Layout: nodes are stored in depth-first order in exactly 2n - 1 slots.
+    The left child of node v is v + 1 and the right child is
+    v + 2 * (size of the left half), so no 4n array is needed.
+  - Batched queries: queryBatch groups the ranges by their left end (a
+    counting sort), cuts them into chunks and evaluates the chunks in
+    parallel. Inside a chunk every range becomes two prefix sums; the prefix
+    endpoints are sorted and answered along one root-to-leaf path that is
+    reused: moving to the next endpoint only climbs back to the common
+    ancestor instead of restarting at the root.
+  - Thread safety: the tree never changes after construction, so any number
+    of threads may call query and queryBatch at the same time without locks.
+
+  Supports:
+  - Parallel build from an int array (64-bit sums)
+  - Range query (sum)
+  - Batched range queries, evaluated in parallel
+
+  Use Cases:
+  --------------------
+  - Very large static arrays queried by many request threads
+  - Analytics jobs that evaluate millions of ranges at once
+
+  Time Complexity:
+  --------------------
+  - Build: O(n) work, O(log n) span
+  - Query: O(log n)
+  - Batch of q queries: O(q log n) work at most, less when ranges are close
+
+  Space Complexity:
+  --------------------
+  - O(n), exactly 2n - 1 longs
+
+  Approach:
+  --------------------
+  Think of counting votes in a country: each region counts its own ballots at
+  the same time, then the totals are added up the hierarchy. Later, when a
+  stack of questions arrives ("how many votes in regions 3-17?"), you sort
+  them and answer them in one walk through the filing cabinet instead of
+  opening it once per question.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelSegmentTree {
+
+    // Segments smaller than this are built sequentially
+    private static final int BUILD_THRESHOLD = 1 << 14;
+    // Number of queries walked together by one task
+    private static final int BATCH_CHUNK = 1 << 12;
+    // Path depth is at most ceil(log2 n) + 1
+    private static final int MAX_DEPTH = 40;
+
+    private final long[] tree;
+    private final int n;
+    private final ForkJoinPool pool;
+
+    public ParallelSegmentTree(int[] arr) {
+        this(arr, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSegmentTree(int[] arr, ForkJoinPool pool) {
+        this.n = arr.length;
+        this.pool = pool;
+        this.tree = new long[Math.max(2 * n - 1, 0)];
+        if (n > 0) pool.invoke(new BuildTask(arr, 0, n - 1, 0));
+    }
+
+    private static int rightChild(int node, int start, int mid) {
+        return node + 2 * (mid - start + 1);
+    }
+
+    private final class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr;
+        private final int start, end, node;
+
+        BuildTask(int[] arr, int start, int end, int node) {
+            this.arr = arr;
+            this.start = start;
+            this.end = end;
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start < BUILD_THRESHOLD) {
+                build(arr, start, end, node);
+                return;
+            }
+            int mid = (start + end) / 2;
+            invokeAll(new BuildTask(arr, start, mid, node + 1),
+                      new BuildTask(arr, mid + 1, end, rightChild(node, start, mid)));
+            tree[node] = tree[node + 1] + tree[rightChild(node, start, mid)];
+        }
+    }
+
+    private long build(int[] arr, int start, int end, int node) {
+        if (start == end) return tree[node] = arr[start];
+
+        int mid = (start + end) / 2;
+        long left = build(arr, start, mid, node + 1);
+        long right = build(arr, mid + 1, end, rightChild(node, start, mid));
+        return tree[node] = left + right;
+    }
+
+    public long query(int l, int r) {
+        if (l < 0 || r >= n || l > r) {
+            throw new IndexOutOfBoundsException("Invalid range [" + l + ", " + r + "] for size " + n);
+        }
+        return queryRec(0, 0, n - 1, l, r);
+    }
+
+    private long queryRec(int node, int start, int end, int l, int r) {
+        if (r < start || l > end) return 0;               // no overlap
+        if (l <= start && end <= r) return tree[node];    // total overlap
+
+        int mid = (start + end) / 2;
+        return queryRec(node + 1, start, mid, l, r)
+             + queryRec(rightChild(node, start, mid), mid + 1, end, l, r);
+    }
+
+    /*
+      BATCHED QUERIES
+      out[i] = sum of arr[l[i]..r[i]]. Safe to call from several threads at
+      once; each call uses its own scratch space.
+     */
+    public void queryBatch(int[] l, int[] r, long[] out) {
+        int q = l.length;
+        if (r.length != q || out.length < q) throw new IllegalArgumentException("Array lengths differ");
+        for (int i = 0; i < q; i++) {
+            if (l[i] < 0 || r[i] >= n || l[i] > r[i]) {
+                throw new IndexOutOfBoundsException("Invalid range [" + l[i] + ", " + r[i] + "] for size " + n);
+            }
+        }
+        if (q == 0) return;
+
+        // Order query ids by left end with a counting sort on l. Exact order
+        // inside a bucket does not matter, only that neighbours stay together.
+        int buckets = Math.max(1, q / 16);
+        int[] bucketStart = new int[buckets + 1];
+        for (int i = 0; i < q; i++) bucketStart[bucketOf(l[i], buckets) + 1]++;
+        for (int b = 0; b < buckets; b++) bucketStart[b + 1] += bucketStart[b];
+        int[] order = new int[q];
+        for (int i = 0; i < q; i++) order[bucketStart[bucketOf(l[i], buckets)]++] = i;
+
+        pool.invoke(new BatchTask(order, 0, q, l, r, out));
+    }
+
+    private int bucketOf(int index, int buckets) {
+        return (int) ((long) index * buckets / n);
+    }
+
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] order;
+        private final int from, to;
+        private final int[] l, r;
+        private final long[] out;
+
+        BatchTask(int[] order, int from, int to, int[] l, int[] r, long[] out) {
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.l = l;
+            this.r = r;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(order, from, mid, l, r, out),
+                          new BatchTask(order, mid, to, l, r, out));
+                return;
+            }
+
+            // Each range is prefix(r + 1) - prefix(l); sort this chunk's endpoints
+            int size = to - from;
+            long[] points = new long[2 * size];
+            for (int i = 0; i < size; i++) {
+                int id = order[from + i];
+                points[2 * i] = ((long) l[id] << 32) | (2 * i);
+                points[2 * i + 1] = ((long) (r[id] + 1) << 32) | (2 * i + 1);
+            }
+            Arrays.sort(points);
+
+            // Root-to-leaf path of the previous endpoint, reused by the next one
+            int[] nodes = new int[MAX_DEPTH], starts = new int[MAX_DEPTH], ends = new int[MAX_DEPTH];
+            long[] before = new long[MAX_DEPTH]; // sum of everything left of the node
+            ends[0] = n - 1;
+            int depth = 0;
+
+            long[] prefix = new long[2 * size];
+            for (long point : points) {
+                int p = (int) (point >>> 32), slot = (int) point;
+                if (p == 0) continue; // empty prefix
+                int target = p - 1;
+
+                // Climb to the deepest node on the path that still covers target
+                while (target > ends[depth]) depth--;
+
+                // Descend until target is the last index of the node
+                while (target != ends[depth]) {
+                    int node = nodes[depth], start = starts[depth], end = ends[depth];
+                    int mid = (start + end) / 2;
+                    if (target <= mid) {
+                        nodes[depth + 1] = node + 1;
+                        starts[depth + 1] = start;
+                        ends[depth + 1] = mid;
+                        before[depth + 1] = before[depth];
+                    } else {
+                        nodes[depth + 1] = rightChild(node, start, mid);
+                        starts[depth + 1] = mid + 1;
+                        ends[depth + 1] = end;
+                        before[depth + 1] = before[depth] + tree[node + 1];
+                    }
+                    depth++;
+                }
+                prefix[slot] = before[depth] + tree[nodes[depth]];
+            }
+
+            for (int i = 0; i < size; i++) out[order[from + i]] = prefix[2 * i + 1] - prefix[2 * i];
+        }
+    }
+
+    // QUICK BENCHMARK: build scaling and batched vs single queries
+    private static void benchmark(int n, int queries) {
+        Random random = new Random(42);
+        int[] arr = new int[n];
+        for (int i = 0; i < n; i++) arr[i] = random.nextInt(1000);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("Build of n=%d:%n", n);
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long start = System.nanoTime();
+            new ParallelSegmentTree(arr, pool);
+            System.out.printf("  %2d threads: %.0f ms%n", threads, (System.nanoTime() - start) / 1e6);
+            pool.shutdown();
+        }
+        long start = System.nanoTime();
+        new SegmentTree(arr);
+        System.out.printf("  SegmentTree (sequential, 4n ints): %.0f ms%n", (System.nanoTime() - start) / 1e6);
+
+        ParallelSegmentTree st = new ParallelSegmentTree(arr);
+        int[] l = new int[queries], r = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            l[i] = random.nextInt(n);
+            r[i] = Math.min(n - 1, l[i] + random.nextInt(10_000));
+        }
+
+        long checksum = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) checksum += st.query(l[i], r[i]);
+        long singleTime = System.nanoTime() - start;
+
+        long[] out = new long[queries];
+        start = System.nanoTime();
+        st.queryBatch(l, r, out);
+        long batchTime = System.nanoTime() - start;
+        for (long v : out) checksum -= v;
+
+        System.out.printf("%d queries: single %.2f M/s, batched %.2f M/s (checksum diff %d)%n",
+                queries, queries * 1e3 / singleTime, queries * 1e3 / batchTime, checksum);
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        int[] arr = { 1, 3, 5, 7, 9, 11 };
+        ParallelSegmentTree st = new ParallelSegmentTree(arr);
+
+        System.out.println("Sum of values in range [1, 3]: " + st.query(1, 3));
+
+        int[] l = { 0, 1, 2, 5 };
+        int[] r = { 5, 3, 2, 5 };
+        long[] out = new long[l.length];
+        st.queryBatch(l, r, out);
+        for (int i = 0; i < l.length; i++) {
+            System.out.println("Batch: sum of [" + l[i] + ", " + r[i] + "] = " + out[i]);
+        }
+
+        // Arguments: array size, number of queries, e.g. 200000000 10000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        benchmark(n, queries);
+    }
+}
@@ -0,0 +1,318 @@
+/*
+  Description:
+  --------------------
+  A Persistent AVL Tree never changes a node once it has been built. Insert
+  and delete copy only the nodes on the path from the root to the change
+  (path copying) and return a new root; every untouched subtree is shared
+  between the old and the new version.
+
+  Because old versions stay valid, a reader can grab the current root and
+  iterate a perfectly consistent snapshot while a writer keeps publishing new
+  roots through an AtomicReference. Readers never lock and never block.
+
+  Supports:
+  - Insert, Delete (publish a new version)
+  - Search
+  - O(1) snapshot acquisition
+  - In-order iteration of a snapshot without recursion
+
+  Use Cases:
+  --------------------
+  - Read-mostly ordered sets shared between threads
+  - Consistent iteration while the set keeps changing
+  - Undo / version history ("what did the set look like before?")
+
+  Time Complexity:
+  --------------------
+  - Search: O(log n)
+  - Insert, Delete: O(log n), allocating O(log n) new nodes
+  - Snapshot: O(1)
+
+  Space Complexity:
+  --------------------
+  - O(n) for the current version, plus O(log n) per update still referenced
+    by an older snapshot
+
+  Approach:
+  --------------------
+  Think of editing a shared document by photocopying only the pages you change
+  and rebinding the book with the new pages: anyone still holding the old book
+  keeps reading it undisturbed, and both books share every unchanged page.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+public class PersistentAVLTree {
+
+    // Immutable node: all fields are final, so a published node is safe to share
+    private static final class Node {
+        final int value, height, size;
+        final Node left, right;
+
+        Node(int value, Node left, Node right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Build a node from (left, value, right), rotating if the heights differ by 2
+    private static Node balance(int value, Node left, Node right) {
+        int hl = height(left), hr = height(right);
+
+        if (hl > hr + 1) {
+            if (height(left.left) >= height(left.right)) {
+                // LEFT LEFT CASE: single right rotation
+                return new Node(left.value, left.left, new Node(value, left.right, right));
+            }
+            // LEFT RIGHT CASE: double rotation
+            Node lr = left.right;
+            return new Node(lr.value, new Node(left.value, left.left, lr.left), new Node(value, lr.right, right));
+        }
+
+        if (hr > hl + 1) {
+            if (height(right.right) >= height(right.left)) {
+                // RIGHT RIGHT CASE: single left rotation
+                return new Node(right.value, new Node(value, left, right.left), right.right);
+            }
+            // RIGHT LEFT CASE: double rotation
+            Node rl = right.left;
+            return new Node(rl.value, new Node(value, left, rl.left), new Node(right.value, rl.right, right.right));
+        }
+
+        return new Node(value, left, right);
+    }
+
+    // Returns the same node when the value is already present (nothing is copied)
+    private static Node insert(Node node, int value) {
+        if (node == null) return new Node(value, null, null);
+
+        if (value < node.value) {
+            Node left = insert(node.left, value);
+            return left == node.left ? node : balance(node.value, left, node.right);
+        }
+        if (value > node.value) {
+            Node right = insert(node.right, value);
+            return right == node.right ? node : balance(node.value, node.left, right);
+        }
+        return node; // duplicates not allowed
+    }
+
+    // Returns the same node when the value is absent (nothing is copied)
+    private static Node delete(Node node, int value) {
+        if (node == null) return null;
+
+        if (value < node.value) {
+            Node left = delete(node.left, value);
+            return left == node.left ? node : balance(node.value, left, node.right);
+        }
+        if (value > node.value) {
+            Node right = delete(node.right, value);
+            return right == node.right ? node : balance(node.value, node.left, right);
+        }
+
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+
+        // Replace with the in-order successor
+        Node min = node.right;
+        while (min.left != null) min = min.left;
+        return balance(min.value, node.left, delete(node.right, min.value));
+    }
+
+    private final AtomicReference<Node> root = new AtomicReference<>();
+
+    // INSERT: returns false if the value was already present
+    public boolean insert(int value) {
+        while (true) {
+            Node current = root.get();
+            Node updated = insert(current, value);
+            if (updated == current) return false;
+            if (root.compareAndSet(current, updated)) return true;
+        }
+    }
+
+    // DELETE: returns false if the value was absent
+    public boolean delete(int value) {
+        while (true) {
+            Node current = root.get();
+            Node updated = delete(current, value);
+            if (updated == current) return false;
+            if (root.compareAndSet(current, updated)) return true;
+        }
+    }
+
+    // SEARCH in the latest version
+    public boolean search(int value) {
+        return snapshot().search(value);
+    }
+
+    public int size() {
+        return size(root.get());
+    }
+
+    // SNAPSHOT: an immutable view of the current version
+    public Snapshot snapshot() {
+        return new Snapshot(root.get());
+    }
+
+    public static final class Snapshot {
+        private final Node root;
+
+        private Snapshot(Node root) {
+            this.root = root;
+        }
+
+        public int size() {
+            return PersistentAVLTree.size(root);
+        }
+
+        public boolean search(int value) {
+            Node node = root;
+            while (node != null) {
+                if (value == node.value) return true;
+                node = value < node.value ? node.left : node.right;
+            }
+            return false;
+        }
+
+        // In-order iteration using an explicit stack sized by the tree height
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                private final Node[] stack = new Node[height(root)];
+                private int top;
+
+                {
+                    pushLeft(root);
+                }
+
+                private void pushLeft(Node node) {
+                    while (node != null) {
+                        stack[top++] = node;
+                        node = node.left;
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return top > 0;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (top == 0) throw new NoSuchElementException();
+                    Node node = stack[--top];
+                    pushLeft(node.right);
+                    return node.value;
+                }
+            };
+        }
+
+        public void forEach(IntConsumer action) {
+            PrimitiveIterator.OfInt it = iterator();
+            while (it.hasNext()) action.accept(it.nextInt());
+        }
+    }
+
+    // IN-ORDER TRAVERSAL of the latest version
+    public void inOrder() {
+        snapshot().forEach(v -> System.out.print(v + " "));
+        System.out.println();
+    }
+
+    // Bytes allocated so far by the current thread, or -1 if the JVM cannot tell
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    // QUICK BENCHMARK: readers search snapshots while one writer keeps updating
+    private static void benchmark(int n, int readers, long millis) throws InterruptedException {
+        PersistentAVLTree tree = new PersistentAVLTree();
+        Random random = new Random(42);
+        for (int i = 0; i < n; i++) tree.insert(random.nextInt(2 * n));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        Thread[] threads = new Thread[readers];
+        for (int t = 0; t < readers; t++) {
+            final int seed = t;
+            threads[t] = new Thread(() -> {
+                Random r = new Random(seed);
+                long local = 0;
+                while (running.get()) {
+                    Snapshot snap = tree.snapshot();
+                    for (int i = 0; i < 1000; i++) snap.search(r.nextInt(2 * n));
+                    local += 1000;
+                }
+                reads.addAndGet(local);
+            });
+            threads[t].start();
+        }
+
+        long updates = 0;
+        long bytesBefore = allocatedBytes();
+        long end = System.nanoTime() + millis * 1_000_000;
+        while (System.nanoTime() < end) {
+            int v = random.nextInt(2 * n);
+            if (random.nextBoolean()) tree.insert(v);
+            else tree.delete(v);
+            updates++;
+        }
+        long bytesAfter = allocatedBytes();
+        running.set(false);
+        for (Thread t : threads) t.join();
+
+        double seconds = millis / 1000.0;
+        System.out.printf("n=%d, %d reader threads, 1 writer, %.1f s%n", n, readers, seconds);
+        System.out.printf("  Reader throughput: %.1f M lookups/s%n", reads.get() / seconds / 1e6);
+        System.out.printf("  Writer throughput: %.1f K updates/s%n", updates / seconds / 1e3);
+        if (bytesBefore >= 0) {
+            System.out.printf("  Allocation per update: %.0f bytes%n", (double) (bytesAfter - bytesBefore) / updates);
+        }
+    }
+
+    // DEMO
+    public static void main(String[] args) throws InterruptedException {
+        PersistentAVLTree avl = new PersistentAVLTree();
+
+        int[] values = { 10, 20, 30, 40, 50, 25 };
+        for (int v : values) avl.insert(v);
+
+        Snapshot before = avl.snapshot();
+        avl.delete(30);
+        avl.insert(35);
+
+        System.out.print("Snapshot taken before the updates: ");
+        before.forEach(v -> System.out.print(v + " "));
+        System.out.println();
+
+        System.out.print("Latest version: ");
+        avl.inOrder();
+
+        // Arguments: number of keys, reader threads
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() - 1;
+        benchmark(n, Math.max(1, readers), 3000);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+  Description:
+  --------------------
+  A Persistent Segment Tree keeps every past version of the array. A point
+  update does not overwrite nodes: it copies only the O(log n) nodes on the
+  path from the root to the changed leaf, and the new nodes point to the old,
+  unchanged subtrees. Each version is just a different root.
+
+  Nodes are not objects. They live in a primitive node pool made of three
+  parallel arrays (left child, right child, sum) that grow like a dynamic
+  array, so a version costs about (log n + 1) * 16 bytes.
+
+  The same idea answers "k-th smallest value in arr[l..r]": build one version
+  per prefix of the array over a value-count tree; the counts of a range are
+  then version(r + 1) minus version(l), and one walk down both trees finds
+  the k-th value.
+
+  Supports:
+  - Point update (creates a new version)
+  - Range sum query on any historical version
+  - K-th smallest in a range (RangeKth)
+
+  Use Cases:
+  --------------------
+  - "As of version v" queries on data updated through the day
+  - Undo / audit history without copying the whole array
+  - Offline order-statistics queries (median of a subarray)
+
+  Time Complexity:
+  --------------------
+  - Build: O(n)
+  - Update: O(log n), allocating O(log n) nodes
+  - Query on any version: O(log n)
+  - K-th smallest: O(log n) after O(n log n) preprocessing
+
+  Space Complexity:
+  --------------------
+  - O(n + u log n) for u updates
+
+  Approach:
+  --------------------
+  Think of a family of photo albums: when one picture changes, you print a new
+  cover and new index pages down to that picture, but reuse every other page
+  from the previous album. Every album ever made can still be opened.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class PersistentSegmentTree {
+
+    // NODE POOL: node i has children left[i], right[i] and aggregate sum[i]
+    private int[] left;
+    private int[] right;
+    private long[] sum;
+    private int nodeCount;
+
+    // Root of every version, version 0 is the initial array
+    private int[] roots;
+    private int versionCount;
+
+    private final int n;
+
+    public PersistentSegmentTree(int[] arr) {
+        n = arr.length;
+        int capacity = Math.max(2 * n, 16);
+        left = new int[capacity];
+        right = new int[capacity];
+        sum = new long[capacity];
+        roots = new int[16];
+        roots[versionCount++] = n == 0 ? -1 : build(arr, 0, n - 1);
+    }
+
+    private int newNode(int l, int r, long s) {
+        if (nodeCount == sum.length) {
+            int capacity = sum.length * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            sum = Arrays.copyOf(sum, capacity);
+        }
+        left[nodeCount] = l;
+        right[nodeCount] = r;
+        sum[nodeCount] = s;
+        return nodeCount++;
+    }
+
+    private int build(int[] arr, int start, int end) {
+        if (start == end) return newNode(-1, -1, arr[start]);
+
+        int mid = (start + end) / 2;
+        int l = build(arr, start, mid);
+        int r = build(arr, mid + 1, end);
+        return newNode(l, r, sum[l] + sum[r]);
+    }
+
+    private void addVersion(int root) {
+        if (versionCount == roots.length) roots = Arrays.copyOf(roots, roots.length * 2);
+        roots[versionCount++] = root;
+    }
+
+    public int versionCount() {
+        return versionCount;
+    }
+
+    public int latestVersion() {
+        return versionCount - 1;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    // Bytes used by the node pool entries in use (int + int + long per node)
+    public long nodeBytes() {
+        return 16L * nodeCount;
+    }
+
+    // UPDATE arr[index] = value in a new version; returns the new version number
+    public int update(int index, long value) {
+        checkIndex(index);
+        addVersion(setRec(roots[latestVersion()], 0, n - 1, index, value));
+        return latestVersion();
+    }
+
+    // UPDATE arr[index] += delta in a new version; returns the new version number
+    public int add(int index, long delta) {
+        checkIndex(index);
+        addVersion(addRec(roots[latestVersion()], 0, n - 1, index, delta));
+        return latestVersion();
+    }
+
+    private int setRec(int node, int start, int end, int idx, long value) {
+        if (start == end) return newNode(-1, -1, value);
+
+        int mid = (start + end) / 2;
+        int l = left[node], r = right[node];
+        if (idx <= mid) l = setRec(l, start, mid, idx, value);
+        else r = setRec(r, mid + 1, end, idx, value);
+        return newNode(l, r, sum[l] + sum[r]);
+    }
+
+    private int addRec(int node, int start, int end, int idx, long delta) {
+        if (start == end) return newNode(-1, -1, sum[node] + delta);
+
+        int mid = (start + end) / 2;
+        int l = left[node], r = right[node];
+        if (idx <= mid) l = addRec(l, start, mid, idx, delta);
+        else r = addRec(r, mid + 1, end, idx, delta);
+        return newNode(l, r, sum[l] + sum[r]);
+    }
+
+    // QUERY sum of arr[l..r] as it was in the given version
+    public long query(int version, int l, int r) {
+        if (version < 0 || version >= versionCount) {
+            throw new IllegalArgumentException("No such version: " + version);
+        }
+        if (l < 0 || r >= n || l > r) {
+            throw new IndexOutOfBoundsException("Invalid range [" + l + ", " + r + "] for size " + n);
+        }
+        return queryRec(roots[version], 0, n - 1, l, r);
+    }
+
+    private long queryRec(int node, int start, int end, int l, int r) {
+        if (r < start || l > end) return 0;            // no overlap
+        if (l <= start && end <= r) return sum[node];  // total overlap
+
+        int mid = (start + end) / 2;
+        return queryRec(left[node], start, mid, l, r) + queryRec(right[node], mid + 1, end, l, r);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + n);
+        }
+    }
+
+    /*
+      K-TH SMALLEST IN A RANGE
+      Version i of a value-count tree holds how often each (compressed) value
+      occurs in arr[0..i-1].
+     */
+    public static final class RangeKth {
+        private final int[] sortedValues;
+        private final PersistentSegmentTree counts;
+
+        public RangeKth(int[] arr) {
+            sortedValues = Arrays.stream(arr).sorted().distinct().toArray();
+            counts = new PersistentSegmentTree(new int[Math.max(sortedValues.length, 1)]);
+            for (int value : arr) counts.add(Arrays.binarySearch(sortedValues, value), 1);
+        }
+
+        // k is 1-based: k = 1 is the minimum of arr[l..r]
+        public int kthSmallest(int l, int r, int k) {
+            if (l < 0 || r >= counts.versionCount - 1 || l > r) {
+                throw new IndexOutOfBoundsException("Invalid range [" + l + ", " + r + "]");
+            }
+            if (k < 1 || k > r - l + 1) throw new IllegalArgumentException("k out of range: " + k);
+
+            PersistentSegmentTree t = counts;
+            int older = t.roots[l], newer = t.roots[r + 1];
+            int start = 0, end = sortedValues.length - 1;
+            while (start != end) {
+                int mid = (start + end) / 2;
+                long inLeft = t.sum[t.left[newer]] - t.sum[t.left[older]];
+                if (k <= inLeft) {
+                    older = t.left[older];
+                    newer = t.left[newer];
+                    end = mid;
+                } else {
+                    k -= inLeft;
+                    older = t.right[older];
+                    newer = t.right[newer];
+                    start = mid + 1;
+                }
+            }
+            return sortedValues[start];
+        }
+    }
+
+    // QUICK BENCHMARK: memory per version and historical query latency
+    private static void benchmark(int n, int updates) {
+        Random random = new Random(42);
+        int[] arr = new int[n];
+        for (int i = 0; i < n; i++) arr[i] = random.nextInt(1000);
+
+        PersistentSegmentTree tree = new PersistentSegmentTree(arr);
+        long baseBytes = tree.nodeBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < updates; i++) tree.update(random.nextInt(n), random.nextInt(1000));
+        long updateTime = System.nanoTime() - start;
+
+        int queries = 1_000_000;
+        long checksum = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            int a = random.nextInt(n), b = random.nextInt(n);
+            checksum += tree.query(random.nextInt(tree.versionCount()), Math.min(a, b), Math.max(a, b));
+        }
+        long queryTime = System.nanoTime() - start;
+
+        System.out.printf("n=%d, %d versions (checksum %d)%n", n, tree.versionCount(), checksum);
+        System.out.printf("  Memory: %.1f MB base, %.0f bytes per version (a full copy would be %d bytes)%n",
+                baseBytes / 1e6, (double) (tree.nodeBytes() - baseBytes) / updates, 16L * (2 * n - 1));
+        System.out.printf("  Update: %.0f ns, historical range query: %.0f ns%n",
+                (double) updateTime / updates, (double) queryTime / queries);
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        int[] arr = { 1, 3, 5, 7, 9, 11 };
+        PersistentSegmentTree st = new PersistentSegmentTree(arr);
+
+        int v1 = st.update(1, 10);
+        int v2 = st.update(3, 0);
+        System.out.println("Sum of [1, 3] in version 0: " + st.query(0, 1, 3));
+        System.out.println("Sum of [1, 3] in version " + v1 + ": " + st.query(v1, 1, 3));
+        System.out.println("Sum of [1, 3] in version " + v2 + ": " + st.query(v2, 1, 3));
+
+        RangeKth kth = new RangeKth(new int[] { 5, 1, 9, 3, 7, 2, 8 });
+        System.out.println("2nd smallest in [1, 5]: " + kth.kthSmallest(1, 5, 2));
+        System.out.println("Median of [0, 6]: " + kth.kthSmallest(0, 6, 4));
+
+        // Arguments: array size, number of updates, e.g. 10000000 10000000
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int updates = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        benchmark(n, updates);
+    }
+}
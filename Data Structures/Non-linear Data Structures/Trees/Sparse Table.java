@@ -0,0 +1,257 @@
+/*
+  Description:
+  --------------------
+  A Sparse Table answers range-minimum (or range-maximum) queries on an array
+  that never changes in O(1) time. Level k stores, for every i, the index of
+  the best element in [i, i + 2^k). Any range [l, r] is covered by two
+  overlapping blocks of the same power-of-two length, and because min and max
+  are idempotent (min(x, x) = x) counting the overlap twice does no harm.
+
+  The table stores indices, not values, so every query returns the position
+  of the answer (argmin / argmax) as well as the value. Level k is its own
+  int[] of n - 2^k + 1 entries, so no single array has to hold n log n
+  ints and the table is not limited to int-indexable sizes.
+
+  BlockSparseTable is the O(n) memory variant:
+  - The array is cut into blocks of 32 elements.
+  - A sparse table is built only over the block minima.
+  - Inside a block, each position keeps a 32-bit mask of the positions still
+    on a monotonic stack, so a query within a block is one bit operation.
+
+  Supports:
+  - Range min or range max query in O(1), returning value and index
+  - O(n log n) (SparseTable) or O(n) (BlockSparseTable) memory
+
+  Use Cases:
+  --------------------
+  - Billions of range-min/max queries over static data
+  - Lowest common ancestor via Euler tour
+  - Suffix-array LCP queries
+
+  Time Complexity:
+  --------------------
+  - Build: O(n log n) / O(n)
+  - Query: O(1)
+
+  Space Complexity:
+  --------------------
+  - SparseTable: about n * (floor(log2 n) + 1) - 2n ints
+  - BlockSparseTable: about n + (n / 32) * log2(n / 32) ints
+
+  Approach:
+  --------------------
+  Think of asking "who is the shortest person in seats 3 to 12?". If you
+  already know the shortest in seats 3-10 and in seats 5-12 (two groups of 8),
+  the answer is the shorter of those two people, even though seats 5-10 were
+  checked twice.
+ */
+
+import java.util.Random;
+
+public class SparseTable {
+
+    public enum Op {
+        MIN, MAX
+    }
+
+    private final int[] arr;
+    private final int n;
+    private final boolean max;
+    private final int[][] table; // table[k][i]: best index in [i, i + 2^k), for i <= n - 2^k
+
+    public SparseTable(int[] arr, Op op) {
+        this.arr = arr;
+        this.n = arr.length;
+        this.max = op == Op.MAX;
+        int levels = n == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(n);
+        table = new int[levels][];
+
+        if (levels > 0) {
+            table[0] = new int[n];
+            for (int i = 0; i < n; i++) table[0][i] = i;
+        }
+        for (int k = 1; k < levels; k++) {
+            int half = 1 << (k - 1);
+            int[] row = new int[n - (1 << k) + 1], prev = table[k - 1];
+            for (int i = 0; i < row.length; i++) row[i] = better(prev[i], prev[i + half]);
+            table[k] = row;
+        }
+    }
+
+    // Ints held by the table for an array of n elements
+    public static long tableInts(int n) {
+        long ints = 0;
+        for (int k = 0; n >= 1 << k && k < 31; k++) ints += n - (1 << k) + 1;
+        return ints;
+    }
+
+    // Index of the better of two elements; ties go to the smaller index
+    private int better(int i, int j) {
+        int a = arr[i], b = arr[j];
+        if (a == b) return Math.min(i, j);
+        return (max ? a > b : a < b) ? i : j;
+    }
+
+    // Index of the min (or max) element in arr[l..r]
+    public int argQuery(int l, int r) {
+        if (l < 0 || r >= n || l > r) {
+            throw new IndexOutOfBoundsException("Invalid range [" + l + ", " + r + "] for size " + n);
+        }
+        int k = 31 - Integer.numberOfLeadingZeros(r - l + 1);
+        int[] row = table[k];
+        return better(row[l], row[r - (1 << k) + 1]);
+    }
+
+    // Value of the min (or max) element in arr[l..r]
+    public int query(int l, int r) {
+        return arr[argQuery(l, r)];
+    }
+
+    /*
+      BLOCK SPARSE TABLE
+      Linear-memory variant: sparse table over blocks of 32, plus a
+      monotonic-stack bit mask per position for queries inside a block.
+     */
+    public static final class BlockSparseTable {
+        private static final int B = 32;
+
+        private final int[] arr;
+        private final int n;
+        private final boolean max;
+        private final int[] mask;        // bit j set: position i - j is on the stack at i
+        private final SparseTable blocks; // over the value of each block's best element
+        private final int[] blockBest;    // index of each block's best element
+
+        public BlockSparseTable(int[] arr, Op op) {
+            this.arr = arr;
+            this.n = arr.length;
+            this.max = op == Op.MAX;
+            this.mask = new int[n];
+
+            // Monotonic stack as a bit mask over the last 32 positions
+            int current = 0;
+            for (int i = 0; i < n; i++) {
+                current <<= 1;
+                while (current != 0) {
+                    int nearest = Integer.numberOfTrailingZeros(current);
+                    if (!strictlyBetter(arr[i], arr[i - nearest])) break;
+                    current &= current - 1; // pop
+                }
+                current |= 1;
+                mask[i] = current;
+            }
+
+            int blockCount = (n + B - 1) / B;
+            blockBest = new int[blockCount];
+            int[] blockValues = new int[blockCount];
+            for (int b = 0; b < blockCount; b++) {
+                int end = Math.min(n, (b + 1) * B) - 1;
+                blockBest[b] = inBlock(b * B, end);
+                blockValues[b] = arr[blockBest[b]];
+            }
+            blocks = new SparseTable(blockValues, op);
+        }
+
+        private boolean strictlyBetter(int a, int b) {
+            return max ? a > b : a < b;
+        }
+
+        private int better(int i, int j) {
+            int a = arr[i], b = arr[j];
+            if (a == b) return Math.min(i, j);
+            return strictlyBetter(a, b) ? i : j;
+        }
+
+        // Best index in [l, r] where r - l < 32: the farthest stack entry inside the window
+        private int inBlock(int l, int r) {
+            int width = r - l + 1;
+            int window = mask[r] & (width == 32 ? -1 : (1 << width) - 1);
+            return r - (31 - Integer.numberOfLeadingZeros(window));
+        }
+
+        public int argQuery(int l, int r) {
+            if (l < 0 || r >= n || l > r) {
+                throw new IndexOutOfBoundsException("Invalid range [" + l + ", " + r + "] for size " + n);
+            }
+            if (r - l < B) return inBlock(l, r);
+
+            int best = better(inBlock(l, l + B - 1), inBlock(r - B + 1, r));
+            int firstBlock = l / B + 1, lastBlock = r / B - 1;
+            if (firstBlock <= lastBlock) best = better(best, blockBest[blocks.argQuery(firstBlock, lastBlock)]);
+            return best;
+        }
+
+        public int query(int l, int r) {
+            return arr[argQuery(l, r)];
+        }
+    }
+
+    // QUICK BENCHMARK against SegmentTree.query (range sum, the only query it offers)
+    private static void benchmark(int n, int queries) {
+        Random random = new Random(42);
+        int[] arr = new int[n];
+        for (int i = 0; i < n; i++) arr[i] = random.nextInt();
+        int[] ls = new int[queries], rs = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            int a = random.nextInt(n), b = random.nextInt(n);
+            ls[i] = Math.min(a, b);
+            rs[i] = Math.max(a, b);
+        }
+
+        long checksum = 0, start;
+        // The full table is n log n ints (about 10 GB at n = 100M); skip it when it cannot fit in the heap
+        long sparseBytes = 4 * tableInts(n);
+        boolean runSparse = sparseBytes < Runtime.getRuntime().maxMemory() / 2;
+        long sparseTime = 0;
+        if (runSparse) {
+            SparseTable sparse = new SparseTable(arr, Op.MIN);
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) checksum += sparse.argQuery(ls[i], rs[i]);
+            sparseTime = System.nanoTime() - start;
+        }
+
+        BlockSparseTable block = new BlockSparseTable(arr, Op.MIN);
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) checksum -= block.argQuery(ls[i], rs[i]);
+        long blockTime = System.nanoTime() - start;
+
+        SegmentTree segment = new SegmentTree(arr);
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) checksum += segment.query(ls[i], rs[i]);
+        long segmentTime = System.nanoTime() - start;
+
+        int levels = 32 - Integer.numberOfLeadingZeros(n);
+        System.out.printf("n=%d, %d queries (checksum %d)%n", n, queries, checksum);
+        if (runSparse) {
+            System.out.printf("  SparseTable:      %6.1f M queries/s, %d MB%n", queries * 1e3 / sparseTime, sparseBytes >> 20);
+        } else {
+            System.out.printf("  SparseTable:      skipped, needs %d MB of the %d MB heap%n", sparseBytes >> 20,
+                    Runtime.getRuntime().maxMemory() >> 20);
+        }
+        System.out.printf("  BlockSparseTable: %6.1f M queries/s, %d MB%n",
+                queries * 1e3 / blockTime, (4L * n + 4L * (n / 32) * levels) >> 20);
+        System.out.printf("  SegmentTree:      %6.1f M queries/s, %d MB%n",
+                queries * 1e3 / segmentTime, 16L * n >> 20);
+    }
+
+    // DEMO
+    public static void main(String[] args) {
+        int[] arr = { 5, 2, 8, 1, 9, 3, 7, 1, 6 };
+
+        SparseTable mins = new SparseTable(arr, Op.MIN);
+        System.out.println("Min of [0, 4]: " + mins.query(0, 4) + " at index " + mins.argQuery(0, 4));
+
+        SparseTable maxs = new SparseTable(arr, Op.MAX);
+        System.out.println("Max of [3, 8]: " + maxs.query(3, 8) + " at index " + maxs.argQuery(3, 8));
+
+        BlockSparseTable blockMins = new BlockSparseTable(arr, Op.MIN);
+        System.out.println("Block table, min of [4, 8]: " + blockMins.query(4, 8)
+                + " at index " + blockMins.argQuery(4, 8));
+
+        // Arguments: array size, number of queries, e.g. 100000000 100000000
+        // (SparseTable then needs about 10 GB of heap, e.g. -Xmx16g; with less it is skipped)
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        benchmark(n, queries);
+    }
+}